@@ -0,0 +1,537 @@
+package Main;
+
+import com.aditya.graph.library.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Checks how the planarity and drawing stages scale. Every stage runs on generated graphs of doubling size, grids
+ * with diagonals for the embedding stages and random triangulations for the drawing ones. The slopes of least
+ * squares fits of log time and log allocated bytes against log nodes estimate the exponents of its growth, and a
+ * stage fails when a slope exceeds the budget declared for it, e.g. 1.2 for the allocations of a linear stage. This
+ * catches asymptotic regressions that constant factors hide on small inputs. Stages inside the strategies are
+ * measured through a tracer, one phase at a time.
+ * <p>
+ * Usage: ComplexityBenchmarks [reportFile]. Writes a JSON report, complexity-report.json by default, and exits with
+ * 1 if any stage is over its budget. The biggest graphs have a million nodes, so run it with -Xmx4g.
+ */
+public class ComplexityBenchmarks
+{
+    // isPlanar takes seconds on a few hundred nodes, so it and triangulate, which needs its output, run on small
+    // graphs. the drawing strategies run on generated embeddings instead.
+    private static final int[] EMBEDDING_SIZES = {32, 64, 128, 256};
+
+    // linear stages run on graphs well beyond the caches, up to about a million nodes
+    private static final int[] LINEAR_SIZES = {1 << 14, 1 << 15, 1 << 16, 1 << 17, 1 << 18, 1 << 19, 1 << 20};
+
+    private static final int[] DEPENDENT_SETS_SIZES = {1 << 8, 1 << 9, 1 << 10, 1 << 11};
+
+    // every size is run at least this often and this long. the cheapest run counts, which filters out collections
+    // and other noise.
+    private static final int MIN_RUNS = 3;
+
+    private static final long MIN_MEASUREMENT_NANOS = 300_000_000L;
+
+    // the recursive helpers need a deep stack on big graphs
+    private static final long STACK_SIZE = 1L << 30;
+
+    private static final long SEED = 42;
+
+    private static final String DEFAULT_REPORT_FILE = "complexity-report.json";
+
+    // findNonEmbeddedComponents puts every edge into a hash set, and every access to it is a cache miss once the
+    // set is bigger than the caches. the time of such a miss keeps growing with the set as the page tables fall out
+    // of the caches too, which makes the time slope 1.15 to 1.3 up to a million nodes.
+    private final Stage nonEmbeddedComponents = new Stage("Helpers.findNonEmbeddedComponents", "O(n)", 1.4, 1.2);
+
+    // the isPlanar phases add up over all paths embedded, which is about one per node
+    private final Stage fragmentDiscovery = new Stage("DMP.isPlanar fragment discovery", "O(n^2.5)", 2.8, 2.7);
+
+    private final Stage faceAdmissibility = new Stage("DMP.isPlanar face admissibility", "O(n^3.5)", 3.8, 3.7);
+
+    private final Stage pathEmbedding = new Stage("DMP.isPlanar path embedding", "O(n^2)", 2.5, 2.2);
+
+    private final Stage triangulation = new Stage("DMP.triangulate linear triangulation", "O(n)", 1.2, 1.2);
+
+    private final Stage orientation = new Stage("DMP.triangulate orientation", "O(n)", 1.2, 1.2);
+
+    private final Stage canonicalOrdering = new Stage("Shift canonical ordering", "O(n)", 1.2, 1.2);
+
+    private final Stage dependentSetsPlacement = new Stage("Shift placement, dependent sets", "O(n^2)", 2.5, 2.2);
+
+    private final Stage relativeOffsetsPlacement = new Stage("Shift placement, relative offsets", "O(n)", 1.2, 1.2);
+
+    private final Stage schnyderRealizer = new Stage("Schnyder realizer", "O(n)", 1.2, 1.2);
+
+    private final Stage schnyderPlacement = new Stage("Schnyder placement", "O(n)", 1.2, 1.2);
+
+    private final List<Stage> stages = Arrays.asList(nonEmbeddedComponents, fragmentDiscovery, faceAdmissibility,
+            pathEmbedding, triangulation, orientation, canonicalOrdering, dependentSetsPlacement,
+            relativeOffsetsPlacement, schnyderRealizer, schnyderPlacement);
+
+    public static void main(final String[] args) throws Exception
+    {
+        final boolean[] isWithinBudget = new boolean[1];
+        final Exception[] failure = new Exception[1];
+        Thread thread = new Thread(null, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    isWithinBudget[0] = new ComplexityBenchmarks().run(
+                            args.length > 0 ? args[0] : DEFAULT_REPORT_FILE);
+                }
+                catch (Exception ex)
+                {
+                    failure[0] = ex;
+                }
+            }
+        }, "complexity-benchmarks", STACK_SIZE);
+        thread.start();
+        thread.join();
+
+        if (failure[0] != null)
+        {
+            throw failure[0];
+        }
+        System.exit(isWithinBudget[0] ? 0 : 1);
+    }
+
+    /**
+     * Measures all stages, prints a summary and writes the report.
+     *
+     * @param reportFile File to write the JSON report to
+     * @return True if every stage is within its budget
+     * @throws Exception Throws an exception if a stage fails or the report couldn't be written
+     */
+    private boolean run(String reportFile) throws Exception
+    {
+        // one untimed round on the smallest sizes gets the code compiled before anything is recorded
+        measureHelpers(LINEAR_SIZES[0], false);
+        measureEmbedding(EMBEDDING_SIZES[0], false);
+        measureDrawing(LINEAR_SIZES[0], false);
+        measureDependentSets(DEPENDENT_SETS_SIZES[0], false);
+        for (int size : LINEAR_SIZES)
+        {
+            measureHelpers(size, true);
+        }
+        for (int size : EMBEDDING_SIZES)
+        {
+            measureEmbedding(size, true);
+        }
+        for (int size : LINEAR_SIZES)
+        {
+            measureDrawing(size, true);
+        }
+        for (int size : DEPENDENT_SETS_SIZES)
+        {
+            measureDependentSets(size, true);
+        }
+
+        boolean isWithinBudget = true;
+        System.out.println(String.format("%-40s %-8s %10s %10s %10s %10s  %s",
+                "stage", "budget", "time", "max", "bytes", "max", "result"));
+        for (Stage stage : stages)
+        {
+            stage.fitSlopes();
+            isWithinBudget &= stage.isWithinBudget();
+            System.out.println(String.format(Locale.ROOT, "%-40s %-8s %10.2f %10.2f %10.2f %10.2f  %s",
+                    stage.name, stage.complexity, stage.timeSlope, stage.maxTimeSlope, stage.allocationSlope,
+                    stage.maxAllocationSlope, stage.isWithinBudget() ? "ok" : "OVER BUDGET"));
+        }
+
+        writeReport(reportFile, isWithinBudget);
+        System.out.println("Report written to " + reportFile);
+        return isWithinBudget;
+    }
+
+    private void measureHelpers(int size, boolean records) throws Exception
+    {
+        final Graph graph = createGrid(size);
+        // the first row counts as embedded, like the outer face after the first cycle of an embedding
+        final boolean[] isEmbedded = new boolean[graph.nodesCount];
+        Arrays.fill(isEmbedded, 0, (int) Math.round(Math.sqrt(size)), true);
+
+        EnumMap<PlanarPhases, Stage> phases = new EnumMap<>(PlanarPhases.class);
+        phases.put(PlanarPhases.FRAGMENT_DISCOVERY, nonEmbeddedComponents);
+        measurePhases(graph.nodesCount, phases, records, new PhaseRun()
+        {
+            @Override
+            public void run(IPlanarTracer tracer)
+            {
+                tracer.phaseStarted(PlanarPhases.FRAGMENT_DISCOVERY);
+                Helpers.findNonEmbeddedComponents(graph, isEmbedded);
+                tracer.phaseFinished(PlanarPhases.FRAGMENT_DISCOVERY);
+            }
+        });
+    }
+
+    private void measureEmbedding(int size, boolean records) throws Exception
+    {
+        final Graph graph = createGrid(size);
+        final Graph[] embeddedGraph = new Graph[1];
+        int nodesCount = graph.nodesCount;
+
+        EnumMap<PlanarPhases, Stage> phases = new EnumMap<>(PlanarPhases.class);
+        phases.put(PlanarPhases.FRAGMENT_DISCOVERY, fragmentDiscovery);
+        phases.put(PlanarPhases.FACE_ADMISSIBILITY, faceAdmissibility);
+        phases.put(PlanarPhases.PATH_EMBEDDING, pathEmbedding);
+        measurePhases(nodesCount, phases, records, new PhaseRun()
+        {
+            @Override
+            public void run(IPlanarTracer tracer) throws Exception
+            {
+                embeddedGraph[0] = new Graph(false);
+                if (new DMPPlanarEmbeddingStrategy(tracer).isPlanar(graph, embeddedGraph[0], CancellationToken.NONE)
+                        != PlanarityResult.PLANAR)
+                {
+                    throw new Exception("isPlanar rejected a grid of " + graph.nodesCount + " nodes.");
+                }
+            }
+        });
+
+        phases.clear();
+        phases.put(PlanarPhases.TRIANGULATION, triangulation);
+        phases.put(PlanarPhases.ORIENTATION, orientation);
+        measurePhases(nodesCount, phases, records, new PhaseRun()
+        {
+            @Override
+            public void run(IPlanarTracer tracer)
+            {
+                new DMPPlanarEmbeddingStrategy(tracer, TriangulationModes.LINEAR)
+                        .triangulate(embeddedGraph[0], new Graph(false), CancellationToken.NONE);
+            }
+        });
+    }
+
+    private void measureDrawing(int size, boolean records) throws Exception
+    {
+        final Graph triangulatedGraph =
+                renumberInBfsOrder(PlanarGraphGenerators.createRandomMaximalPlanarEmbedding(size, SEED));
+
+        EnumMap<PlanarPhases, Stage> phases = new EnumMap<>(PlanarPhases.class);
+        phases.put(PlanarPhases.CANONICAL_ORDERING, canonicalOrdering);
+        phases.put(PlanarPhases.SHIFT_PLACEMENT, relativeOffsetsPlacement);
+        measurePhases(size, phases, records, new PhaseRun()
+        {
+            @Override
+            public void run(IPlanarTracer tracer)
+            {
+                new ShiftPlanarDrawingStrategy(tracer, ShiftDrawingModes.RELATIVE_OFFSETS)
+                        .DrawOnPlaneCompact(triangulatedGraph, CancellationToken.NONE);
+            }
+        });
+
+        phases.clear();
+        phases.put(PlanarPhases.SCHNYDER_REALIZER, schnyderRealizer);
+        phases.put(PlanarPhases.SCHNYDER_PLACEMENT, schnyderPlacement);
+        measurePhases(size, phases, records, new PhaseRun()
+        {
+            @Override
+            public void run(IPlanarTracer tracer)
+            {
+                new SchnyderPlanarDrawingStrategy(tracer).DrawOnPlaneCompact(triangulatedGraph, CancellationToken.NONE);
+            }
+        });
+    }
+
+    private void measureDependentSets(int size, boolean records) throws Exception
+    {
+        final Graph triangulatedGraph = PlanarGraphGenerators.createRandomMaximalPlanarEmbedding(size, SEED);
+
+        EnumMap<PlanarPhases, Stage> phases = new EnumMap<>(PlanarPhases.class);
+        phases.put(PlanarPhases.SHIFT_PLACEMENT, dependentSetsPlacement);
+        measurePhases(size, phases, records, new PhaseRun()
+        {
+            @Override
+            public void run(IPlanarTracer tracer)
+            {
+                new ShiftPlanarDrawingStrategy(tracer, ShiftDrawingModes.DEPENDENT_SETS)
+                        .DrawOnPlaneCompact(triangulatedGraph, CancellationToken.NONE);
+            }
+        });
+    }
+
+    // repeats a run and adds the cheapest time and allocation of every phase to its stage
+    private static void measurePhases(
+            int nodesCount,
+            EnumMap<PlanarPhases, Stage> phases,
+            boolean records,
+            PhaseRun run) throws Exception
+    {
+        // garbage of earlier sizes shouldn't be collected during this one
+        System.gc();
+        PhaseCostTracer tracer = new PhaseCostTracer();
+        long[] minNanos = new long[PlanarPhases.values().length];
+        long[] minBytes = new long[PlanarPhases.values().length];
+        Arrays.fill(minNanos, Long.MAX_VALUE);
+        Arrays.fill(minBytes, Long.MAX_VALUE);
+
+        long measurementEnd = System.nanoTime() + MIN_MEASUREMENT_NANOS;
+        for (int runs = 0; runs < MIN_RUNS || System.nanoTime() < measurementEnd; runs++)
+        {
+            tracer.reset();
+            run.run(tracer);
+            for (PlanarPhases phase : phases.keySet())
+            {
+                minNanos[phase.ordinal()] = Math.min(minNanos[phase.ordinal()], tracer.nanos[phase.ordinal()]);
+                minBytes[phase.ordinal()] = Math.min(minBytes[phase.ordinal()], tracer.bytes[phase.ordinal()]);
+            }
+        }
+
+        if (records)
+        {
+            for (Map.Entry<PlanarPhases, Stage> entry : phases.entrySet())
+            {
+                int phase = entry.getKey().ordinal();
+                entry.getValue().addPoint(nodesCount, minNanos[phase], minBytes[phase]);
+            }
+        }
+    }
+
+    // Nodes of the random triangulations are numbered in the order they were inserted, so neighbors are far apart in
+    // memory and every step of a drawing stage is a cache miss. Their time slopes come out around 1.5 then, the same
+    // as a loop that just reads a random permutation of n nodes. Graphs read from files usually number neighbors
+    // close to each other, and so does a breadth first search, which keeps the slopes of linear stages near 1.
+    private static Graph renumberInBfsOrder(Graph graph)
+    {
+        int nodesCount = graph.nodesCount;
+        int[] newIds = new int[nodesCount];
+        Arrays.fill(newIds, -1);
+        int[] queue = new int[nodesCount];
+        int head = 0, tail = 0;
+        newIds[0] = 0;
+        queue[tail++] = 0;
+        while (head < tail)
+        {
+            for (Edge edge : graph.nodes.get(queue[head++]).neighbors)
+            {
+                if (newIds[edge.dest] == -1)
+                {
+                    newIds[edge.dest] = tail;
+                    queue[tail++] = edge.dest;
+                }
+            }
+        }
+
+        // the neighbors keep their order, so the embedding stays the same
+        Graph renumberedGraph = new Graph(false);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            renumberedGraph.addNode();
+        }
+        renumberedGraph.edgesCount = graph.edgesCount;
+        for (int i = 0; i < nodesCount; i++)
+        {
+            ArrayList<Edge> oldNeighbors = graph.nodes.get(queue[i]).neighbors;
+            ArrayList<Edge> neighbors = new ArrayList<>(oldNeighbors.size());
+            for (Edge edge : oldNeighbors)
+            {
+                neighbors.add(new Edge(i, newIds[edge.dest], false));
+            }
+            renumberedGraph.nodes.get(i).neighbors = neighbors;
+        }
+        return renumberedGraph;
+    }
+
+    private static Graph createGrid(int size) throws Exception
+    {
+        int width = Math.max(2, (int) Math.round(Math.sqrt(size)));
+        int height = Math.max(2, size / width);
+        return PlanarGraphGenerators.createTriangulatedGrid(width, height, SEED);
+    }
+
+    private void writeReport(String reportFile, boolean isWithinBudget) throws IOException
+    {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"javaVersion\":\"").append(System.getProperty("java.version"))
+                .append("\",\"timestamp\":").append(System.currentTimeMillis())
+                .append(",\"passed\":").append(isWithinBudget)
+                .append(",\"stages\":[");
+        for (int i = 0; i < stages.size(); i++)
+        {
+            Stage stage = stages.get(i);
+            json.append(i == 0 ? "{" : ",{")
+                    .append("\"name\":\"").append(stage.name)
+                    .append("\",\"complexity\":\"").append(stage.complexity)
+                    .append("\",\"maxTimeSlope\":").append(stage.maxTimeSlope)
+                    .append(",\"maxAllocationSlope\":").append(stage.maxAllocationSlope)
+                    .append(",\"timeSlope\":").append(String.format(Locale.ROOT, "%.3f", stage.timeSlope))
+                    .append(",\"allocationSlope\":").append(String.format(Locale.ROOT, "%.3f", stage.allocationSlope))
+                    .append(",\"passed\":").append(stage.isWithinBudget())
+                    .append(",\"points\":[");
+            for (int j = 0; j < stage.points.size(); j++)
+            {
+                long[] point = stage.points.get(j);
+                json.append(j == 0 ? "{" : ",{")
+                        .append("\"nodes\":").append(point[0])
+                        .append(",\"nanos\":").append(point[1])
+                        .append(",\"bytes\":").append(point[2])
+                        .append('}');
+            }
+            json.append("]}");
+        }
+        json.append("]}\n");
+
+        try (Writer writer = new FileWriter(reportFile))
+        {
+            writer.write(json.toString());
+        }
+    }
+
+    private interface PhaseRun
+    {
+        void run(IPlanarTracer tracer) throws Exception;
+    }
+
+    // declared growth of a stage and the points measured for it
+    private static final class Stage
+    {
+        final String name;
+
+        final String complexity;
+
+        final double maxTimeSlope;
+
+        final double maxAllocationSlope;
+
+        // nodes, nanoseconds and allocated bytes of every size
+        final ArrayList<long[]> points = new ArrayList<>();
+
+        double timeSlope;
+
+        double allocationSlope;
+
+        Stage(String name, String complexity, double maxTimeSlope, double maxAllocationSlope)
+        {
+            this.name = name;
+            this.complexity = complexity;
+            this.maxTimeSlope = maxTimeSlope;
+            this.maxAllocationSlope = maxAllocationSlope;
+        }
+
+        void addPoint(long nodesCount, long nanos, long bytes)
+        {
+            points.add(new long[]{nodesCount, nanos, bytes});
+        }
+
+        void fitSlopes()
+        {
+            timeSlope = fitSlope(1);
+            allocationSlope = fitSlope(2);
+        }
+
+        boolean isWithinBudget()
+        {
+            return timeSlope <= maxTimeSlope && allocationSlope <= maxAllocationSlope;
+        }
+
+        // least squares slope of log(value) against log(nodes). values below 1 count as 1.
+        private double fitSlope(int valueIdx)
+        {
+            double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+            for (long[] point : points)
+            {
+                double x = Math.log(point[0]);
+                double y = Math.log(Math.max(1, point[valueIdx]));
+                sumX += x;
+                sumY += y;
+                sumXX += x * x;
+                sumXY += x * y;
+            }
+            int count = points.size();
+            return (count * sumXY - sumX * sumY) / (count * sumXX - sumX * sumX);
+        }
+    }
+
+    // sums up time and bytes allocated by the calling thread per phase. phases may be started many times per run.
+    private static final class PhaseCostTracer implements IPlanarTracer
+    {
+        final long[] nanos = new long[PlanarPhases.values().length];
+
+        final long[] bytes = new long[PlanarPhases.values().length];
+
+        private final long[] startNanos = new long[PlanarPhases.values().length];
+
+        private final long[] startBytes = new long[PlanarPhases.values().length];
+
+        private final com.sun.management.ThreadMXBean allocations;
+
+        private final long threadId = Thread.currentThread().getId();
+
+        PhaseCostTracer()
+        {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            allocations = threads instanceof com.sun.management.ThreadMXBean
+                    ? (com.sun.management.ThreadMXBean) threads : null;
+        }
+
+        void reset()
+        {
+            Arrays.fill(nanos, 0);
+            Arrays.fill(bytes, 0);
+        }
+
+        private long getAllocatedBytes()
+        {
+            return allocations == null ? 0 : allocations.getThreadAllocatedBytes(threadId);
+        }
+
+        @Override
+        public void phaseStarted(PlanarPhases phase)
+        {
+            startBytes[phase.ordinal()] = getAllocatedBytes();
+            startNanos[phase.ordinal()] = System.nanoTime();
+        }
+
+        @Override
+        public void phaseFinished(PlanarPhases phase)
+        {
+            nanos[phase.ordinal()] += System.nanoTime() - startNanos[phase.ordinal()];
+            bytes[phase.ordinal()] += getAllocatedBytes() - startBytes[phase.ordinal()];
+        }
+
+        @Override
+        public void pathEmbedded(LinkedList<Integer> path)
+        {
+        }
+
+        @Override
+        public void componentRejected(ArrayList<Integer> component)
+        {
+        }
+
+        @Override
+        public void embeddingFinished(ArrayList<LinkedList<Integer>> faces)
+        {
+        }
+
+        @Override
+        public void neighborsOrdered(int node, int firstNode, int nextNode)
+        {
+        }
+
+        @Override
+        public void canonicalOrderComputed(int[] canonicalOrder)
+        {
+        }
+
+        @Override
+        public void counterIncremented(PlanarCounters counter, long amount)
+        {
+        }
+    }
+}
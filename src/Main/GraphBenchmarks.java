@@ -0,0 +1,267 @@
+package Main;
+
+import com.aditya.general.utilities.Point2D;
+import com.aditya.graph.library.*;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of graph operations and of every stage of the planar pipeline, on triangulated grids of 10^2 to
+ * 10^6 nodes. Every size runs in a JVM of its own with a fixed heap. Throughput and the latency percentiles come from
+ * the two benchmark modes, allocation rate and collections from the GC profiler.
+ * <p>
+ * Usage: GraphBenchmarks [JMH options], e.g. "GraphBenchmarks -p size=100,1000 isPlanar". Without a benchmark
+ * pattern all the benchmarks of this class run, and without a profiler the GC profiler is used. The jars of JMH are
+ * in jGraphTLib and its annotation processor has to run when this class is compiled.
+ * <p>
+ * addEdge and removeEdge are timed for a pass over all edges of the grid. The planar stages are cancelled after a
+ * minute, since on big graphs they can take hours; such sizes are reported as failed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Xss1g"})
+public class GraphBenchmarks
+{
+    // invocations of the planar stages that take longer are cancelled
+    private static final long STAGE_TIME_LIMIT_SECONDS = 60;
+
+    private static final long GRID_SEED = 42;
+
+    public static void main(String[] args) throws Exception
+    {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (commandLineOptions.getIncludes().isEmpty())
+        {
+            options.include(GraphBenchmarks.class.getName());
+        }
+        if (commandLineOptions.getProfilers().isEmpty())
+        {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Builds a grid of about the given number of nodes in which every square is split by a diagonal. Such grids are
+     * planar, 2-connected and close to triangulated, so every stage of the planar pipeline does real work on them.
+     *
+     * @param size Wanted number of nodes
+     * @return Undirected grid graph
+     * @throws Exception Throws an exception if the graph couldn't be built
+     */
+    static Graph createTriangulatedGrid(int size) throws Exception
+    {
+        int width = Math.max(2, (int) Math.round(Math.sqrt(size)));
+        int height = Math.max(2, size / width);
+        return PlanarGraphGenerators.createTriangulatedGrid(width, height, GRID_SEED);
+    }
+
+    /**
+     * Triangulated grid of the benchmarked size.
+     */
+    @State(Scope.Benchmark)
+    public static class Grid
+    {
+        @Param({"100", "1000", "10000", "100000", "1000000"})
+        public int size;
+
+        Graph graph;
+
+        Edge[] edges;
+
+        IPlanarEmbeddingMethods embedder;
+
+        // the first row counts as embedded, like the outer face after the first cycle of an embedding
+        boolean[] isEmbedded;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception
+        {
+            graph = createTriangulatedGrid(size);
+            edges = graph.getEdges();
+            embedder = PlanarEmbeddingFactory.GetPlanarEmbeddingStrategy(PlanarEmbeddingStrategies.DMP);
+            isEmbedded = new boolean[graph.nodesCount];
+            Arrays.fill(isEmbedded, 0, (int) Math.round(Math.sqrt(size)), true);
+        }
+
+        Graph embed(Graph graph) throws Exception
+        {
+            Graph embeddedGraph = new Graph(false);
+            if (embedder.isPlanar(graph, embeddedGraph, newToken()) != PlanarityResult.PLANAR)
+            {
+                throw new Exception("isPlanar didn't finish within the time limit.");
+            }
+            return embeddedGraph;
+        }
+
+        Graph triangulate(Graph embeddedGraph) throws Exception
+        {
+            Graph triangulatedGraph = new Graph(false);
+            if (!embedder.triangulate(embeddedGraph, triangulatedGraph, newToken()))
+            {
+                throw new Exception("triangulate took longer than the time limit.");
+            }
+            return triangulatedGraph;
+        }
+
+        CancellationToken newToken()
+        {
+            return CancellationToken.withTimeout(STAGE_TIME_LIMIT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Graph with the nodes of the grid and no edges, made again before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class EmptyGraph
+    {
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setUp(Grid grid)
+        {
+            graph = new Graph(false);
+            for (int i = 0; i < grid.graph.nodesCount; i++)
+            {
+                graph.addNode();
+            }
+        }
+    }
+
+    /**
+     * Copy of the grid, made again before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class GridCopy
+    {
+        Graph graph;
+
+        @Setup(Level.Invocation)
+        public void setUp(Grid grid)
+        {
+            graph = grid.graph.cloneGraph();
+        }
+    }
+
+    /**
+     * Planar embedding and triangulation of the grid.
+     */
+    @State(Scope.Benchmark)
+    public static class EmbeddedGrid
+    {
+        Graph embeddedGraph;
+
+        Graph triangulatedGraph;
+
+        @Setup(Level.Trial)
+        public void setUp(Grid grid) throws Exception
+        {
+            embeddedGraph = grid.embed(grid.graph);
+            triangulatedGraph = grid.triangulate(embeddedGraph);
+        }
+    }
+
+    @Benchmark
+    public Graph addEdge(Grid grid, EmptyGraph emptyGraph) throws Exception
+    {
+        for (Edge edge : grid.edges)
+        {
+            emptyGraph.graph.addEdge(edge.src, edge.dest);
+        }
+        return emptyGraph.graph;
+    }
+
+    @Benchmark
+    public Graph removeEdge(Grid grid, GridCopy gridCopy)
+    {
+        for (Edge edge : grid.edges)
+        {
+            gridCopy.graph.removeEdge(edge.src, edge.dest);
+        }
+        return gridCopy.graph;
+    }
+
+    @Benchmark
+    public Graph cloneGraph(Grid grid)
+    {
+        return grid.graph.cloneGraph();
+    }
+
+    @Benchmark
+    public Edge[] getEdges(Grid grid)
+    {
+        return grid.graph.getEdges();
+    }
+
+    @Benchmark
+    public int[] findComponents(Grid grid)
+    {
+        return Helpers.findComponents(grid.graph);
+    }
+
+    @Benchmark
+    public LinkedList<Integer> findSomeCycle(Grid grid)
+    {
+        return Helpers.findSomeCycle(grid.graph);
+    }
+
+    @Benchmark
+    public ArrayList<ArrayList<Integer>> findNonEmbeddedComponents(Grid grid)
+    {
+        return Helpers.findNonEmbeddedComponents(grid.graph, grid.isEmbedded);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Graph isPlanar(Grid grid) throws Exception
+    {
+        return grid.embed(grid.graph);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Graph triangulate(Grid grid, EmbeddedGrid embeddedGrid) throws Exception
+    {
+        return grid.triangulate(embeddedGrid.embeddedGraph);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ArrayList<Point2D> drawOnPlane(Grid grid, EmbeddedGrid embeddedGrid) throws Exception
+    {
+        IPlanarDrawingMethods drawer = PlanarDrawingFactory.GetPlanarDrawingStrategy(PlanarDrawingStrategies.SHIFT);
+        ArrayList<Point2D> positions = drawer.DrawOnPlane(embeddedGrid.triangulatedGraph, grid.newToken());
+        if (positions == null)
+        {
+            throw new Exception("DrawOnPlane took longer than the time limit.");
+        }
+        return positions;
+    }
+}
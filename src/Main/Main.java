@@ -8,8 +8,6 @@ import org.jgrapht.ext.JGraphModelAdapter;
 import org.jgrapht.graph.ListenableDirectedGraph;
 
 import javax.swing.*;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -41,6 +39,26 @@ public class Main extends JApplet
             System.out.println("FindSomePath test failed. " + ex.getMessage());
         }
 
+        try
+        {
+            testSharedResultCache();
+            System.out.println("SharedResultCache test passed.");
+        }
+        catch (Exception ex)
+        {
+            System.out.println("SharedResultCache test failed. " + ex.getMessage());
+        }
+
+        try
+        {
+            testPlanarityOfGeneratedGraphs();
+            System.out.println("PlanarityOfGeneratedGraphs test passed.");
+        }
+        catch (Exception ex)
+        {
+            System.out.println("PlanarityOfGeneratedGraphs test failed. " + ex.getMessage());
+        }
+
         // test the output manually
         // can't test automatically
         testPlanarEmbedding();
@@ -53,8 +71,9 @@ public class Main extends JApplet
         Graph graphToTest = readFileToGraph(
                 "C:\\Users\\adity\\IdeaProjects\\GraphLibrary\\inputFiles\\simplePlanar.txt");
 
+        IPlanarTracer tracer = new ConsolePlanarTracer();
         IPlanarEmbeddingMethods embedder = PlanarEmbeddingFactory
-                .GetPlanarEmbeddingStrategy(PlanarEmbeddingStrategies.DMP);
+                .GetPlanarEmbeddingStrategy(PlanarEmbeddingStrategies.DMP, tracer);
 
         System.out.println("Graph we are testing on:\n" + graphToTest);
         Graph embeddedGraph = new Graph(false);
@@ -70,7 +89,7 @@ public class Main extends JApplet
         System.out.println();
 
         IPlanarDrawingMethods drawer = PlanarDrawingFactory
-                .GetPlanarDrawingStrategy(PlanarDrawingStrategies.SCHNYDER);
+                .GetPlanarDrawingStrategy(PlanarDrawingStrategies.SCHNYDER, tracer);
 
         System.out.println("\nPositions of planar graph are:\n");
         ArrayList<Point2D> positions = drawer.DrawOnPlane(triangulatedGraph);
@@ -156,6 +175,62 @@ public class Main extends JApplet
         compareLists(expectedPath, pathFound);
     }
 
+    public static void testSharedResultCache() throws Exception
+    {
+        Graph triangulatedGraph = PlanarGraphGenerators.createRandomMaximalPlanarEmbedding(20, 42);
+        PlanarResultCache cache = new PlanarResultCache(16);
+        IPlanarDrawingMethods shiftDrawer = new CachingPlanarDrawingStrategy(new ShiftPlanarDrawingStrategy(), cache);
+        IPlanarDrawingMethods schnyderDrawer =
+                new CachingPlanarDrawingStrategy(new SchnyderPlanarDrawingStrategy(), cache);
+
+        shiftDrawer.DrawOnPlane(triangulatedGraph);
+        ArrayList<Point2D> positions = schnyderDrawer.DrawOnPlane(triangulatedGraph);
+        ArrayList<Point2D> expectedPositions = new SchnyderPlanarDrawingStrategy().DrawOnPlane(triangulatedGraph);
+        for (int i = 0; i < expectedPositions.size(); i++)
+        {
+            if (positions.get(i).x != expectedPositions.get(i).x || positions.get(i).y != expectedPositions.get(i).y)
+            {
+                throw new Exception("Position of node " + i + " is " + positions.get(i) + ". Expecting "
+                        + expectedPositions.get(i));
+            }
+        }
+
+        schnyderDrawer.DrawOnPlane(triangulatedGraph);
+        if (cache.getMisses() != 2 || cache.getHits() != 1)
+        {
+            throw new Exception("Expecting 2 misses and 1 hit. Got " + cache.getMisses() + " misses and "
+                    + cache.getHits() + " hits");
+        }
+    }
+
+    public static void testPlanarityOfGeneratedGraphs() throws Exception
+    {
+        IPlanarEmbeddingMethods embedder = PlanarEmbeddingFactory
+                .GetPlanarEmbeddingStrategy(PlanarEmbeddingStrategies.DMP);
+        for (int seed = 0; seed < 20; seed++)
+        {
+            expectPlanarity(embedder, "Triangulated grid", PlanarGraphGenerators.createTriangulatedGrid(6, 6, seed),
+                    true);
+            expectPlanarity(embedder, "Random maximal planar graph",
+                    PlanarGraphGenerators.createRandomMaximalPlanar(40, seed), true);
+            expectPlanarity(embedder, "Random 2-connected planar graph",
+                    PlanarGraphGenerators.createRandomBiconnectedPlanar(40, 90, seed), true);
+            expectPlanarity(embedder, "Near-planar graph",
+                    PlanarGraphGenerators.createNearPlanar(40, 1 + seed % 3, seed), false);
+        }
+        expectPlanarity(embedder, "Toroidal grid", PlanarGraphGenerators.createToroidalGridMinusEdge(5, 5), false);
+    }
+
+    private static void expectPlanarity(IPlanarEmbeddingMethods embedder, String name, Graph graph,
+                                        boolean isPlanar) throws Exception
+    {
+        if (embedder.isPlanar(graph, new Graph(graph.isDirected)) != isPlanar)
+        {
+            throw new Exception(name + " with " + graph.nodesCount + " nodes is " + (isPlanar ? "" : "not ")
+                    + "planar. DMP says it is" + (isPlanar ? " not." : "."));
+        }
+    }
+
     private static void compareLists(List<Integer> list1, List<Integer> list2) throws Exception
     {
         Iterator<Integer> resultItr = list1.iterator();
@@ -181,20 +256,7 @@ public class Main extends JApplet
         Graph toReturn = new Graph(false);
         try
         {
-            BufferedReader reader = new BufferedReader(new FileReader(pathToFile));
-            int nodesCount = Integer.parseInt(reader.readLine());
-            int edgeCount = Integer.parseInt(reader.readLine());
-            for (int i = 0; i < nodesCount; i++)
-            {
-                toReturn.addNode();
-            }
-
-            for (int i = 0; i < edgeCount; i++)
-            {
-                String[] nodesOfEdge = reader.readLine().split("\\s+");
-                toReturn.addEdge(Integer.parseInt(nodesOfEdge[0]), Integer.parseInt(nodesOfEdge[1]));
-            }
-            reader.close();
+            toReturn = new GraphFileLoader().load(pathToFile);
         }
         catch (Exception e)
         {
@@ -1,6 +1,6 @@
 package Main;
 
-import com.aditya.general.utilities.Point2D;
+import com.aditya.general.utilities.Coordinates2D;
 import com.aditya.graph.library.*;
 import org.jgraph.JGraph;
 import org.jgraph.graph.AttributeMap;
@@ -14,8 +14,6 @@ import org.jgrapht.graph.ListenableUndirectedGraph;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
-import java.util.ArrayList;
-import java.util.List;
 
 public class TestByDrawing extends JApplet
 {
@@ -44,14 +42,11 @@ public class TestByDrawing extends JApplet
         IPlanarDrawingMethods drawer = PlanarDrawingFactory
                 .GetPlanarDrawingStrategy(PlanarDrawingStrategies.SCHNYDER);
 
-        ArrayList<Point2D> positions = drawer.DrawOnPlane(triangulatedGraph);
-        for (int i = 0; i < positions.size(); i++)
-        {
-            System.out.println(i + " - " + positions.get(i));
-        }
+        Coordinates2D positions = drawer.DrawOnPlaneCompact(triangulatedGraph);
+        System.out.print(positions);
 
         TestByDrawing graphDrawingFrame = new TestByDrawing();
-        graphDrawingFrame.init(graphToTest, positions);
+        graphDrawingFrame.init(triangulatedGraph.getGraphWithoutTemporaryEdges(), positions);
 
         JFrame frame = new JFrame();
         frame.getContentPane().add(graphDrawingFrame);
@@ -83,7 +78,7 @@ public class TestByDrawing extends JApplet
         jg.setBackground(c);
     }
 
-    public void init(Graph embeddedGraph, List<Point2D> positions)
+    public void init(Graph embeddedGraph, Coordinates2D positions)
     {
         ListenableGraph<String, DefaultEdge> graph = new ListenableUndirectedGraph<>(DefaultEdge.class);
         JGraphModelAdapter<String, DefaultEdge> adapter = new JGraphModelAdapter<>(graph);
@@ -105,43 +100,13 @@ public class TestByDrawing extends JApplet
             graph.addEdge(getNodeLabel(edge.src), getNodeLabel(edge.dest));
         }
 
-        double minX = embeddedGraph.nodesCount * 2, maxX = -1;
-        double minY = embeddedGraph.nodesCount * 2, maxY = -1;
-        for (Point2D point : positions)
-        {
-            if (point.x < minX)
-            {
-                minX = point.x;
-            }
-            if (point.x > maxX)
-            {
-                maxX = point.x;
-            }
-            if (point.y < minY)
-            {
-                minY = point.y;
-            }
-            if (point.y > maxY)
-            {
-                maxY = point.y;
-            }
-        }
-
+        positions.normalize(DEFAULT_SIZE.getWidth(), DEFAULT_SIZE.getHeight());
         for (int i = 0; i < embeddedGraph.nodesCount; i++)
         {
-            positionNode(
-                    adapter,
-                    i,
-                    getPosition(positions.get(i).x, minX, maxX, DEFAULT_SIZE.getWidth()),
-                    getPosition(positions.get(i).y, minY, maxY, DEFAULT_SIZE.getHeight()));
+            positionNode(adapter, i, positions.x[i], positions.y[i]);
         }
     }
 
-    private double getPosition(double relative, double min, double max, double fullSize)
-    {
-        return ((relative - min) / (max - min)) * fullSize;
-    }
-
     private void positionNode(
             JGraphModelAdapter<String, DefaultEdge> adapter,
             int node,
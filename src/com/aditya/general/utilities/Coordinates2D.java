@@ -0,0 +1,155 @@
+package com.aditya.general.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions of a set of points kept as two arrays of coordinates instead of one object per point. The bulk
+ * functions are plain loops over the arrays without any branches in their bodies, which the JIT compiler turns into
+ * SIMD instructions.
+ */
+public class Coordinates2D
+{
+    public double[] x;
+
+    public double[] y;
+
+    /**
+     * Creates coordinates for the given number of points, all at the origin.
+     *
+     * @param count Number of points
+     */
+    public Coordinates2D(int count)
+    {
+        this(new double[count], new double[count]);
+    }
+
+    /**
+     * Wraps existing arrays of coordinates. The arrays aren't copied.
+     *
+     * @param x X coordinates of the points
+     * @param y Y coordinates of the points. Must be as long as x.
+     */
+    public Coordinates2D(double[] x, double[] y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * @param points List of points
+     * @return Coordinates of the same points
+     */
+    public static Coordinates2D fromPoints(List<Point2D> points)
+    {
+        Coordinates2D coordinates = new Coordinates2D(points.size());
+        for (int i = 0; i < points.size(); i++)
+        {
+            coordinates.x[i] = points.get(i).x;
+            coordinates.y[i] = points.get(i).y;
+        }
+        return coordinates;
+    }
+
+    /**
+     * @return One point object for every point
+     */
+    public ArrayList<Point2D> toPoints()
+    {
+        ArrayList<Point2D> points = new ArrayList<>(x.length);
+        for (int i = 0; i < x.length; i++)
+        {
+            Point2D point = new Point2D();
+            point.x = x[i];
+            point.y = y[i];
+            points.add(point);
+        }
+        return points;
+    }
+
+    /**
+     * @return Number of points
+     */
+    public int size()
+    {
+        return x.length;
+    }
+
+    /**
+     * Finds the smallest axis parallel rectangle that contains all the points.
+     *
+     * @return Array with minimum x, minimum y, maximum x and maximum y in that order. All of them are 0 if there
+     * are no points.
+     */
+    public double[] getBoundingBox()
+    {
+        if (x.length == 0)
+        {
+            return new double[4];
+        }
+
+        double minX = x[0], maxX = x[0];
+        double minY = y[0], maxY = y[0];
+        for (int i = 1; i < x.length; i++)
+        {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+        }
+        for (int i = 1; i < y.length; i++)
+        {
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+
+        return new double[] {minX, minY, maxX, maxY};
+    }
+
+    /**
+     * Scales and then translates all the points in place, i.e. x becomes x * scaleX + offsetX and y becomes
+     * y * scaleY + offsetY.
+     *
+     * @param scaleX  Factor for x coordinates
+     * @param scaleY  Factor for y coordinates
+     * @param offsetX Amount added to x coordinates after scaling
+     * @param offsetY Amount added to y coordinates after scaling
+     */
+    public void transform(double scaleX, double scaleY, double offsetX, double offsetY)
+    {
+        double[] xs = x;
+        double[] ys = y;
+        for (int i = 0; i < xs.length; i++)
+        {
+            xs[i] = xs[i] * scaleX + offsetX;
+        }
+        for (int i = 0; i < ys.length; i++)
+        {
+            ys[i] = ys[i] * scaleY + offsetY;
+        }
+    }
+
+    /**
+     * Stretches the points in place so that their bounding box becomes [0, width] x [0, height]. If all the points
+     * have the same x (or y) coordinate, that coordinate becomes 0.
+     *
+     * @param width  Width of the target area
+     * @param height Height of the target area
+     */
+    public void normalize(double width, double height)
+    {
+        double[] box = getBoundingBox();
+        double scaleX = box[2] > box[0] ? width / (box[2] - box[0]) : 0;
+        double scaleY = box[3] > box[1] ? height / (box[3] - box[1]) : 0;
+        transform(scaleX, scaleY, -box[0] * scaleX, -box[1] * scaleY);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder printedCoordinates = new StringBuilder();
+        for (int i = 0; i < x.length; i++)
+        {
+            printedCoordinates.append(i + " - x: " + x[i] + " y: " + y[i] + "\n");
+        }
+        return printedCoordinates.toString();
+    }
+}
@@ -0,0 +1,253 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Splits text read from a channel into lines and numbers without creating a string per line. Only a fixed size
+ * buffer of the text is held at any time. Spaces, tabs and carriage returns separate the tokens of a line.
+ */
+final class ByteTokenizer
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int END_OF_INPUT = -1;
+
+    private final ReadableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private boolean isInputFinished;
+
+    /**
+     * Line of the next byte, starting from 1.
+     */
+    long lineNumber = 1;
+
+    ByteTokenizer(ReadableByteChannel channel)
+    {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.buffer.limit(0);
+    }
+
+    /**
+     * @return True if there is any text left
+     */
+    boolean hasMore() throws IOException
+    {
+        return peek() != END_OF_INPUT;
+    }
+
+    /**
+     * Skips spaces and checks if the current line has no tokens left.
+     *
+     * @return True at the end of a line or of the input
+     */
+    boolean isLineEnd() throws IOException
+    {
+        skipSpaces();
+        int next = peek();
+        return next == '\n' || next == END_OF_INPUT;
+    }
+
+    /**
+     * Skips spaces and checks if the next token of the line starts with the given character.
+     *
+     * @param character Character to look for
+     * @return True if the next token starts with the character
+     */
+    boolean startsWith(char character) throws IOException
+    {
+        skipSpaces();
+        return peek() == character;
+    }
+
+    /**
+     * Moves to the start of the next line, skipping whatever is left on the current one.
+     */
+    void skipLine() throws IOException
+    {
+        int next = peek();
+        while (next != '\n' && next != END_OF_INPUT)
+        {
+            buffer.get();
+            next = peek();
+        }
+        if (next == '\n')
+        {
+            buffer.get();
+            lineNumber++;
+        }
+    }
+
+    /**
+     * Moves to the start of the next line. The current line must not have any tokens left.
+     *
+     * @throws GraphFormatException Throws an exception if there are more tokens on the line
+     */
+    void finishLine() throws IOException, GraphFormatException
+    {
+        if (!isLineEnd())
+        {
+            throw error("Unexpected character '" + (char) peek() + "'.");
+        }
+        skipLine();
+    }
+
+    /**
+     * Reads a whole number token.
+     *
+     * @param minimum Smallest allowed value
+     * @param maximum Greatest allowed value
+     * @return Value of the token
+     * @throws GraphFormatException Throws an exception if the token isn't a number or the number is out of range
+     */
+    long readLong(long minimum, long maximum) throws IOException, GraphFormatException
+    {
+        skipSpaces();
+        boolean isNegative = peek() == '-';
+        if (isNegative || peek() == '+')
+        {
+            buffer.get();
+        }
+        if (!isDigit(peek()))
+        {
+            throw error(isLineEnd() ? "Expected a number." : "Unexpected character '" + (char) peek() + "'.");
+        }
+
+        // the magnitude is checked after every digit, so it never gets far enough past the range to overflow
+        long limit = isNegative ? -minimum : maximum;
+        long value = 0;
+        while (isDigit(peek()))
+        {
+            value = value * 10 + (buffer.get() - '0');
+            if (value > limit || value < 0)
+            {
+                throw error("Number is out of range [" + minimum + ", " + maximum + "].");
+            }
+        }
+        if (!isSeparator(peek()))
+        {
+            throw error("Unexpected character '" + (char) peek() + "'.");
+        }
+        // only the side of the sign is checked while reading, e.g. 0 still has to be checked against a minimum of 1
+        if ((isNegative ? -value : value) < minimum)
+        {
+            throw error("Number is out of range [" + minimum + ", " + maximum + "].");
+        }
+
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Reads a whole number token that fits in an int.
+     *
+     * @param minimum Smallest allowed value
+     * @param maximum Greatest allowed value
+     * @return Value of the token
+     * @throws GraphFormatException Throws an exception if the token isn't a number or the number is out of range
+     */
+    int readInt(int minimum, int maximum) throws IOException, GraphFormatException
+    {
+        return (int) readLong(minimum, maximum);
+    }
+
+    /**
+     * Reads a token of any kind. Meant for the few words of headers, not for the bulk of the input.
+     *
+     * @return The token, or an empty string at the end of the line
+     */
+    String readWord() throws IOException
+    {
+        skipSpaces();
+        StringBuilder word = new StringBuilder();
+        while (!isSeparator(peek()))
+        {
+            word.append((char) (buffer.get() & 0xFF));
+        }
+        return word.toString();
+    }
+
+    /**
+     * Skips the next token of the line, whatever it is.
+     */
+    void skipWord() throws IOException
+    {
+        skipSpaces();
+        while (!isSeparator(peek()))
+        {
+            buffer.get();
+        }
+    }
+
+    /**
+     * Adds an edge read from the current line to a builder. Problems with the edge are reported with the line.
+     *
+     * @param builder Builder of the graph being read
+     * @param src     Source vertex of edge
+     * @param dest    Destination vertex of edge
+     * @param weight  Weight of the edge
+     * @throws GraphFormatException Throws an exception if the builder rejects the edge
+     */
+    void addEdgeOfLine(GraphBuilder builder, int src, int dest, int weight) throws GraphFormatException
+    {
+        try
+        {
+            builder.addEdge(src, dest, weight);
+        }
+        catch (Exception ex)
+        {
+            throw error(ex.getMessage());
+        }
+    }
+
+    /**
+     * @param message Description of the problem
+     * @return Exception for a problem on the current line
+     */
+    GraphFormatException error(String message)
+    {
+        return new GraphFormatException(lineNumber, message);
+    }
+
+    private void skipSpaces() throws IOException
+    {
+        int next = peek();
+        while (next == ' ' || next == '\t' || next == '\r')
+        {
+            buffer.get();
+            next = peek();
+        }
+    }
+
+    // returns the next byte without consuming it, refilling the buffer when needed
+    private int peek() throws IOException
+    {
+        while (!buffer.hasRemaining())
+        {
+            if (isInputFinished)
+            {
+                return END_OF_INPUT;
+            }
+            buffer.clear();
+            if (channel.read(buffer) < 0)
+            {
+                isInputFinished = true;
+            }
+            buffer.flip();
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private static boolean isDigit(int value)
+    {
+        return value >= '0' && value <= '9';
+    }
+
+    private static boolean isSeparator(int value)
+    {
+        return value == ' ' || value == '\t' || value == '\r' || value == '\n' || value == END_OF_INPUT;
+    }
+}
@@ -0,0 +1,69 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Point2D;
+
+import java.util.ArrayList;
+
+/**
+ * Drawing strategy that answers DrawOnPlane from a PlanarResultCache when it can and falls back to another strategy
+ * otherwise. Positions computed by the other strategy are added to the cache.
+ */
+public class CachingPlanarDrawingStrategy implements IPlanarDrawingMethods
+{
+    private IPlanarDrawingMethods strategy;
+
+    private PlanarResultCache cache;
+
+    private String strategyKey;
+
+    /**
+     * @param strategy Strategy used to compute positions that aren't in the cache
+     * @param cache    Cache to look up and store positions. It can be shared with other strategies, each of which
+     *                 only sees its own positions.
+     */
+    public CachingPlanarDrawingStrategy(IPlanarDrawingMethods strategy, PlanarResultCache cache)
+    {
+        this.strategy = strategy;
+        this.cache = cache;
+        this.strategyKey = PlanarResultCache.getStrategyKey(strategy);
+    }
+
+    /**
+     * Looks up the triangulated graph in the cache before drawing it. The order of neighbors is part of the lookup.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @return List of 2D points that represent positions of the points on a 2D plane
+     */
+    @Override
+    public ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph)
+    {
+        return DrawOnPlane(triangulatedPlanarGraph, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as DrawOnPlane. Positions are cached only if the strategy finished before the token got cancelled.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return List of 2D points that represent positions of the points on a 2D plane or null if the token got
+     * cancelled before the drawing was complete
+     */
+    @Override
+    public ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(triangulatedPlanarGraph, true);
+        PlanarCacheEntry entry = cache.get(PlanarCacheStages.DRAWING, strategyKey, fingerprint);
+        if (entry != null)
+        {
+            return entry.getPositions(fingerprint);
+        }
+
+        ArrayList<Point2D> positions = strategy.DrawOnPlane(triangulatedPlanarGraph, token);
+        if (positions == null)
+        {
+            return null;
+        }
+        cache.put(PlanarCacheStages.DRAWING, strategyKey, PlanarCacheEntry.fromPositions(fingerprint, positions));
+        return positions;
+    }
+}
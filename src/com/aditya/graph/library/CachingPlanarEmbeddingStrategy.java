@@ -0,0 +1,124 @@
+package com.aditya.graph.library;
+
+/**
+ * Embedding strategy that answers isPlanar and triangulate from a PlanarResultCache when it can and falls back to
+ * another strategy otherwise. Results computed by the other strategy are added to the cache.
+ */
+public class CachingPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
+{
+    private IPlanarEmbeddingMethods strategy;
+
+    private PlanarResultCache cache;
+
+    private String strategyKey;
+
+    /**
+     * @param strategy Strategy used to compute results that aren't in the cache
+     * @param cache    Cache to look up and store results. It can be shared with other strategies, each of which
+     *                 only sees its own results.
+     */
+    public CachingPlanarEmbeddingStrategy(IPlanarEmbeddingMethods strategy, PlanarResultCache cache)
+    {
+        this.strategy = strategy;
+        this.cache = cache;
+        this.strategyKey = PlanarResultCache.getStrategyKey(strategy);
+    }
+
+    /**
+     * Looks up the graph in the cache before checking planarity. When the graph is not planar, only nodes are added
+     * to planarEmbeddedGraph on a cache hit.
+     *
+     * @param graph               Graph which should be checked for planarity
+     * @param planarEmbeddedGraph Graph with edges in correct order for planar drawing. Initialize an empty graph and
+     *                            pass it as input
+     * @return Boolean value indicating planarity of input graph
+     */
+    @Override
+    public boolean isPlanar(Graph graph, Graph planarEmbeddedGraph)
+    {
+        return isPlanar(graph, planarEmbeddedGraph, CancellationToken.NONE) == PlanarityResult.PLANAR;
+    }
+
+    /**
+     * Same as isPlanar. Results of the strategy are cached only if it finished before the token got cancelled.
+     *
+     * @param graph               Graph which should be checked for planarity
+     * @param planarEmbeddedGraph Graph with edges in correct order for planar drawing. Initialize an empty graph and
+     *                            pass it as input
+     * @param token               Token that bounds the time spent
+     * @return Planarity of input graph or TIMED_OUT if the token got cancelled before the test finished
+     */
+    @Override
+    public PlanarityResult isPlanar(Graph graph, Graph planarEmbeddedGraph, CancellationToken token)
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(graph, false);
+        PlanarCacheEntry entry = cache.get(PlanarCacheStages.EMBEDDING, strategyKey, fingerprint);
+        if (entry != null)
+        {
+            entry.copyTo(fingerprint, planarEmbeddedGraph);
+            return entry.isPlanar ? PlanarityResult.PLANAR : PlanarityResult.NOT_PLANAR;
+        }
+
+        PlanarityResult result = strategy.isPlanar(graph, planarEmbeddedGraph, token);
+        if (result == PlanarityResult.TIMED_OUT)
+        {
+            return result;
+        }
+        else if (result == PlanarityResult.PLANAR)
+        {
+            entry = PlanarCacheEntry.fromGraph(fingerprint, true, planarEmbeddedGraph);
+        }
+        else
+        {
+            entry = new PlanarCacheEntry();
+            entry.fingerprint = fingerprint;
+            entry.isPlanar = false;
+        }
+        cache.put(PlanarCacheStages.EMBEDDING, strategyKey, entry);
+
+        return result;
+    }
+
+    /**
+     * Looks up the embedded graph in the cache before triangulating it. The order of neighbors and the faces of the
+     * embedded graph are part of the lookup.
+     *
+     * @param graph             Graph object returned by isPlanar function.
+     * @param triangulatedGraph Fully triangulated version of the input graph. Initialize an empty graph object and
+     *                          pass it as input
+     */
+    @Override
+    public void triangulate(Graph graph, Graph triangulatedGraph)
+    {
+        triangulate(graph, triangulatedGraph, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as triangulate. Results of the strategy are cached only if it finished before the token got cancelled.
+     *
+     * @param graph             Graph object returned by isPlanar function.
+     * @param triangulatedGraph Fully triangulated version of the input graph. Initialize an empty graph object and
+     *                          pass it as input
+     * @param token             Token that bounds the time spent
+     * @return True if the graph got triangulated. False if the token got cancelled first.
+     */
+    @Override
+    public boolean triangulate(Graph graph, Graph triangulatedGraph, CancellationToken token)
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(graph, true);
+        PlanarCacheEntry entry = cache.get(PlanarCacheStages.TRIANGULATION, strategyKey, fingerprint);
+        if (entry != null)
+        {
+            entry.copyTo(fingerprint, triangulatedGraph);
+            return true;
+        }
+
+        if (!strategy.triangulate(graph, triangulatedGraph, token))
+        {
+            return false;
+        }
+        cache.put(PlanarCacheStages.TRIANGULATION, strategyKey,
+                PlanarCacheEntry.fromGraph(fingerprint, true, triangulatedGraph));
+        return true;
+    }
+}
@@ -0,0 +1,78 @@
+package com.aditya.graph.library;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets the caller bound the time spent by a strategy. A token is cancelled either explicitly, by calling cancel from
+ * any thread, or implicitly, once its deadline has passed. Strategies check the token at the boundaries of their
+ * loops and give up as soon as they find it cancelled.
+ */
+public class CancellationToken
+{
+    /**
+     * Token that is never cancelled.
+     */
+    public static final CancellationToken NONE = new CancellationToken(false, false, 0);
+
+    private final boolean isCancellable;
+
+    private final boolean hasDeadline;
+
+    private final long deadlineNanos;
+
+    private volatile boolean isCancelled;
+
+    /**
+     * Creates a token without any deadline. It is cancelled only by calling cancel.
+     */
+    public CancellationToken()
+    {
+        this(true, false, 0);
+    }
+
+    private CancellationToken(boolean isCancellable, boolean hasDeadline, long deadlineNanos)
+    {
+        this.isCancellable = isCancellable;
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Creates a token that gets cancelled once the given amount of time has passed from now.
+     *
+     * @param timeout Time after which the token is cancelled
+     * @param unit    Unit of timeout
+     * @return New token
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit)
+    {
+        return new CancellationToken(true, true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Cancels the token. Strategies using it stop at their next check.
+     */
+    public void cancel()
+    {
+        if (isCancellable)
+        {
+            isCancelled = true;
+        }
+    }
+
+    /**
+     * @return True if the token has been cancelled or its deadline has passed.
+     */
+    public boolean isCancelled()
+    {
+        return isCancelled || (hasDeadline && System.nanoTime() - deadlineNanos >= 0);
+    }
+
+    void throwIfCancelled()
+    {
+        if (isCancelled())
+        {
+            throw new OperationCancelledException();
+        }
+    }
+}
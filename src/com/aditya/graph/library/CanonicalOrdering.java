@@ -0,0 +1,198 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+
+/**
+ * Computes canonical ordering of a triangulated graph whose neighbors are oriented, i.e. an ordering v1, v2, ..., vn
+ * in which the sub-graph of first k vertices is 2-connected and internally triangulated, its outer cycle contains
+ * the edge v1-v2 and v(k + 1) lies on the outer face of it.
+ * <p>
+ * Nodes are removed from the outer cycle one at a time, starting from vn. A node can be removed when it has no
+ * chords, i.e. no edges to nodes of the outer cycle other than its two neighbors on the cycle. The outer cycle is
+ * kept as a doubly linked list, chords are counted per node, and nodes that can be removed are kept in a worklist,
+ * so the whole ordering takes time proportional to the size of the graph.
+ */
+final class CanonicalOrdering
+{
+    private CanonicalOrdering()
+    {
+    }
+
+    /**
+     * @param triangulatedGraph Fully triangulated graph whose neighbors are oriented
+     * @param token             Token that is checked once for every node ordered
+     * @return Nodes of the graph in canonical order. v1 is 0th node, v2 is its first neighbor and vn is its last
+     * neighbor.
+     */
+    static int[] compute(Graph triangulatedGraph, CancellationToken token)
+    {
+        return compute(triangulatedGraph, token, null, null, null);
+    }
+
+    /**
+     * Same as compute. Optionally, also reports how each node was placed: when vk is added on top of the first k - 1
+     * nodes, it lies between leftNeighbors[vk] and rightNeighbors[vk] on the outer cycle and every node it removes
+     * from the outer cycle gets vk as its covering node.
+     *
+     * @param triangulatedGraph Fully triangulated graph whose neighbors are oriented
+     * @param token             Token that is checked once for every node ordered
+     * @param leftNeighbors     Array to fill with the neighbor towards v1 on the outer cycle. Can be null.
+     * @param rightNeighbors    Array to fill with the neighbor towards v2 on the outer cycle. Can be null.
+     * @param coveringNodes     Array to fill with the covering node, -1 for nodes that are never covered. Can be null.
+     * @return Nodes of the graph in canonical order.
+     */
+    static int[] compute(
+            Graph triangulatedGraph,
+            CancellationToken token,
+            int[] leftNeighbors,
+            int[] rightNeighbors,
+            int[] coveringNodes)
+    {
+        int nodesCount = triangulatedGraph.nodesCount;
+        ArrayList<Edge> neighborsOfFirst = triangulatedGraph.nodes.get(0).neighbors;
+        int firstNode = 0;
+        int secondNode = neighborsOfFirst.get(0).dest;
+        int lastNode = neighborsOfFirst.get(neighborsOfFirst.size() - 1).dest;
+
+        // outer cycle from firstNode to secondNode
+        int[] prevOnCycle = new int[nodesCount];
+        int[] nextOnCycle = new int[nodesCount];
+        boolean[] isOuter = new boolean[nodesCount];
+        boolean[] isRemoved = new boolean[nodesCount];
+        int[] chordCount = new int[nodesCount];
+
+        // used to find positions of nodes that have just joined the outer cycle
+        int[] newOuterStamps = new int[nodesCount];
+        int[] newOuterPositions = new int[nodesCount];
+        int[] newOuterNodes = new int[nodesCount];
+
+        // a node is added when it joins the outer cycle or loses its last chord. the latter happens at most twice
+        // for every node removed.
+        int[] worklist = new int[3 * nodesCount];
+        int worklistSize = 0;
+
+        nextOnCycle[firstNode] = lastNode;
+        prevOnCycle[lastNode] = firstNode;
+        nextOnCycle[lastNode] = secondNode;
+        prevOnCycle[secondNode] = lastNode;
+        isOuter[firstNode] = isOuter[secondNode] = isOuter[lastNode] = true;
+        worklist[worklistSize++] = lastNode;
+
+        int[] orderedNodes = new int[nodesCount];
+        orderedNodes[0] = firstNode;
+        orderedNodes[1] = secondNode;
+
+        if (coveringNodes != null)
+        {
+            for (int i = 0; i < nodesCount; i++)
+            {
+                coveringNodes[i] = -1;
+            }
+        }
+
+        for (int i = nodesCount - 1; i > 1; i--)
+        {
+            token.throwIfCancelled();
+
+            // choose an outer node that doesn't have any chords. entries that changed since being added are skipped.
+            int curNode = worklist[--worklistSize];
+            while (!isOuter[curNode] || chordCount[curNode] != 0 || curNode == firstNode || curNode == secondNode)
+            {
+                curNode = worklist[--worklistSize];
+            }
+
+            orderedNodes[i] = curNode;
+            isRemoved[curNode] = true;
+            isOuter[curNode] = false;
+
+            // neighbors that aren't removed yet run from prev to next on the cycle in one of the two directions
+            int prev = prevOnCycle[curNode];
+            int next = nextOnCycle[curNode];
+            if (leftNeighbors != null)
+            {
+                leftNeighbors[curNode] = prev;
+            }
+            if (rightNeighbors != null)
+            {
+                rightNeighbors[curNode] = next;
+            }
+            ArrayList<Edge> neighbors = triangulatedGraph.nodes.get(curNode).neighbors;
+            int degree = neighbors.size();
+            int prevIdx = 0;
+            while (neighbors.get(prevIdx).dest != prev)
+            {
+                prevIdx++;
+            }
+            int forward = neighbors.get((prevIdx + 1) % degree).dest;
+            int backward = neighbors.get((prevIdx + degree - 1) % degree).dest;
+            int step = !isRemoved[forward] && (forward != next || isRemoved[backward]) ? 1 : degree - 1;
+
+            // put the neighbors between prev and next on the outer cycle
+            int newOuterCount = 0;
+            int lastOnCycle = prev;
+            for (int j = (prevIdx + step) % degree; neighbors.get(j).dest != next; j = (j + step) % degree)
+            {
+                int node = neighbors.get(j).dest;
+                nextOnCycle[lastOnCycle] = node;
+                prevOnCycle[node] = lastOnCycle;
+                isOuter[node] = true;
+                newOuterStamps[node] = i;
+                newOuterPositions[node] = newOuterCount;
+                newOuterNodes[newOuterCount++] = node;
+                lastOnCycle = node;
+                if (coveringNodes != null)
+                {
+                    coveringNodes[node] = curNode;
+                }
+            }
+            nextOnCycle[lastOnCycle] = next;
+            prevOnCycle[next] = lastOnCycle;
+
+            if (newOuterCount == 0)
+            {
+                // edge between prev and next was a chord and now it is part of the outer cycle
+                if (--chordCount[prev] == 0)
+                {
+                    worklist[worklistSize++] = prev;
+                }
+                if (--chordCount[next] == 0)
+                {
+                    worklist[worklistSize++] = next;
+                }
+                continue;
+            }
+
+            // count chords of the nodes that have just joined the outer cycle. an edge between two of them is
+            // counted only from the one that comes first.
+            for (int j = 0; j < newOuterCount; j++)
+            {
+                int node = newOuterNodes[j];
+                int prevNeighbor = prevOnCycle[node];
+                int nextNeighbor = nextOnCycle[node];
+                for (Edge edge : triangulatedGraph.nodes.get(node).neighbors)
+                {
+                    int neighbor = edge.dest;
+                    if (!isOuter[neighbor] || neighbor == prevNeighbor || neighbor == nextNeighbor)
+                    {
+                        continue;
+                    }
+                    if (newOuterStamps[neighbor] == i && newOuterPositions[neighbor] < j)
+                    {
+                        continue;
+                    }
+                    chordCount[node]++;
+                    chordCount[neighbor]++;
+                }
+            }
+            for (int j = 0; j < newOuterCount; j++)
+            {
+                if (chordCount[newOuterNodes[j]] == 0)
+                {
+                    worklist[worklistSize++] = newOuterNodes[j];
+                }
+            }
+        }
+
+        return orderedNodes;
+    }
+}
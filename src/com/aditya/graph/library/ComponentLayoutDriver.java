@@ -0,0 +1,515 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Draws graphs that have more than one connected component. Every component is embedded, triangulated and drawn on
+ * its own as a task of a fork/join pool, and the drawings are then packed next to each other on shelves.
+ * Components without cycles don't need the planar pipeline and are drawn as BFS trees. Components with cycles go
+ * through the embedding strategy, which expects them to be 2-connected, so components with cut vertices get extra
+ * edges first that make them 2-connected and keep them planar. The extra edges only shape the drawing; the returned
+ * positions are a planar drawing of the original component.
+ */
+public class ComponentLayoutDriver
+{
+    // space left between drawings of two components
+    private static final double GAP = 2;
+
+    private final PlanarEmbeddingStrategies embeddingStrategy;
+
+    private final PlanarDrawingStrategies drawingStrategy;
+
+    private final IPlanarTracer tracer;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a driver that runs on the common fork/join pool.
+     *
+     * @param embeddingStrategy Strategy used to embed and triangulate each component
+     * @param drawingStrategy   Strategy used to draw each component
+     */
+    public ComponentLayoutDriver(PlanarEmbeddingStrategies embeddingStrategy, PlanarDrawingStrategies drawingStrategy)
+    {
+        this(embeddingStrategy, drawingStrategy, NoOpPlanarTracer.INSTANCE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param embeddingStrategy Strategy used to embed and triangulate each component
+     * @param drawingStrategy   Strategy used to draw each component
+     * @param tracer            Tracer passed to the strategies. It is called from multiple threads at once.
+     * @param pool              Pool on which the components are laid out
+     */
+    public ComponentLayoutDriver(
+            PlanarEmbeddingStrategies embeddingStrategy,
+            PlanarDrawingStrategies drawingStrategy,
+            IPlanarTracer tracer,
+            ForkJoinPool pool)
+    {
+        this.embeddingStrategy = embeddingStrategy;
+        this.drawingStrategy = drawingStrategy;
+        this.tracer = tracer;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes positions of all nodes of an undirected graph. Drawings of the components don't overlap.
+     *
+     * @param graph Graph to draw. It can have any number of components.
+     * @return Coordinates of the nodes, indexed by node, or null if some component is not planar
+     * @throws Exception Throws an exception if the graph couldn't be split into components
+     */
+    public Coordinates2D layout(Graph graph) throws Exception
+    {
+        return layout(graph, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as layout but gives up once the token is cancelled or its deadline has passed. Check the token to tell a
+     * cancelled layout from a non-planar component.
+     *
+     * @param graph Graph to draw. It can have any number of components.
+     * @param token Token that bounds the time spent
+     * @return Coordinates of the nodes, indexed by node, or null if some component is not planar or the token got
+     * cancelled before all components were drawn
+     * @throws Exception Throws an exception if the graph couldn't be split into components
+     */
+    public Coordinates2D layout(Graph graph, CancellationToken token) throws Exception
+    {
+        int[] components = Helpers.findComponents(graph);
+        int componentsCount = 0;
+        for (int component : components)
+        {
+            componentsCount = Math.max(componentsCount, component);
+        }
+
+        // number the nodes of each component from 0 and copy the edges over
+        int[] localIds = new int[graph.nodesCount];
+        ArrayList<int[]> membersOfComponent = new ArrayList<>(componentsCount);
+        int[] sizes = new int[componentsCount];
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            localIds[i] = sizes[components[i] - 1]++;
+        }
+        for (int i = 0; i < componentsCount; i++)
+        {
+            membersOfComponent.add(new int[sizes[i]]);
+        }
+        ArrayList<Graph> subGraphs = new ArrayList<>(componentsCount);
+        for (int i = 0; i < componentsCount; i++)
+        {
+            Graph subGraph = new Graph(false);
+            for (int j = 0; j < sizes[i]; j++)
+            {
+                subGraph.addNode();
+            }
+            subGraphs.add(subGraph);
+        }
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            membersOfComponent.get(components[i] - 1)[localIds[i]] = i;
+        }
+        for (Edge edge : graph.getEdges())
+        {
+            subGraphs.get(components[edge.src] - 1).addEdge(localIds[edge.src], localIds[edge.dest], edge.weight);
+        }
+
+        ArrayList<ComponentLayoutTask> tasks = new ArrayList<>(componentsCount);
+        for (Graph subGraph : subGraphs)
+        {
+            tasks.add(new ComponentLayoutTask(subGraph, token));
+        }
+        return layoutComponents(tasks, membersOfComponent, graph.nodesCount);
+    }
+
+    /**
+     * Computes positions of all nodes of an undirected graph stored in any form, e.g. an OffHeapGraph. Each
+     * component is copied into a Graph only by the task that draws it, so the heap holds just the components being
+     * drawn at the moment, besides the positions. Every single component has to fit in the heap.
+     *
+     * @param adjacency Graph to draw. It can have any number of components.
+     * @return Coordinates of the nodes, indexed by node, or null if some component is not planar
+     */
+    public Coordinates2D layout(IAdjacencyView adjacency)
+    {
+        int nodesCount = adjacency.getNodesCount();
+        int[] components = Helpers.findComponents(adjacency);
+        int componentsCount = 0;
+        for (int component : components)
+        {
+            componentsCount = Math.max(componentsCount, component);
+        }
+
+        int[] localIds = new int[nodesCount];
+        int[] sizes = new int[componentsCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            localIds[i] = sizes[components[i] - 1]++;
+        }
+        ArrayList<int[]> membersOfComponent = new ArrayList<>(componentsCount);
+        for (int i = 0; i < componentsCount; i++)
+        {
+            membersOfComponent.add(new int[sizes[i]]);
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            membersOfComponent.get(components[i] - 1)[localIds[i]] = i;
+        }
+
+        ArrayList<ComponentLayoutTask> tasks = new ArrayList<>(componentsCount);
+        for (int[] members : membersOfComponent)
+        {
+            tasks.add(new ComponentLayoutTask(adjacency, members, localIds));
+        }
+        return layoutComponents(tasks, membersOfComponent, nodesCount);
+    }
+
+    // lays out all the components in parallel and packs the drawings
+    private Coordinates2D layoutComponents(
+            ArrayList<ComponentLayoutTask> tasks,
+            ArrayList<int[]> membersOfComponent,
+            int nodesCount)
+    {
+        for (ComponentLayoutTask task : tasks)
+        {
+            pool.execute(task);
+        }
+
+        Coordinates2D[] drawings = new Coordinates2D[tasks.size()];
+        for (int i = 0; i < drawings.length; i++)
+        {
+            drawings[i] = tasks.get(i).join();
+            if (drawings[i] == null)
+            {
+                return null;
+            }
+        }
+
+        return packComponents(drawings, membersOfComponent, nodesCount);
+    }
+
+    // Shelf packing: components are sorted by height and put from left to right on shelves. A new shelf is started
+    // on top of the current one once the shelf gets wider than the square root of the total area.
+    private Coordinates2D packComponents(
+            final Coordinates2D[] drawings,
+            ArrayList<int[]> membersOfComponent,
+            int nodesCount)
+    {
+        int componentsCount = drawings.length;
+        final double[] widths = new double[componentsCount];
+        final double[] heights = new double[componentsCount];
+        double totalArea = 0;
+        double maxWidth = 0;
+        Integer[] sortedComponents = new Integer[componentsCount];
+
+        for (int i = 0; i < componentsCount; i++)
+        {
+            // move each drawing to the origin
+            double[] box = drawings[i].getBoundingBox();
+            drawings[i].transform(1, 1, -box[0], -box[1]);
+            widths[i] = box[2] - box[0];
+            heights[i] = box[3] - box[1];
+            totalArea += (widths[i] + GAP) * (heights[i] + GAP);
+            maxWidth = Math.max(maxWidth, widths[i]);
+            sortedComponents[i] = i;
+        }
+        Arrays.sort(sortedComponents, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer first, Integer second)
+            {
+                return Double.compare(heights[second], heights[first]);
+            }
+        });
+
+        double shelfWidth = Math.max(maxWidth, Math.sqrt(totalArea));
+        double shelfX = 0, shelfY = 0, shelfHeight = 0;
+        Coordinates2D positions = new Coordinates2D(nodesCount);
+
+        for (Integer component : sortedComponents)
+        {
+            if (shelfX > 0 && shelfX + widths[component] > shelfWidth)
+            {
+                shelfY += shelfHeight + GAP;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+
+            int[] members = membersOfComponent.get(component);
+            Coordinates2D drawing = drawings[component];
+            for (int i = 0; i < members.length; i++)
+            {
+                positions.x[members[i]] = drawing.x[i] + shelfX;
+                positions.y[members[i]] = drawing.y[i] + shelfY;
+            }
+
+            shelfX += widths[component] + GAP;
+            shelfHeight = Math.max(shelfHeight, heights[component]);
+        }
+
+        return positions;
+    }
+
+    // places nodes of a tree by their distance from the 0th node. children are placed in the order of their parents,
+    // so no two edges cross.
+    private static Coordinates2D layoutTree(Graph tree)
+    {
+        Coordinates2D positions = new Coordinates2D(tree.nodesCount);
+        boolean[] hasVisited = new boolean[tree.nodesCount];
+        int[] depths = new int[tree.nodesCount];
+        int[] queue = new int[tree.nodesCount];
+        int head = 0, tail = 0;
+        int curDepth = 0, positionInLayer = 0;
+
+        queue[tail++] = 0;
+        hasVisited[0] = true;
+        while (head < tail)
+        {
+            int node = queue[head++];
+            if (depths[node] != curDepth)
+            {
+                curDepth = depths[node];
+                positionInLayer = 0;
+            }
+            positions.x[node] = positionInLayer++;
+            positions.y[node] = curDepth;
+
+            for (Edge edge : tree.nodes.get(node).neighbors)
+            {
+                if (!hasVisited[edge.dest])
+                {
+                    hasVisited[edge.dest] = true;
+                    depths[edge.dest] = curDepth + 1;
+                    queue[tail++] = edge.dest;
+                }
+            }
+        }
+
+        return positions;
+    }
+
+    // copies the edges of a component out of the whole graph. each undirected edge is seen from both of its ends,
+    // so it is added from the end with the smaller id.
+    private static Graph extractComponent(IAdjacencyView adjacency, int[] members, int[] localIds)
+    {
+        Graph component = new Graph(false);
+        for (int i = 0; i < members.length; i++)
+        {
+            component.addNode();
+        }
+
+        int[] neighbors = new int[adjacency.getMaxDegree()];
+        try
+        {
+            for (int member : members)
+            {
+                int degree = adjacency.getNeighbors(member, neighbors);
+                for (int i = 0; i < degree; i++)
+                {
+                    if (member < neighbors[i] || adjacency.isDirected())
+                    {
+                        component.addEdge(localIds[member], localIds[neighbors[i]]);
+                    }
+                }
+            }
+        }
+        catch (Exception ex)
+        {
+            // the neighbors of a member are members of the same component, so their local ids exist
+            throw new IllegalStateException(ex);
+        }
+
+        return component;
+    }
+
+    // Adds edges to a connected graph with cut vertices until it is 2-connected, keeping it planar. Every block is
+    // embedded on its own and one corner of a face around each of its nodes is noted: the previous and next node of
+    // the face. At a cut vertex the blocks are chained by connecting the next node of the corner of each block to
+    // the previous node of the corner of the following block. Such an edge can be drawn along both edges of the cut
+    // vertex once every block is flipped to have its corner facing outwards, so the graph stays planar, and the
+    // chain keeps the blocks connected when the cut vertex is removed. Returns null if some block is not planar or
+    // the token got cancelled.
+    private static Graph makeBiconnected(
+            Graph graph,
+            ArrayList<ArrayList<Edge>> blocks,
+            IPlanarEmbeddingMethods embedder,
+            CancellationToken token)
+    {
+        ArrayList<ArrayList<int[]>> cornersOfNode = new ArrayList<>(graph.nodesCount);
+        int[] localIds = new int[graph.nodesCount];
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            cornersOfNode.add(new ArrayList<int[]>());
+            localIds[i] = -1;
+        }
+
+        for (ArrayList<Edge> block : blocks)
+        {
+            if (block.size() == 1)
+            {
+                // a bridge has a single corner at each end, made of the other end only
+                Edge bridge = block.get(0);
+                cornersOfNode.get(bridge.src).add(new int[]{bridge.dest, bridge.dest});
+                cornersOfNode.get(bridge.dest).add(new int[]{bridge.src, bridge.src});
+                continue;
+            }
+
+            ArrayList<Integer> members = new ArrayList<>();
+            Graph blockGraph = new Graph(false);
+            try
+            {
+                for (Edge edge : block)
+                {
+                    for (int end : new int[]{edge.src, edge.dest})
+                    {
+                        if (localIds[end] == -1)
+                        {
+                            localIds[end] = blockGraph.addNode();
+                            members.add(end);
+                        }
+                    }
+                    blockGraph.addEdge(localIds[edge.src], localIds[edge.dest]);
+                }
+            }
+            catch (Exception ex)
+            {
+                // both ends of every edge have just been added to the block
+                throw new IllegalStateException(ex);
+            }
+            for (Integer member : members)
+            {
+                localIds[member] = -1;
+            }
+
+            Graph embeddedBlock = new Graph(false);
+            if (embedder.isPlanar(blockGraph, embeddedBlock, token) != PlanarityResult.PLANAR)
+            {
+                return null;
+            }
+
+            // any face around a node will do, so the first one is taken
+            boolean[] hasCorner = new boolean[members.size()];
+            for (LinkedList<Integer> face : embeddedBlock.faces)
+            {
+                ArrayList<Integer> faceNodes = new ArrayList<>(face);
+                int faceSize = faceNodes.size();
+                for (int i = 0; i < faceSize; i++)
+                {
+                    int node = faceNodes.get(i);
+                    if (!hasCorner[node])
+                    {
+                        hasCorner[node] = true;
+                        cornersOfNode.get(members.get(node)).add(new int[]{
+                                members.get(faceNodes.get((i + faceSize - 1) % faceSize)),
+                                members.get(faceNodes.get((i + 1) % faceSize))});
+                    }
+                }
+            }
+        }
+
+        Graph biconnectedGraph = graph.cloneGraph();
+        try
+        {
+            // only cut vertices have corners in more than one block. nodes of different blocks at a cut vertex are
+            // never adjacent, so no edge is added twice.
+            for (ArrayList<int[]> corners : cornersOfNode)
+            {
+                for (int i = 1; i < corners.size(); i++)
+                {
+                    biconnectedGraph.addEdge(corners.get(i - 1)[1], corners.get(i)[0]);
+                }
+            }
+        }
+        catch (Exception ex)
+        {
+            // nodes of corners are nodes of the graph
+            throw new IllegalStateException(ex);
+        }
+
+        return biconnectedGraph;
+    }
+
+    private class ComponentLayoutTask extends RecursiveTask<Coordinates2D>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Graph component;
+
+        private final IAdjacencyView adjacency;
+
+        private final int[] members;
+
+        private final int[] localIds;
+
+        private final CancellationToken token;
+
+        ComponentLayoutTask(Graph component, CancellationToken token)
+        {
+            this(component, null, null, null, token);
+        }
+
+        ComponentLayoutTask(IAdjacencyView adjacency, int[] members, int[] localIds)
+        {
+            this(null, adjacency, members, localIds, CancellationToken.NONE);
+        }
+
+        private ComponentLayoutTask(
+                Graph component,
+                IAdjacencyView adjacency,
+                int[] members,
+                int[] localIds,
+                CancellationToken token)
+        {
+            this.component = component;
+            this.adjacency = adjacency;
+            this.members = members;
+            this.localIds = localIds;
+            this.token = token;
+        }
+
+        @Override
+        protected Coordinates2D compute()
+        {
+            // a copied component is dropped as soon as it is drawn
+            Graph graph = component != null ? component : extractComponent(adjacency, members, localIds);
+            if (graph.edgesCount == graph.nodesCount - 1)
+            {
+                return layoutTree(graph);
+            }
+
+            IPlanarEmbeddingMethods embedder =
+                    PlanarEmbeddingFactory.GetPlanarEmbeddingStrategy(embeddingStrategy, tracer);
+            ArrayList<ArrayList<Edge>> blocks = Helpers.findBiconnectedComponents(graph);
+            if (blocks.size() > 1)
+            {
+                graph = makeBiconnected(graph, blocks, embedder, token);
+                if (graph == null)
+                {
+                    return null;
+                }
+            }
+
+            Graph embeddedGraph = new Graph(false);
+            if (embedder.isPlanar(graph, embeddedGraph, token) != PlanarityResult.PLANAR)
+            {
+                return null;
+            }
+
+            Graph triangulatedGraph = new Graph(false);
+            if (!embedder.triangulate(embeddedGraph, triangulatedGraph, token))
+            {
+                return null;
+            }
+
+            return PlanarDrawingFactory.GetPlanarDrawingStrategy(drawingStrategy, tracer)
+                    .DrawOnPlaneCompact(triangulatedGraph, token);
+        }
+    }
+}
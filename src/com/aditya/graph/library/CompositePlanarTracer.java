@@ -0,0 +1,92 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Tracer that forwards everything to several tracers, e.g. to print traces and collect metrics at the same time.
+ */
+public class CompositePlanarTracer implements IPlanarTracer
+{
+    private IPlanarTracer[] tracers;
+
+    /**
+     * @param tracers Tracers that receive the calls, in the same order
+     */
+    public CompositePlanarTracer(IPlanarTracer... tracers)
+    {
+        this.tracers = tracers.clone();
+    }
+
+    @Override
+    public void pathEmbedded(LinkedList<Integer> path)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.pathEmbedded(path);
+        }
+    }
+
+    @Override
+    public void componentRejected(ArrayList<Integer> component)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.componentRejected(component);
+        }
+    }
+
+    @Override
+    public void embeddingFinished(ArrayList<LinkedList<Integer>> faces)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.embeddingFinished(faces);
+        }
+    }
+
+    @Override
+    public void neighborsOrdered(int node, int firstNode, int nextNode)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.neighborsOrdered(node, firstNode, nextNode);
+        }
+    }
+
+    @Override
+    public void canonicalOrderComputed(int[] canonicalOrder)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.canonicalOrderComputed(canonicalOrder);
+        }
+    }
+
+    @Override
+    public void phaseStarted(PlanarPhases phase)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.phaseStarted(phase);
+        }
+    }
+
+    @Override
+    public void phaseFinished(PlanarPhases phase)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.phaseFinished(phase);
+        }
+    }
+
+    @Override
+    public void counterIncremented(PlanarCounters counter, long amount)
+    {
+        for (IPlanarTracer tracer : tracers)
+        {
+            tracer.counterIncremented(counter, amount);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Read-only adjacency of a graph in compressed form. The neighbors of each node are sorted and stored as the
+ * differences between consecutive neighbors, each written as a varint, i.e. 7 bits per byte with the high bit set
+ * on all but the last byte. A list starts with the degree of its node and its first neighbor is stored relative to
+ * the node itself, so graphs whose nodes are numbered with good locality (e.g. in BFS order) need one or two bytes
+ * per neighbor instead of four.
+ * <p>
+ * Lists of 64 consecutive nodes form a block. Only the start of each block is kept as an int and the start of each
+ * list as a 2 byte offset into its block, unless the block is too big for that. Blocks are kept in pages of at most
+ * 1GB and a block never crosses two pages, so graphs bigger than one array are supported. The order of neighbors
+ * and the weights of the edges aren't kept.
+ */
+public class CompressedAdjacency implements IAdjacencyView
+{
+    private static final int MAX_PAGE_SIZE = 1 << 30;
+
+    private static final int BLOCK_SHIFT = 6;
+
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    // largest offset of a list in a block that fits in a char
+    private static final int MAX_SHORT_OFFSET = 0xFFFF;
+
+    // a varint of an int takes at most 5 bytes
+    private static final int MAX_VARINT_SIZE = 5;
+
+    private final int nodesCount;
+
+    private final int edgesCount;
+
+    private final boolean isDirected;
+
+    private final int maxDegree;
+
+    private final byte[][] pages;
+
+    // first block of each page, plus the number of blocks at the end
+    private final int[] pageFirstBlocks;
+
+    // start of each block within its page
+    private final int[] blockStarts;
+
+    // offset of the list of each node from the start of its block
+    private final char[] offsets;
+
+    // index into wideOffsets of the first node of each block whose offsets don't fit in a char, -1 for others
+    private final int[] wideBlocks;
+
+    private final int[] wideOffsets;
+
+    private CompressedAdjacency(
+            int nodesCount,
+            int edgesCount,
+            boolean isDirected,
+            int maxDegree,
+            byte[][] pages,
+            int[] pageFirstBlocks,
+            int[] blockStarts,
+            char[] offsets,
+            int[] wideBlocks,
+            int[] wideOffsets)
+    {
+        this.nodesCount = nodesCount;
+        this.edgesCount = edgesCount;
+        this.isDirected = isDirected;
+        this.maxDegree = maxDegree;
+        this.pages = pages;
+        this.pageFirstBlocks = pageFirstBlocks;
+        this.blockStarts = blockStarts;
+        this.offsets = offsets;
+        this.wideBlocks = wideBlocks;
+        this.wideOffsets = wideOffsets;
+    }
+
+    /**
+     * @param graph Graph to compress
+     * @return Compressed adjacency of the graph
+     */
+    public static CompressedAdjacency fromGraph(Graph graph)
+    {
+        return fromAdjacency(new GraphAdjacencyView(graph));
+    }
+
+    /**
+     * @param adjacency Adjacency to compress, e.g. of a CsrGraph mapped from a file
+     * @return Compressed adjacency of the same graph
+     */
+    public static CompressedAdjacency fromAdjacency(IAdjacencyView adjacency)
+    {
+        return fromAdjacency(adjacency, MAX_PAGE_SIZE);
+    }
+
+    static CompressedAdjacency fromAdjacency(IAdjacencyView adjacency, int maxPageSize)
+    {
+        int nodesCount = adjacency.getNodesCount();
+        int maxDegree = adjacency.getMaxDegree();
+        int blocksCount = (nodesCount + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        int[] neighbors = new int[maxDegree];
+        int[] listStarts = new int[BLOCK_SIZE];
+
+        int[] blockStarts = new int[blocksCount];
+        char[] offsets = new char[nodesCount];
+        int[] wideBlocks = new int[blocksCount];
+        IntList wideOffsets = new IntList();
+
+        // a block is encoded here first, since it can go to the next page only as a whole
+        byte[] block = new byte[1 << 12];
+        PageWriter writer = new PageWriter(maxPageSize);
+        for (int blockIndex = 0; blockIndex < blocksCount; blockIndex++)
+        {
+            int firstNode = blockIndex << BLOCK_SHIFT;
+            int lastNode = Math.min(firstNode + BLOCK_SIZE, nodesCount);
+            int length = 0;
+            for (int node = firstNode; node < lastNode; node++)
+            {
+                int degree = adjacency.getNeighbors(node, neighbors);
+                Arrays.sort(neighbors, 0, degree);
+
+                long maxLength = (long) length + MAX_VARINT_SIZE * (degree + 1L);
+                if (maxLength > block.length)
+                {
+                    block = Arrays.copyOf(block, (int) Math.min(Math.max(2L * block.length, maxLength),
+                            Integer.MAX_VALUE - 8));
+                }
+
+                listStarts[node - firstNode] = length;
+                length = putVarint(block, length, degree);
+                int previous = node;
+                for (int i = 0; i < degree; i++)
+                {
+                    // the first difference can be negative, the others can't
+                    int difference = neighbors[i] - previous;
+                    length = putVarint(block, length, i == 0 ? (difference << 1) ^ (difference >> 31) : difference);
+                    previous = neighbors[i];
+                }
+            }
+
+            blockStarts[blockIndex] = writer.append(blockIndex, block, length);
+            if (listStarts[lastNode - firstNode - 1] <= MAX_SHORT_OFFSET)
+            {
+                wideBlocks[blockIndex] = -1;
+                for (int node = firstNode; node < lastNode; node++)
+                {
+                    offsets[node] = (char) listStarts[node - firstNode];
+                }
+            }
+            else
+            {
+                wideBlocks[blockIndex] = wideOffsets.size();
+                for (int node = firstNode; node < lastNode; node++)
+                {
+                    wideOffsets.add(listStarts[node - firstNode]);
+                }
+            }
+        }
+
+        byte[][] pages = writer.finish();
+        return new CompressedAdjacency(nodesCount, adjacency.getEdgesCount(), adjacency.isDirected(), maxDegree,
+                pages, writer.getPageFirstBlocks(blocksCount), blockStarts, offsets, wideBlocks, wideOffsets.toArray());
+    }
+
+    /**
+     * @return Bytes taken by the compressed lists and the index of their starts
+     */
+    public long getSizeInBytes()
+    {
+        long size = 2L * offsets.length
+                + 4L * (pageFirstBlocks.length + blockStarts.length + wideBlocks.length + wideOffsets.length);
+        for (byte[] page : pages)
+        {
+            size += page.length;
+        }
+        return size;
+    }
+
+    @Override
+    public int getNodesCount()
+    {
+        return nodesCount;
+    }
+
+    @Override
+    public int getEdgesCount()
+    {
+        return edgesCount;
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return isDirected;
+    }
+
+    @Override
+    public int getMaxDegree()
+    {
+        return maxDegree;
+    }
+
+    @Override
+    public int getDegree(int node)
+    {
+        int blockIndex = node >>> BLOCK_SHIFT;
+        byte[] page = pages[getPage(blockIndex)];
+        int position = getStart(blockIndex, node);
+        int value = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            byte current = page[position++];
+            value |= (current & 0x7F) << shift;
+            if (current >= 0)
+            {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Decodes the neighbors of a node in increasing order.
+     *
+     * @param node      Node of the graph
+     * @param neighbors Buffer of at least getDegree(node) elements
+     * @return Number of neighbors written to the buffer
+     */
+    @Override
+    public int getNeighbors(int node, int[] neighbors)
+    {
+        int blockIndex = node >>> BLOCK_SHIFT;
+        byte[] page = pages[getPage(blockIndex)];
+        int position = getStart(blockIndex, node);
+        int degree = 0;
+
+        // the loops below are the varint decoder inlined, since this is the hot path of every traversal
+        for (int shift = 0; ; shift += 7)
+        {
+            byte current = page[position++];
+            degree |= (current & 0x7F) << shift;
+            if (current >= 0)
+            {
+                break;
+            }
+        }
+
+        int previous = node;
+        for (int i = 0; i < degree; i++)
+        {
+            int value = 0;
+            for (int shift = 0; ; shift += 7)
+            {
+                byte current = page[position++];
+                value |= (current & 0x7F) << shift;
+                if (current >= 0)
+                {
+                    break;
+                }
+            }
+            previous += i == 0 ? (value >>> 1) ^ -(value & 1) : value;
+            neighbors[i] = previous;
+        }
+
+        return degree;
+    }
+
+    private int getStart(int blockIndex, int node)
+    {
+        int wideIndex = wideBlocks[blockIndex];
+        if (wideIndex < 0)
+        {
+            return blockStarts[blockIndex] + offsets[node];
+        }
+        return blockStarts[blockIndex] + wideOffsets[wideIndex + (node & (BLOCK_SIZE - 1))];
+    }
+
+    private int getPage(int blockIndex)
+    {
+        if (pages.length == 1)
+        {
+            return 0;
+        }
+        int page = Arrays.binarySearch(pageFirstBlocks, 0, pages.length, blockIndex);
+        return page >= 0 ? page : -page - 2;
+    }
+
+    private static int putVarint(byte[] buffer, int position, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    // growable list of ints, to avoid boxing the offsets of big blocks
+    private static class IntList
+    {
+        private int[] values = new int[16];
+
+        private int size;
+
+        void add(int value)
+        {
+            if (size == values.length)
+            {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    // appends encoded blocks to pages that grow by doubling, up to the page size
+    private static class PageWriter
+    {
+        private final int maxPageSize;
+
+        private final ArrayList<byte[]> pages = new ArrayList<>();
+
+        private final ArrayList<Integer> pageFirstBlocks = new ArrayList<>();
+
+        private byte[] page = new byte[1 << 12];
+
+        private int pageSize;
+
+        PageWriter(int maxPageSize)
+        {
+            this.maxPageSize = maxPageSize;
+            pageFirstBlocks.add(0);
+        }
+
+        int append(int blockIndex, byte[] block, int length)
+        {
+            if (pageSize + length > maxPageSize && pageSize > 0)
+            {
+                pages.add(Arrays.copyOf(page, pageSize));
+                pageFirstBlocks.add(blockIndex);
+                page = new byte[Math.max(1 << 12, length)];
+                pageSize = 0;
+            }
+            if (pageSize + length > page.length)
+            {
+                long newLength = Math.max(2L * page.length, (long) pageSize + length);
+                page = Arrays.copyOf(page, (int) Math.min(newLength, Math.max(maxPageSize, length)));
+            }
+
+            int start = pageSize;
+            System.arraycopy(block, 0, page, start, length);
+            pageSize += length;
+            return start;
+        }
+
+        // closes the last page. no blocks can be appended afterwards.
+        byte[][] finish()
+        {
+            pages.add(Arrays.copyOf(page, pageSize));
+            return pages.toArray(new byte[pages.size()][]);
+        }
+
+        int[] getPageFirstBlocks(int blocksCount)
+        {
+            int[] firstBlocks = new int[pageFirstBlocks.size() + 1];
+            for (int i = 0; i < pageFirstBlocks.size(); i++)
+            {
+                firstBlocks[i] = pageFirstBlocks.get(i);
+            }
+            firstBlocks[pageFirstBlocks.size()] = blocksCount;
+            return firstBlocks;
+        }
+    }
+}
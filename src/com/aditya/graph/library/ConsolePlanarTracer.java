@@ -0,0 +1,82 @@
+package com.aditya.graph.library;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Tracer that prints everything it receives. Useful while debugging the strategies on small graphs.
+ */
+public class ConsolePlanarTracer implements IPlanarTracer
+{
+    private PrintStream output;
+
+    public ConsolePlanarTracer()
+    {
+        this(System.out);
+    }
+
+    /**
+     * @param output Stream to which the traces are printed
+     */
+    public ConsolePlanarTracer(PrintStream output)
+    {
+        this.output = output;
+    }
+
+    @Override
+    public void pathEmbedded(LinkedList<Integer> path)
+    {
+        output.println(path);
+    }
+
+    @Override
+    public void componentRejected(ArrayList<Integer> component)
+    {
+        output.println("Failed for this component");
+        output.println(component);
+    }
+
+    @Override
+    public void embeddingFinished(ArrayList<LinkedList<Integer>> faces)
+    {
+        output.println("Faces:\n");
+        for (LinkedList<Integer> face : faces)
+        {
+            output.println(face);
+        }
+    }
+
+    @Override
+    public void neighborsOrdered(int node, int firstNode, int nextNode)
+    {
+        output.println("Ordering: " + node + " with first as: " + firstNode + " and second as: " + nextNode);
+    }
+
+    @Override
+    public void canonicalOrderComputed(int[] canonicalOrder)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < canonicalOrder.length; i++)
+        {
+            builder.append(canonicalOrder[i] + " ");
+        }
+        output.println(builder.toString());
+    }
+
+    @Override
+    public void phaseStarted(PlanarPhases phase)
+    {
+        // phases are too fine grained to be printed. use PlanarMetricsTracer to see them.
+    }
+
+    @Override
+    public void phaseFinished(PlanarPhases phase)
+    {
+    }
+
+    @Override
+    public void counterIncremented(PlanarCounters counter, long amount)
+    {
+    }
+}
@@ -0,0 +1,475 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only graph in compressed sparse row form: the neighbors of node v are targets[offsets[v]] to
+ * targets[offsets[v + 1] - 1]. Both directions of an undirected edge are stored.
+ * <p>
+ * This is also the on-disk format for graphs. A file is a 32 byte header followed by the offsets, the targets and,
+ * if present, the weights, all as little endian 32 bit integers. The header holds the magic number, the format
+ * version, the flags, the number of nodes, the number of edges and the number of targets, and 8 reserved bytes.
+ * The open function maps the file and wraps the arrays in place, so opening takes the same time regardless of the
+ * size of the graph. Each of the arrays has to fit in one mapping, i.e. be smaller than 2GB.
+ */
+public class CsrGraph implements IAdjacencyView
+{
+    // "CSRG" in little endian
+    private static final int FORMAT_MAGIC = 0x47525343;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+
+    private static final int FLAG_DIRECTED = 1;
+
+    private static final int FLAG_WEIGHTS = 1 << 1;
+
+    private static final int FLAG_ROTATION_SYSTEM = 1 << 2;
+
+    // bytes written at a time
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    // below this many nodes, creating neighbor lists on multiple threads costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    public final int nodesCount;
+
+    public final int edgesCount;
+
+    public final boolean isDirected;
+
+    /**
+     * True if the neighbors of each node are stored in the cyclic order of a planar embedding.
+     */
+    public final boolean isRotationSystem;
+
+    /**
+     * nodesCount + 1 positions in targets.
+     */
+    public final IntBuffer offsets;
+
+    public final IntBuffer targets;
+
+    /**
+     * Weight of the edge to each target, or null if all the edges have weight 1.
+     */
+    public final IntBuffer weights;
+
+    // computed on first use. -1 until then.
+    private int maxDegree = -1;
+
+    private CsrGraph(
+            int nodesCount,
+            int edgesCount,
+            boolean isDirected,
+            boolean isRotationSystem,
+            IntBuffer offsets,
+            IntBuffer targets,
+            IntBuffer weights)
+    {
+        this.nodesCount = nodesCount;
+        this.edgesCount = edgesCount;
+        this.isDirected = isDirected;
+        this.isRotationSystem = isRotationSystem;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Copies a graph into arrays. The neighbors of each node keep their order.
+     *
+     * @param graph            Graph to copy
+     * @param isRotationSystem True if the order of neighbors is a planar embedding in the same orientation at every
+     *                         node, e.g. for graphs returned by the triangulate function, with or without their
+     *                         temporary edges. Graphs returned by isPlanar don't qualify: the order of neighbors
+     *                         there isn't oriented consistently across nodes.
+     * @return Graph in compressed sparse row form
+     */
+    public static CsrGraph fromGraph(Graph graph, boolean isRotationSystem)
+    {
+        int[] offsets = new int[graph.nodesCount + 1];
+        boolean hasWeights = false;
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            offsets[i + 1] = offsets[i] + graph.nodes.get(i).neighbors.size();
+        }
+
+        int[] targets = new int[offsets[graph.nodesCount]];
+        int[] weights = new int[targets.length];
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            int position = offsets[i];
+            for (Edge edge : graph.nodes.get(i).neighbors)
+            {
+                targets[position] = edge.dest;
+                weights[position++] = edge.weight;
+                hasWeights |= edge.weight != 1;
+            }
+        }
+
+        return new CsrGraph(graph.nodesCount, graph.edgesCount, graph.isDirected, isRotationSystem,
+                IntBuffer.wrap(offsets), IntBuffer.wrap(targets), hasWeights ? IntBuffer.wrap(weights) : null);
+    }
+
+    /**
+     * Maps a graph file written by the write function. Only the header is checked; use validate to check the
+     * arrays too.
+     *
+     * @param file Path of the file
+     * @return Graph whose arrays are views of the file
+     * @throws IOException          Throws an exception if the file couldn't be read
+     * @throws GraphFormatException Throws an exception if the file isn't a graph file of this version
+     */
+    public static CsrGraph open(Path file) throws IOException, GraphFormatException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE)
+            {
+                throw new GraphFormatException("File is too short for a graph file.");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0)
+            {
+                // keep reading until the header is complete
+            }
+            checkHeader(header, fileSize);
+
+            int flags = header.getInt(8);
+            int nodesCount = header.getInt(12);
+            int targetsCount = header.getInt(20);
+            long offsetsStart = HEADER_SIZE;
+            long targetsStart = offsetsStart + 4L * (nodesCount + 1L);
+            long weightsStart = targetsStart + 4L * targetsCount;
+            boolean hasWeights = (flags & FLAG_WEIGHTS) != 0;
+
+            return new CsrGraph(
+                    nodesCount,
+                    header.getInt(16),
+                    (flags & FLAG_DIRECTED) != 0,
+                    (flags & FLAG_ROTATION_SYSTEM) != 0,
+                    mapInts(channel, offsetsStart, nodesCount + 1),
+                    mapInts(channel, targetsStart, targetsCount),
+                    hasWeights ? mapInts(channel, weightsStart, targetsCount) : null);
+        }
+    }
+
+    /**
+     * Wraps the contents of a graph file that is already in memory, e.g. received over the network. Only the header
+     * is checked; use validate to check the arrays too.
+     *
+     * @param bytes Contents of a file written by the write function, from its position to its limit
+     * @return Graph whose arrays are views of the bytes
+     * @throws GraphFormatException Throws an exception if the bytes aren't a graph file of this version
+     */
+    public static CsrGraph wrap(ByteBuffer bytes) throws GraphFormatException
+    {
+        ByteBuffer file = bytes.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (file.remaining() < HEADER_SIZE)
+        {
+            throw new GraphFormatException("File is too short for a graph file.");
+        }
+        checkHeader(file, file.remaining());
+
+        int flags = file.getInt(8);
+        int nodesCount = file.getInt(12);
+        int targetsCount = file.getInt(20);
+        int targetsStart = HEADER_SIZE + 4 * (nodesCount + 1);
+        int weightsStart = targetsStart + 4 * targetsCount;
+        return new CsrGraph(
+                nodesCount,
+                file.getInt(16),
+                (flags & FLAG_DIRECTED) != 0,
+                (flags & FLAG_ROTATION_SYSTEM) != 0,
+                sliceInts(file, HEADER_SIZE, nodesCount + 1),
+                sliceInts(file, targetsStart, targetsCount),
+                (flags & FLAG_WEIGHTS) != 0 ? sliceInts(file, weightsStart, targetsCount) : null);
+    }
+
+    /**
+     * Opens the binary copy of a text graph file, the format read by GraphFileLoader. The binary copy is created
+     * first if it doesn't exist or is older than the text file.
+     *
+     * @param textFile   Path of the text file
+     * @param binaryFile Path of the binary copy
+     * @return Graph whose arrays are views of the binary copy
+     * @throws IOException          Throws an exception if one of the files couldn't be read or written
+     * @throws GraphFormatException Throws an exception if the text file isn't a valid graph file
+     */
+    public static CsrGraph openCached(Path textFile, Path binaryFile) throws IOException, GraphFormatException
+    {
+        if (!Files.exists(binaryFile)
+                || Files.getLastModifiedTime(binaryFile).compareTo(Files.getLastModifiedTime(textFile)) < 0)
+        {
+            // write next to the target and rename, so that other processes never see a partial file
+            Path partialFile = binaryFile.resolveSibling(binaryFile.getFileName() + ".partial");
+            fromGraph(new GraphFileLoader().load(textFile), false).write(partialFile);
+            Files.move(partialFile, binaryFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return open(binaryFile);
+    }
+
+    /**
+     * Writes the graph to a file in the format read by the open function.
+     *
+     * @param file Path of the file. It is overwritten if it exists.
+     * @throws IOException Throws an exception if the file couldn't be written
+     */
+    public void write(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            int flags = (isDirected ? FLAG_DIRECTED : 0)
+                    | (weights != null ? FLAG_WEIGHTS : 0)
+                    | (isRotationSystem ? FLAG_ROTATION_SYSTEM : 0);
+            buffer.putInt(FORMAT_MAGIC).putInt(FORMAT_VERSION).putInt(flags).putInt(nodesCount).putInt(edgesCount)
+                    .putInt(targets.limit()).putLong(0);
+
+            writeInts(channel, buffer, offsets);
+            writeInts(channel, buffer, targets);
+            if (weights != null)
+            {
+                writeInts(channel, buffer, weights);
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    @Override
+    public int getNodesCount()
+    {
+        return nodesCount;
+    }
+
+    @Override
+    public int getEdgesCount()
+    {
+        return edgesCount;
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return isDirected;
+    }
+
+    @Override
+    public int getMaxDegree()
+    {
+        if (maxDegree < 0)
+        {
+            int max = 0;
+            for (int i = 0; i < nodesCount; i++)
+            {
+                max = Math.max(max, getDegree(i));
+            }
+            maxDegree = max;
+        }
+        return maxDegree;
+    }
+
+    @Override
+    public int getNeighbors(int node, int[] neighbors)
+    {
+        int start = offsets.get(node);
+        int degree = offsets.get(node + 1) - start;
+        for (int i = 0; i < degree; i++)
+        {
+            neighbors[i] = targets.get(start + i);
+        }
+        return degree;
+    }
+
+    /**
+     * @param node Node of the graph
+     * @return Number of neighbors of the node
+     */
+    @Override
+    public int getDegree(int node)
+    {
+        return offsets.get(node + 1) - offsets.get(node);
+    }
+
+    /**
+     * @param node  Node of the graph
+     * @param index Position of the neighbor, between 0 and degree - 1
+     * @return Index-th neighbor of the node
+     */
+    public int getNeighbor(int node, int index)
+    {
+        return targets.get(offsets.get(node) + index);
+    }
+
+    /**
+     * @param node  Node of the graph
+     * @param index Position of the neighbor, between 0 and degree - 1
+     * @return Weight of the edge to the index-th neighbor of the node
+     */
+    public int getWeight(int node, int index)
+    {
+        return weights == null ? 1 : weights.get(offsets.get(node) + index);
+    }
+
+    /**
+     * Checks that the offsets are increasing and that all the targets are nodes of the graph. This reads the whole
+     * graph once.
+     *
+     * @throws GraphFormatException Throws an exception if the arrays aren't consistent
+     */
+    public void validate() throws GraphFormatException
+    {
+        if (offsets.get(0) != 0 || offsets.get(nodesCount) != targets.limit())
+        {
+            throw new GraphFormatException("Offsets don't cover the targets.");
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            if (offsets.get(i) > offsets.get(i + 1))
+            {
+                throw new GraphFormatException("Offsets of node " + i + " are decreasing.");
+            }
+        }
+        for (int i = 0; i < targets.limit(); i++)
+        {
+            if (targets.get(i) < 0 || targets.get(i) >= nodesCount)
+            {
+                throw new GraphFormatException("Target " + targets.get(i) + " at position " + i + " isn't a node.");
+            }
+        }
+        if (targets.limit() != (isDirected ? edgesCount : 2L * edgesCount))
+        {
+            throw new GraphFormatException("Number of targets doesn't match number of edges.");
+        }
+    }
+
+    /**
+     * Copies the graph into a Graph object. The neighbors of each node keep their order.
+     *
+     * @return Graph with the same nodes and edges
+     */
+    public Graph toGraph()
+    {
+        final Graph graph = new Graph(isDirected);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            graph.addNode();
+        }
+        graph.edgesCount = edgesCount;
+
+        IntStream nodes = IntStream.range(0, nodesCount);
+        if (nodesCount >= PARALLEL_THRESHOLD)
+        {
+            nodes = nodes.parallel();
+        }
+        nodes.forEach(node ->
+        {
+            int start = offsets.get(node);
+            int end = offsets.get(node + 1);
+            ArrayList<Edge> edges = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++)
+            {
+                edges.add(new Edge(node, targets.get(i), false, weights == null ? 1 : weights.get(i)));
+            }
+            graph.nodes.get(node).neighbors = edges;
+        });
+
+        return graph;
+    }
+
+    // checks the magic number, the version and that the sizes in the header match the size of the file
+    private static void checkHeader(ByteBuffer header, long fileSize) throws GraphFormatException
+    {
+        if (header.getInt(0) != FORMAT_MAGIC)
+        {
+            throw new GraphFormatException("File isn't a graph file.");
+        }
+        if (header.getInt(4) != FORMAT_VERSION)
+        {
+            throw new GraphFormatException("Unknown version of graph file: " + header.getInt(4) + ".");
+        }
+
+        int flags = header.getInt(8);
+        int nodesCount = header.getInt(12);
+        int edgesCount = header.getInt(16);
+        int targetsCount = header.getInt(20);
+        if (nodesCount < 0 || edgesCount < 0 || targetsCount < 0)
+        {
+            throw new GraphFormatException("Header of graph file has negative sizes.");
+        }
+
+        long expectedSize = HEADER_SIZE + 4L * (nodesCount + 1L)
+                + 4L * targetsCount * ((flags & FLAG_WEIGHTS) != 0 ? 2 : 1);
+        if (fileSize != expectedSize)
+        {
+            throw new GraphFormatException("Graph file has " + fileSize + " bytes but its header needs "
+                    + expectedSize + ".");
+        }
+    }
+
+    private static IntBuffer sliceInts(ByteBuffer file, int start, int count)
+    {
+        ByteBuffer bytes = file.duplicate();
+        bytes.position(start).limit(start + 4 * count);
+        return bytes.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static IntBuffer mapInts(FileChannel channel, long start, int count) throws IOException,
+            GraphFormatException
+    {
+        if (4L * count > Integer.MAX_VALUE)
+        {
+            throw new GraphFormatException("Array of " + count + " integers is too large to map.");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, 4L * count)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+
+    // copies the ints through the buffer, writing the buffer out whenever it is full
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, IntBuffer values) throws IOException
+    {
+        IntBuffer source = values.duplicate();
+        source.clear();
+        while (source.hasRemaining())
+        {
+            if (buffer.remaining() < 4)
+            {
+                buffer.flip();
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+
+            IntBuffer view = buffer.asIntBuffer();
+            int count = Math.min(view.remaining(), source.remaining());
+            int sourceLimit = source.limit();
+            source.limit(source.position() + count);
+            view.put(source);
+            source.limit(sourceLimit);
+            buffer.position(buffer.position() + 4 * count);
+        }
+    }
+}
@@ -1,11 +1,44 @@
 package com.aditya.graph.library;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 
 public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
 {
+    private final IPlanarTracer tracer;
+
+    private final TriangulationModes triangulationMode;
+
+    public DMPPlanarEmbeddingStrategy()
+    {
+        this(NoOpPlanarTracer.INSTANCE);
+    }
+
+    /**
+     * @param tracer Tracer that receives the paths and faces as they are embedded
+     */
+    public DMPPlanarEmbeddingStrategy(IPlanarTracer tracer)
+    {
+        this(tracer, TriangulationModes.BRUTE_FORCE);
+    }
+
+    /**
+     * @param tracer            Tracer that receives the paths and faces as they are embedded
+     * @param triangulationMode Algorithm used by the triangulate function
+     */
+    public DMPPlanarEmbeddingStrategy(IPlanarTracer tracer, TriangulationModes triangulationMode)
+    {
+        this.tracer = tracer;
+        this.triangulationMode = triangulationMode;
+    }
+
+    TriangulationModes getTriangulationMode()
+    {
+        return triangulationMode;
+    }
+
     /**
      * In this algorithm we use primitive strategy to check planarity.
      * We first take a random cycle from the graph, create 2 faces of the partially embedded graph.
@@ -21,6 +54,36 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
      */
     @Override
     public boolean isPlanar(Graph graph, Graph planarEmbeddedGraph)
+    {
+        return isPlanar(graph, planarEmbeddedGraph, CancellationToken.NONE) == PlanarityResult.PLANAR;
+    }
+
+    /**
+     * Same as isPlanar. The token is checked once for every path embedded and every component considered.
+     *
+     * @param graph               Graph which should be checked for planarity
+     * @param planarEmbeddedGraph Graph with edges in correct order for planar drawing. Initialize an empty graph and
+     *                            pass it as input
+     * @param token               Token that bounds the time spent
+     * @return Planarity of input graph or TIMED_OUT if the token got cancelled before the test finished
+     */
+    @Override
+    public PlanarityResult isPlanar(Graph graph, Graph planarEmbeddedGraph, CancellationToken token)
+    {
+        try
+        {
+            return isPlanarInternal(graph, planarEmbeddedGraph, token)
+                    ? PlanarityResult.PLANAR
+                    : PlanarityResult.NOT_PLANAR;
+        }
+        catch (OperationCancelledException ex)
+        {
+            planarEmbeddedGraph.clear();
+            return PlanarityResult.TIMED_OUT;
+        }
+    }
+
+    private boolean isPlanarInternal(Graph graph, Graph planarEmbeddedGraph, CancellationToken token)
     {
         boolean isPlanar = true;
         boolean[] isNodeEmbedded = new boolean[graph.nodesCount];
@@ -39,9 +102,11 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
         ArrayList<LinkedList<Integer>> faces = new ArrayList<>();
 
         // get a random cycle and begin the algorithm
+        tracer.phaseStarted(PlanarPhases.CYCLE_SEARCH);
         LinkedList<Integer> pathToEmbed = Helpers.findSomeCycle(graph);
+        tracer.phaseFinished(PlanarPhases.CYCLE_SEARCH);
 
-        System.out.println(pathToEmbed);
+        tracer.pathEmbedded(pathToEmbed);
 
         // adding first node at the ending so that the cyclic edge gets removed
         pathToEmbed.addLast(pathToEmbed.getFirst());
@@ -49,17 +114,26 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
         pathToEmbed.removeLast();
 
         embedNewPath(faces, pathToEmbed, -1, isNodeEmbedded, planarEmbeddedGraph);
+        tracer.counterIncremented(PlanarCounters.PATHS_EMBEDDED, 1);
 
         while (isPlanar && subGraphYetToEmbed.edgesCount > 0)
         {
+            token.throwIfCancelled();
+            tracer.phaseStarted(PlanarPhases.FRAGMENT_DISCOVERY);
             ArrayList<ArrayList<Integer>> components =
                     Helpers.findNonEmbeddedComponents(subGraphYetToEmbed, isNodeEmbedded);
+            tracer.phaseFinished(PlanarPhases.FRAGMENT_DISCOVERY);
+            tracer.counterIncremented(PlanarCounters.FRAGMENTS_FOUND, components.size());
+
             ArrayList<ArrayList<Integer>> embeddableFaces = new ArrayList<>();
             int componentWithOneFace = -1;
             int curComponent = 0;
+            tracer.phaseStarted(PlanarPhases.FACE_ADMISSIBILITY);
             for (ArrayList<Integer> component : components)
             {
+                token.throwIfCancelled();
                 embeddableFaces.add(allowedFacesForEmbedding(faces, component, isNodeEmbedded));
+                tracer.counterIncremented(PlanarCounters.FACE_ADMISSIBILITY_CHECKS, faces.size());
                 int noOfFaces = embeddableFaces.get(embeddableFaces.size() - 1).size();
                 if (noOfFaces == 1)
                 {
@@ -67,14 +141,14 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
                 }
                 else if (noOfFaces == 0)
                 {
-                    System.out.println("Failed for this component");
-                    System.out.println(component);
+                    tracer.componentRejected(component);
                     isPlanar = false;
                     break;
                 }
 
                 curComponent++;
             }
+            tracer.phaseFinished(PlanarPhases.FACE_ADMISSIBILITY);
 
             if (!isPlanar)
             {
@@ -87,12 +161,13 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
                 componentWithOneFace = 0;
             }
 
+            tracer.phaseStarted(PlanarPhases.PATH_EMBEDDING);
             pathToEmbed = Helpers.findPathBetweenAnyTwo(
                     subGraphYetToEmbed,
                     getEmbeddedNodesInComponent(components.get(componentWithOneFace), isNodeEmbedded),
                     components.get(componentWithOneFace));
 
-            System.out.println(pathToEmbed);
+            tracer.pathEmbedded(pathToEmbed);
 
             embedNewPath(
                     faces,
@@ -102,13 +177,11 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
                     planarEmbeddedGraph);
 
             removeAllNodesInPathFromGraph(subGraphYetToEmbed, pathToEmbed);
+            tracer.phaseFinished(PlanarPhases.PATH_EMBEDDING);
+            tracer.counterIncremented(PlanarCounters.PATHS_EMBEDDED, 1);
         }
 
-        System.out.println("Faces:\n");
-        for (LinkedList<Integer> face : faces)
-        {
-            System.out.println(face);
-        }
+        tracer.embeddingFinished(faces);
 
         if (isPlanar)
         {
@@ -252,108 +325,129 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
         }
         else
         {
-            // we get the face in which current path has to be embedded and we split that face into two.
-            // add all nodes of the path except start and end in the same order to original face.
-            // create a new list with nodes that we delete from original face. add all nodes from the path
-            // in reverse order.
-            // similar handling is done in case
-            int startNode = pathToEmbed.getFirst();
-            int endNode = pathToEmbed.getLast();
-            int startNodeIdx = -1;
-            int endNodeIdx = -1;
-
-            LinkedList<Integer> curFace = faces.get(faceIdx);
+            splitFace(faces, pathToEmbed, faceIdx, planarEmbeddedGraph);
+        }
+    }
 
-            int curIdx = 0;
-            for (Integer node : curFace)
+    /**
+     * Embeds a path whose end points are already embedded on the given face. The face is split into two, the
+     * neighbors of the nodes on the path are updated in the order of the embedding and the newly created face is
+     * appended to the list of faces. Nodes strictly inside the path must not be embedded yet.
+     *
+     * @param faces               Faces of the partially embedded graph
+     * @param pathToEmbed         Path to be embedded. First and last nodes must be on the face.
+     * @param faceIdx             Index of the face in which the path has to be embedded
+     * @param planarEmbeddedGraph Graph in which the edges of the path have to be added
+     */
+    void splitFace(
+            ArrayList<LinkedList<Integer>> faces,
+            LinkedList<Integer> pathToEmbed,
+            int faceIdx,
+            Graph planarEmbeddedGraph)
+    {
+        // we get the face in which current path has to be embedded and we split that face into two.
+        // add all nodes of the path except start and end in the same order to original face.
+        // create a new list with nodes that we delete from original face. add all nodes from the path
+        // in reverse order.
+        // similar handling is done in case
+        int startNode = pathToEmbed.getFirst();
+        int endNode = pathToEmbed.getLast();
+        int startNodeIdx = -1;
+        int endNodeIdx = -1;
+
+        LinkedList<Integer> curFace = faces.get(faceIdx);
+
+        int curIdx = 0;
+        for (Integer node : curFace)
+        {
+            if (node == startNode)
             {
-                if (node == startNode)
-                {
-                    startNodeIdx = curIdx;
-                }
-                else if (node == endNode)
-                {
-                    endNodeIdx = curIdx;
-                }
-                curIdx++;
+                startNodeIdx = curIdx;
             }
-
-            if (startNodeIdx > endNodeIdx)
+            else if (node == endNode)
             {
-                // let's just rotate the face until we get start before end
-                int curNode = -1;
+                endNodeIdx = curIdx;
+            }
+            curIdx++;
+        }
 
-                do
-                {
-                    curNode = curFace.removeLast();
-                    curFace.addFirst(curNode);
-                    endNodeIdx++;
-                }
-                while (curNode != startNode);
+        if (startNodeIdx > endNodeIdx)
+        {
+            // let's just rotate the face until we get start before end
+            int curNode = -1;
 
-                startNodeIdx = 0;
+            do
+            {
+                curNode = curFace.removeLast();
+                curFace.addFirst(curNode);
+                endNodeIdx++;
             }
+            while (curNode != startNode);
+
+            startNodeIdx = 0;
+        }
 
-            // let's build the new face first
-            boolean shouldAdd = false;
-            LinkedList<Integer> newFace = new LinkedList<>();
-            for (Integer node : curFace)
+        // let's build the new face first
+        boolean shouldAdd = false;
+        LinkedList<Integer> newFace = new LinkedList<>();
+        for (Integer node : curFace)
+        {
+            if (node == startNode)
             {
-                if (node == startNode)
-                {
-                    shouldAdd = true;
-                }
-                else if (shouldAdd)
+                shouldAdd = true;
+            }
+            else if (shouldAdd)
+            {
+                if (node == endNode)
                 {
-                    if (node == endNode)
-                    {
-                        break;
-                    }
-                    newFace.add(node);
+                    break;
                 }
+                newFace.add(node);
             }
+        }
 
-            int prevNode = -1;
-            // adding reverse of the actual path
-            for (Integer node : pathToEmbed)
+        int prevNode = -1;
+        // adding reverse of the actual path
+        for (Integer node : pathToEmbed)
+        {
+            if (prevNode != -1)
             {
-                if (prevNode != -1)
+                // start and end nodes are handled separately below
+                if (prevNode != startNode)
                 {
-                    // start and end nodes are handled separately below
-                    if (prevNode != startNode)
-                    {
-                        addFreshEdge(planarEmbeddedGraph, prevNode, node, false);
-                    }
-                    if (node != endNode)
-                    {
-                        addFreshEdge(planarEmbeddedGraph, node, prevNode, false);
-                    }
+                    addFreshEdge(planarEmbeddedGraph, prevNode, node, false);
+                }
+                if (node != endNode)
+                {
+                    addFreshEdge(planarEmbeddedGraph, node, prevNode, false);
                 }
-                newFace.addFirst(node);
-                prevNode = node;
             }
-            // new face built completely
-            faces.add(newFace);
+            newFace.addFirst(node);
+            prevNode = node;
+        }
+        // new face built completely
+        faces.add(newFace);
 
-            handleStartAndEndEdgeAdditions(planarEmbeddedGraph, curFace, pathToEmbed, startNode, endNode);
+        handleStartAndEndEdgeAdditions(planarEmbeddedGraph, curFace, pathToEmbed, startNode, endNode);
 
-            // rebuilding original face if required
-            LinkedList<Integer> newCurFace = new LinkedList<>();
-            // add all nodes till start (included)
-            newCurFace.addAll(curFace.subList(0, startNodeIdx + 1));
+        // rebuilding original face if required
+        LinkedList<Integer> newCurFace = new LinkedList<>();
+        // add all nodes till start (included)
+        newCurFace.addAll(curFace.subList(0, startNodeIdx + 1));
 
-            if (pathToEmbed.size() > 1)
-            {
-                // add other nodes in path we are embedding
-                newCurFace.addAll(pathToEmbed.subList(1, pathToEmbed.size() - 1));
-            }
+        if (pathToEmbed.size() > 1)
+        {
+            // add other nodes in path we are embedding
+            newCurFace.addAll(pathToEmbed.subList(1, pathToEmbed.size() - 1));
+        }
 
-            // add all nodes from end node to last of original face
-            newCurFace.addAll(curFace.subList(endNodeIdx, curFace.size()));
+        // add all nodes from end node to last of original face
+        newCurFace.addAll(curFace.subList(endNodeIdx, curFace.size()));
 
-            curFace.clear();
-            curFace.addAll(newCurFace);
-        }
+        curFace.clear();
+        curFace.addAll(newCurFace);
+
+        tracer.counterIncremented(PlanarCounters.FACES_SPLIT, 1);
     }
 
     private void handleStartAndEndEdgeAdditions(
@@ -443,6 +537,7 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
      * This uses a bruteforce algorithm that goes over all the faces, removes any triangular faces, adds edges to
      * faces that aren't triangular until we exhaust all faces. This tampers the list of faces and at the end it just
      * becomes null because we don't need it anymore.
+     * In LINEAR triangulation mode every face is walked only once instead, see triangulateAllFacesInLinearTime.
      *
      * @param graph             Graph object returned by isPlanar function.
      * @param triangulatedGraph Fully triangulated version of the input graph. Initialize an empty graph object and
@@ -450,7 +545,56 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
     @Override
     public void triangulate(Graph graph, Graph triangulatedGraph)
     {
+        triangulate(graph, triangulatedGraph, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as triangulate. The token is checked once for every face triangulated and every node oriented.
+     *
+     * @param graph             Graph object returned by isPlanar function.
+     * @param triangulatedGraph Fully triangulated version of the input graph. Initialize an empty graph object and
+     *                          pass it as input
+     * @param token             Token that bounds the time spent
+     * @return True if the graph got triangulated. False if the token got cancelled first.
+     */
+    @Override
+    public boolean triangulate(Graph graph, Graph triangulatedGraph, CancellationToken token)
+    {
+        try
+        {
+            triangulateInternal(graph, triangulatedGraph, token);
+            return true;
+        }
+        catch (OperationCancelledException ex)
+        {
+            triangulatedGraph.clear();
+            return false;
+        }
+    }
+
+    private void triangulateInternal(Graph graph, Graph triangulatedGraph, CancellationToken token)
+    {
+        tracer.phaseStarted(PlanarPhases.TRIANGULATION);
         graph.cloneGraph(triangulatedGraph);
+        if (triangulationMode == TriangulationModes.LINEAR)
+        {
+            triangulateAllFacesInLinearTime(triangulatedGraph, token);
+        }
+        else
+        {
+            triangulateAllFaces(triangulatedGraph, token);
+        }
+        triangulatedGraph.assignEdgeIds();
+        tracer.phaseFinished(PlanarPhases.TRIANGULATION);
+
+        // rotate neighbors of each node so that all of them follow the same sequence
+        tracer.phaseStarted(PlanarPhases.ORIENTATION);
+        orientNeighborsOfTriangulatedGraph(triangulatedGraph, token);
+        tracer.phaseFinished(PlanarPhases.ORIENTATION);
+    }
+
+    private void triangulateAllFaces(Graph triangulatedGraph, CancellationToken token)
+    {
         ArrayList<LinkedList<Integer>> faces = triangulatedGraph.faces;
         HashSet<String> edgesInGraph = new HashSet<>();
 
@@ -470,13 +614,321 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
 
         while (faces.size() > 0)
         {
+            token.throwIfCancelled();
+
             // choose a random face. try to add edges to it. remove updated faces if necessary.
             triangulateOneFace(triangulatedGraph, faces.get(0), edgesInGraph);
             faces.remove(0);
         }
+    }
 
-        // rotate neighbors of each node so that all of them follow the same sequence
-        orientNeighborsOfTriangulatedGraph(triangulatedGraph);
+    // Triangulates every face in one walk over the faces, in time proportional to the size of the graph.
+    //
+    // Algorithm: In each face we pick the node with the smallest degree as anchor and mark the nodes of the face.
+    // If the anchor isn't connected to any node of the face other than both next to it, we connect the anchor to
+    // all of them. Otherwise the anchor has a chord to some node of the face that runs outside the face. That chord
+    // separates the nodes on its two sides, so no edge can exist between the two sides, and we connect them in a
+    // zig-zag. Picking the anchor with the smallest degree keeps the total work of the chord search linear for
+    // planar graphs.
+    // New neighbors are first collected per corner of a face and then inserted into the neighbors of each node in a
+    // single pass, instead of searching the neighbors of a node for every new edge.
+    private void triangulateAllFacesInLinearTime(Graph triangulatedGraph, CancellationToken token)
+    {
+        int nodesCount = triangulatedGraph.nodesCount;
+        int[] degrees = new int[nodesCount];
+        int[] faceStamps = new int[nodesCount];
+        int[] positionsInFace = new int[nodesCount];
+        ArrayList<ArrayList<Integer>> addedNeighbors = new ArrayList<>(nodesCount);
+        ArrayList<ArrayList<FaceCorner>> cornersOfNode = new ArrayList<>(nodesCount);
+
+        for (int i = 0; i < nodesCount; i++)
+        {
+            degrees[i] = triangulatedGraph.nodes.get(i).neighbors.size();
+            addedNeighbors.add(null);
+            cornersOfNode.add(null);
+        }
+
+        int[] faceNodes = new int[16];
+        FaceCorner[] corners = new FaceCorner[16];
+        int faceStamp = 0;
+
+        for (LinkedList<Integer> face : triangulatedGraph.faces)
+        {
+            token.throwIfCancelled();
+
+            int faceSize = face.size();
+            if (faceSize <= 3)
+            {
+                continue;
+            }
+            if (faceNodes.length < faceSize)
+            {
+                faceNodes = new int[faceSize * 2];
+                corners = new FaceCorner[faceSize * 2];
+            }
+
+            // copy the face, then rotate it so that the node with the smallest degree comes first
+            int anchorIdx = 0;
+            int idx = 0;
+            for (Integer node : face)
+            {
+                corners[idx] = null;
+                faceNodes[idx] = node;
+                if (degrees[node] < degrees[faceNodes[anchorIdx]])
+                {
+                    anchorIdx = idx;
+                }
+                idx++;
+            }
+            rotateLeft(faceNodes, faceSize, anchorIdx);
+
+            faceStamp++;
+            for (int i = 0; i < faceSize; i++)
+            {
+                faceStamps[faceNodes[i]] = faceStamp;
+                positionsInFace[faceNodes[i]] = i;
+            }
+
+            int chordIdx = findChordInFace(triangulatedGraph, faceNodes[0], faceSize, faceStamp, faceStamps,
+                    positionsInFace, addedNeighbors.get(faceNodes[0]));
+
+            if (chordIdx == -1)
+            {
+                // connect the anchor to all nodes of the face
+                for (int j = faceSize - 2; j >= 2; j--)
+                {
+                    addDiagonal(faceNodes, faceSize, corners, 0, j, degrees, addedNeighbors, cornersOfNode);
+                }
+            }
+            else
+            {
+                // nodes in 1..chordIdx-1 are only connected to nodes in chordIdx+1..faceSize-1
+                int left = 1;
+                int right = faceSize - 1;
+                boolean moveLeft = true;
+                addDiagonal(faceNodes, faceSize, corners, left, right, degrees, addedNeighbors, cornersOfNode);
+                while (left < chordIdx - 1 || right > chordIdx + 1)
+                {
+                    if ((moveLeft && left < chordIdx - 1) || right == chordIdx + 1)
+                    {
+                        left++;
+                    }
+                    else
+                    {
+                        right--;
+                    }
+                    moveLeft = !moveLeft;
+                    addDiagonal(faceNodes, faceSize, corners, left, right, degrees, addedNeighbors, cornersOfNode);
+                }
+            }
+
+            triangulatedGraph.edgesCount += faceSize - 3;
+            tracer.counterIncremented(PlanarCounters.TRIANGULATION_EDGES_ADDED, faceSize - 3);
+        }
+
+        insertNewNeighbors(triangulatedGraph, cornersOfNode, token);
+        triangulatedGraph.faces.clear();
+    }
+
+    private static void rotateLeft(int[] values, int length, int shift)
+    {
+        if (shift == 0)
+        {
+            return;
+        }
+
+        int[] temp = new int[shift];
+        System.arraycopy(values, 0, temp, 0, shift);
+        System.arraycopy(values, shift, values, 0, length - shift);
+        System.arraycopy(temp, 0, values, length - shift, shift);
+    }
+
+    // returns position (in the face) of some node of the face that the anchor at position 0 is connected to, except
+    // both of its neighbors in the face. returns -1 if there is no such node.
+    private static int findChordInFace(
+            Graph graph,
+            int anchor,
+            int faceSize,
+            int faceStamp,
+            int[] faceStamps,
+            int[] positionsInFace,
+            ArrayList<Integer> addedNeighbors)
+    {
+        for (Edge edge : graph.nodes.get(anchor).neighbors)
+        {
+            if (isChord(edge.dest, faceSize, faceStamp, faceStamps, positionsInFace))
+            {
+                return positionsInFace[edge.dest];
+            }
+        }
+        if (addedNeighbors != null)
+        {
+            for (Integer neighbor : addedNeighbors)
+            {
+                if (isChord(neighbor, faceSize, faceStamp, faceStamps, positionsInFace))
+                {
+                    return positionsInFace[neighbor];
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isChord(int node, int faceSize, int faceStamp, int[] faceStamps, int[] positionsInFace)
+    {
+        return faceStamps[node] == faceStamp && positionsInFace[node] >= 2 && positionsInFace[node] <= faceSize - 2;
+    }
+
+    // records an edge between nodes at positions first and second of the face. the edge is inserted into neighbors
+    // of both nodes later by insertNewNeighbors.
+    private static void addDiagonal(
+            int[] faceNodes,
+            int faceSize,
+            FaceCorner[] corners,
+            int first,
+            int second,
+            int[] degrees,
+            ArrayList<ArrayList<Integer>> addedNeighbors,
+            ArrayList<ArrayList<FaceCorner>> cornersOfNode)
+    {
+        addToCorner(faceNodes, faceSize, corners, first, second, cornersOfNode);
+        addToCorner(faceNodes, faceSize, corners, second, first, cornersOfNode);
+
+        addNeighbor(faceNodes[first], faceNodes[second], degrees, addedNeighbors);
+        addNeighbor(faceNodes[second], faceNodes[first], degrees, addedNeighbors);
+    }
+
+    private static void addNeighbor(int node, int neighbor, int[] degrees, ArrayList<ArrayList<Integer>> addedNeighbors)
+    {
+        degrees[node]++;
+        if (addedNeighbors.get(node) == null)
+        {
+            addedNeighbors.set(node, new ArrayList<>());
+        }
+        addedNeighbors.get(node).add(neighbor);
+    }
+
+    private static void addToCorner(
+            int[] faceNodes,
+            int faceSize,
+            FaceCorner[] corners,
+            int cornerIdx,
+            int neighborIdx,
+            ArrayList<ArrayList<FaceCorner>> cornersOfNode)
+    {
+        FaceCorner corner = corners[cornerIdx];
+        int node = faceNodes[cornerIdx];
+        if (corner == null)
+        {
+            corner = new FaceCorner(
+                    faceNodes[(cornerIdx + faceSize - 1) % faceSize],
+                    faceNodes[(cornerIdx + 1) % faceSize]);
+            corners[cornerIdx] = corner;
+            if (cornersOfNode.get(node) == null)
+            {
+                cornersOfNode.set(node, new ArrayList<>());
+            }
+            cornersOfNode.get(node).add(corner);
+        }
+
+        // distance from the previous node of the corner, going backwards around the face. the diagonals of a corner
+        // are always generated with increasing or decreasing distance, so the new one belongs at one of the ends.
+        int distance = (cornerIdx - neighborIdx + faceSize) % faceSize;
+        if (corner.neighbors.isEmpty() || distance > corner.lastDistance)
+        {
+            corner.neighbors.addLast(faceNodes[neighborIdx]);
+            corner.lastDistance = distance;
+        }
+        else
+        {
+            corner.neighbors.addFirst(faceNodes[neighborIdx]);
+        }
+    }
+
+    // inserts new neighbors of every corner between its previous and next nodes. neighbors of each node are rebuilt
+    // only once.
+    private static void insertNewNeighbors(
+            Graph graph,
+            ArrayList<ArrayList<FaceCorner>> cornersOfNode,
+            CancellationToken token)
+    {
+        int[] positions = new int[graph.nodesCount];
+        for (int nodeIdx = 0; nodeIdx < graph.nodesCount; nodeIdx++)
+        {
+            ArrayList<FaceCorner> corners = cornersOfNode.get(nodeIdx);
+            if (corners == null)
+            {
+                continue;
+            }
+            token.throwIfCancelled();
+
+            Node node = graph.nodes.get(nodeIdx);
+            ArrayList<Edge> neighbors = node.neighbors;
+            int degree = neighbors.size();
+            for (int i = 0; i < degree; i++)
+            {
+                positions[neighbors.get(i).dest] = i;
+            }
+
+            // new neighbors to be inserted after each of the current neighbors
+            ArrayList<LinkedList<Integer>> insertions = new ArrayList<>(degree);
+            for (int i = 0; i < degree; i++)
+            {
+                insertions.add(null);
+            }
+            int addedCount = 0;
+            for (FaceCorner corner : corners)
+            {
+                int prevPosition = positions[corner.prev];
+                if (neighbors.get((prevPosition + 1) % degree).dest == corner.next)
+                {
+                    insertions.set(prevPosition, corner.neighbors);
+                }
+                else if (neighbors.get((prevPosition + degree - 1) % degree).dest == corner.next)
+                {
+                    Collections.reverse(corner.neighbors);
+                    insertions.set((prevPosition + degree - 1) % degree, corner.neighbors);
+                }
+                else
+                {
+                    throw new IllegalStateException("Face around node " + nodeIdx + " between " + corner.prev
+                            + " and " + corner.next + " doesn't match order of its neighbors.");
+                }
+                addedCount += corner.neighbors.size();
+            }
+
+            ArrayList<Edge> newNeighbors = new ArrayList<>(degree + addedCount);
+            for (int i = 0; i < degree; i++)
+            {
+                newNeighbors.add(neighbors.get(i));
+                if (insertions.get(i) != null)
+                {
+                    for (Integer neighbor : insertions.get(i))
+                    {
+                        newNeighbors.add(new Edge(nodeIdx, neighbor, true));
+                    }
+                }
+            }
+            node.neighbors = newNeighbors;
+        }
+    }
+
+    // diagonals to be added at a corner of a face, ordered from the previous node towards the next node
+    private static class FaceCorner
+    {
+        int prev;
+
+        int next;
+
+        int lastDistance;
+
+        LinkedList<Integer> neighbors = new LinkedList<>();
+
+        FaceCorner(int prev, int next)
+        {
+            this.prev = prev;
+            this.next = next;
+        }
     }
 
     // this function just adds edges that are missing to the graph.
@@ -541,6 +993,7 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
             {
                 setOfEdges.add(Helpers.getStringForEdge(new Edge(nodesInFace.get(i), nodesInFace.get(j), true)));
                 triangulatedGraph.edgesCount++;
+                tracer.counterIncremented(PlanarCounters.TRIANGULATION_EDGES_ADDED, 1);
 
                 if (nextNeighbor == -1)
                 {
@@ -569,64 +1022,68 @@ public class DMPPlanarEmbeddingStrategy implements IPlanarEmbeddingMethods
     // This function takes a triangulated graph, orders neighbors of nodes in such a way that all of them are
     // following the same order when compared to clockwise order.
     //
-    // Algorithm: Once ordering of a node is fixed, we can iterate through its children, make sure that next neighbor
-    // and parent are appearning in the same order. We can keep adding all nodes to list, use them to find new
-    // un-ordered neighbors and order the entire graph
-    private void orientNeighborsOfTriangulatedGraph(Graph graph)
+    // Algorithm: Once ordering of a node u is fixed, every two consecutive neighbors p and w of u form a triangle
+    // with it. In the same order, u has to be followed by p in neighbors of w, otherwise neighbors of w are reversed.
+    // Each node is ordered exactly once by a BFS from 0th node. Neighbors are reversed in place, so edges keep all
+    // their attributes and nothing is allocated per edge.
+    private void orientNeighborsOfTriangulatedGraph(Graph graph, CancellationToken token)
     {
-        Node curNode;
-        int prevNeighbor;
-        boolean[] hasOrdered = new boolean[graph.nodesCount];
+        int nodesCount = graph.nodesCount;
+        if (nodesCount == 0)
+        {
+            return;
+        }
 
-        LinkedList<Integer> orderedNodes = new LinkedList<>();
-        orderedNodes.add(0);
+        boolean[] hasOrdered = new boolean[nodesCount];
+        int[] queue = new int[nodesCount];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = 0;
         hasOrdered[0] = true; // we consider order of 0th node as the correct order
 
-        while (!orderedNodes.isEmpty())
+        while (head < tail)
         {
-            curNode = graph.nodes.get(orderedNodes.removeFirst());
-            prevNeighbor = curNode.neighbors.get(curNode.neighbors.size() - 1).dest;
+            token.throwIfCancelled();
+            int curNode = queue[head++];
+            ArrayList<Edge> neighbors = graph.nodes.get(curNode).neighbors;
+            int degree = neighbors.size();
+            int prevNeighbor = degree > 0 ? neighbors.get(degree - 1).dest : -1;
 
-            for (Edge edge : curNode.neighbors)
+            for (int i = 0; i < degree; i++)
             {
-                if (!hasOrdered[edge.dest])
+                int neighbor = neighbors.get(i).dest;
+                if (!hasOrdered[neighbor])
                 {
-                    orderNeighbors(graph.nodes.get(prevNeighbor), edge.dest, curNode.idx);
-                    orderedNodes.addLast(edge.dest);
-                    hasOrdered[edge.dest] = true;
+                    orderNeighbors(graph.nodes.get(neighbor), curNode, prevNeighbor);
+                    hasOrdered[neighbor] = true;
+                    queue[tail++] = neighbor;
                 }
-                prevNeighbor = edge.dest;
+                prevNeighbor = neighbor;
             }
         }
     }
 
+    // makes sure that firstNode is followed by nextNode in neighbors of curNode, reversing neighbors if they aren't
     private void orderNeighbors(
             Node curNode,
             int firstNode,
             int nextNode)
     {
-        System.out.println("Ordering: " + curNode.idx + " with first as: " + firstNode + " and second as: " + nextNode);
+        tracer.neighborsOrdered(curNode.idx, firstNode, nextNode);
 
-        int prevNode = curNode.neighbors.get(curNode.neighbors.size() - 1).dest;
-        for (Edge edge : curNode.neighbors)
+        ArrayList<Edge> neighbors = curNode.neighbors;
+        int degree = neighbors.size();
+        for (int i = 0; i < degree; i++)
         {
-            if (firstNode == prevNode && nextNode == edge.dest)
+            if (neighbors.get(i).dest == firstNode)
             {
+                if (neighbors.get((i + 1) % degree).dest != nextNode)
+                {
+                    Collections.reverse(neighbors);
+                }
                 return;
             }
-            else if (firstNode == edge.dest && nextNode == prevNode)
-            {
-                // need to revert
-                break;
-            }
-            prevNode = edge.dest;
-        }
-        LinkedList<Edge> reversedList = new LinkedList<>();
-        for (Edge edge : curNode.neighbors)
-        {
-            reversedList.addFirst(new Edge(edge.src, edge.dest, edge.isTemporary));
         }
-        curNode.neighbors.clear();
-        curNode.neighbors.addAll(reversedList);
     }
 }
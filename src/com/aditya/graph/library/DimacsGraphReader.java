@@ -0,0 +1,74 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads graphs in DIMACS format. A problem line "p problem nodes edges" comes before the edges, which are given
+ * as "e u v" or "a u v [weight]" with nodes numbered from 1. Lines starting with 'c' are comments and other lines
+ * of flow problems, e.g. node descriptors, are skipped. Shortest path ("sp") problems give directed graphs and all
+ * other problems give undirected graphs.
+ */
+public class DimacsGraphReader implements IGraphReader
+{
+    @Override
+    public Graph read(ReadableByteChannel input) throws IOException, GraphFormatException
+    {
+        ByteTokenizer tokenizer = new ByteTokenizer(input);
+        GraphBuilder builder = null;
+        int nodesCount = 0;
+        int edgesCount = 0;
+
+        while (tokenizer.hasMore())
+        {
+            if (tokenizer.isLineEnd())
+            {
+                tokenizer.skipLine();
+                continue;
+            }
+
+            String kind = tokenizer.readWord();
+            if (kind.equals("p"))
+            {
+                if (builder != null)
+                {
+                    throw tokenizer.error("Problem line is repeated.");
+                }
+                String problem = tokenizer.readWord();
+                nodesCount = tokenizer.readInt(0, Integer.MAX_VALUE - 1);
+                edgesCount = tokenizer.readInt(0, Integer.MAX_VALUE);
+                tokenizer.finishLine();
+                builder = new GraphBuilder(nodesCount, problem.equals("sp"));
+                builder.ensureCapacity(edgesCount);
+            }
+            else if (kind.equals("e") || kind.equals("a"))
+            {
+                if (builder == null)
+                {
+                    throw tokenizer.error("Edge comes before the problem line.");
+                }
+                int src = tokenizer.readInt(1, nodesCount) - 1;
+                int dest = tokenizer.readInt(1, nodesCount) - 1;
+                int weight = tokenizer.isLineEnd() ? 1 : tokenizer.readInt(Integer.MIN_VALUE, Integer.MAX_VALUE);
+                tokenizer.addEdgeOfLine(builder, src, dest, weight);
+                tokenizer.finishLine();
+            }
+            else
+            {
+                tokenizer.skipLine();
+            }
+        }
+
+        if (builder == null)
+        {
+            throw new GraphFormatException("Problem line is missing.");
+        }
+        if (builder.getEdgesCount() != edgesCount)
+        {
+            throw new GraphFormatException("File has " + builder.getEdgesCount() + " edges but the problem line gives "
+                    + edgesCount + ".");
+        }
+
+        return builder.build();
+    }
+}
@@ -15,6 +15,9 @@ public class Edge
     // indicates if the edge is temporary
     public boolean isTemporary;
 
+    // index of the edge in its graph, shared by both directions of an undirected edge. -1 until the graph assigns it
+    public int id = -1;
+
     /**
      * Constructor for unweighted edges
      *
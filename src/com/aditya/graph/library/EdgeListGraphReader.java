@@ -0,0 +1,69 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads plain edge lists: one edge per line, given by the indices of its two nodes and optionally an integer
+ * weight. Lines starting with '#' or '%' are comments. Node indices are used as they are, so the graph has as many
+ * nodes as the greatest index plus 1.
+ */
+public class EdgeListGraphReader implements IGraphReader
+{
+    private final boolean isDirected;
+
+    private final int maxNodesCount;
+
+    /**
+     * Creates a reader for undirected graphs.
+     */
+    public EdgeListGraphReader()
+    {
+        this(false);
+    }
+
+    /**
+     * @param isDirected Parameter that indicates if the graphs read are directed
+     */
+    public EdgeListGraphReader(boolean isDirected)
+    {
+        this(isDirected, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a reader that rejects node indices beyond a limit. A single line with a huge index would otherwise
+     * make the graph allocate that many nodes, e.g. when the input comes from an untrusted client.
+     *
+     * @param isDirected    Parameter that indicates if the graphs read are directed
+     * @param maxNodesCount Greatest number of nodes a graph may have
+     */
+    public EdgeListGraphReader(boolean isDirected, int maxNodesCount)
+    {
+        this.isDirected = isDirected;
+        this.maxNodesCount = maxNodesCount;
+    }
+
+    @Override
+    public Graph read(ReadableByteChannel input) throws IOException, GraphFormatException
+    {
+        ByteTokenizer tokenizer = new ByteTokenizer(input);
+        GraphBuilder builder = new GraphBuilder(isDirected);
+
+        while (tokenizer.hasMore())
+        {
+            if (tokenizer.isLineEnd() || tokenizer.startsWith('#') || tokenizer.startsWith('%'))
+            {
+                tokenizer.skipLine();
+                continue;
+            }
+
+            int src = tokenizer.readInt(0, maxNodesCount - 1);
+            int dest = tokenizer.readInt(0, maxNodesCount - 1);
+            int weight = tokenizer.isLineEnd() ? 1 : tokenizer.readInt(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            tokenizer.addEdgeOfLine(builder, src, dest, weight);
+            tokenizer.finishLine();
+        }
+
+        return builder.build();
+    }
+}
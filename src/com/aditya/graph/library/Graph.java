@@ -1,6 +1,7 @@
 package com.aditya.graph.library;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.LinkedList;
 
 /**
@@ -30,6 +31,12 @@ public class Graph
      */
     public ArrayList<LinkedList<Integer>> faces;
 
+    /**
+     * Ids of the temporary edges, i.e. the edges added by triangulation. This is filled by assignEdgeIds and is
+     * empty until then.
+     */
+    public BitSet temporaryEdges;
+
     /**
      * Create a graph object for a directed or undirected graph.
      * NOTE - This graph supports nodes with continuous and integer indices only. It decides the index of node. If
@@ -44,6 +51,7 @@ public class Graph
         edgesCount = 0;
         nodes = new ArrayList<Node>();
         faces = new ArrayList<>();
+        temporaryEdges = new BitSet();
     }
 
     /**
@@ -130,6 +138,18 @@ public class Graph
         --edgesCount;
     }
 
+    /**
+     * Removes all nodes, edges and faces from the graph.
+     */
+    public void clear()
+    {
+        nodesCount = 0;
+        edgesCount = 0;
+        nodes = new ArrayList<Node>();
+        faces = new ArrayList<>();
+        temporaryEdges = new BitSet();
+    }
+
     private void validateSrcDest(int src, int dest) throws Exception
     {
         if (nodesCount < src || nodesCount < dest)
@@ -168,6 +188,155 @@ public class Graph
         return edges;
     }
 
+    /**
+     * Numbers the edges of the graph from 0 to edgesCount - 1 and records the ids of temporary edges in
+     * temporaryEdges. Both directions of an undirected edge get the same id. Call this again after adding or
+     * removing edges.
+     */
+    public void assignEdgeIds()
+    {
+        temporaryEdges = new BitSet(edgesCount);
+        int nextId = 0;
+
+        if (isDirected)
+        {
+            for (Node node : nodes)
+            {
+                for (Edge edge : node.neighbors)
+                {
+                    setEdgeId(edge, nextId++);
+                }
+            }
+            return;
+        }
+
+        // each edge gets its id at the smaller of its end points. the ids are handed over to the greater end point
+        // through buckets, which are filled in the order of the smaller end point.
+        int[] bucketStarts = new int[nodesCount + 1];
+        for (Node node : nodes)
+        {
+            for (Edge edge : node.neighbors)
+            {
+                if (edge.src < edge.dest)
+                {
+                    bucketStarts[edge.dest + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            bucketStarts[i + 1] += bucketStarts[i];
+        }
+
+        int[] bucketSizes = new int[nodesCount];
+        int[] bucketNodes = new int[bucketStarts[nodesCount]];
+        int[] bucketIds = new int[bucketStarts[nodesCount]];
+        int[] idOfNeighbor = new int[nodesCount];
+
+        for (Node node : nodes)
+        {
+            // pick the ids handed over by the smaller neighbors first
+            int bucketStart = bucketStarts[node.idx];
+            for (int i = bucketStart; i < bucketStart + bucketSizes[node.idx]; i++)
+            {
+                idOfNeighbor[bucketNodes[i]] = bucketIds[i];
+            }
+
+            for (Edge edge : node.neighbors)
+            {
+                if (edge.src < edge.dest)
+                {
+                    int slot = bucketStarts[edge.dest] + bucketSizes[edge.dest]++;
+                    bucketNodes[slot] = edge.src;
+                    bucketIds[slot] = nextId;
+                    setEdgeId(edge, nextId++);
+                }
+                else
+                {
+                    setEdgeId(edge, idOfNeighbor[edge.dest]);
+                }
+            }
+        }
+    }
+
+    private void setEdgeId(Edge edge, int id)
+    {
+        edge.id = id;
+        if (edge.isTemporary)
+        {
+            temporaryEdges.set(id);
+        }
+    }
+
+    /**
+     * Checks if an edge was added by triangulation. Uses the ids set by assignEdgeIds when they are available.
+     *
+     * @param edge Edge of this graph
+     * @return True if the edge is temporary
+     */
+    public boolean isTemporaryEdge(Edge edge)
+    {
+        return edge.id >= 0 ? temporaryEdges.get(edge.id) : edge.isTemporary;
+    }
+
+    /**
+     * Same as getEdges, except that temporary edges are left out.
+     *
+     * @return An array of edges in the graph which aren't temporary.
+     */
+    public Edge[] getRealEdges()
+    {
+        ArrayList<Edge> edges = new ArrayList<>(edgesCount);
+
+        for (Node node : nodes)
+        {
+            for (Edge edge : node.neighbors)
+            {
+                if ((isDirected || edge.src < edge.dest) && !isTemporaryEdge(edge))
+                {
+                    edges.add(edge);
+                }
+            }
+        }
+
+        return edges.toArray(new Edge[edges.size()]);
+    }
+
+    /**
+     * Creates a copy of the graph without its temporary edges. The remaining edges keep the order they have in the
+     * neighbors of each node, so the copy of a triangulated graph is an embedding of the original graph. Faces are
+     * not copied.
+     *
+     * @return Graph with only the edges that aren't temporary.
+     */
+    public Graph getGraphWithoutTemporaryEdges()
+    {
+        Graph graph = new Graph(isDirected);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            graph.addNode();
+        }
+
+        int halvesCount = 0;
+        for (int i = 0; i < nodesCount; i++)
+        {
+            ArrayList<Edge> neighbors = nodes.get(i).neighbors;
+            ArrayList<Edge> newNeighbors = graph.nodes.get(i).neighbors;
+            for (Edge edge : neighbors)
+            {
+                if (!isTemporaryEdge(edge))
+                {
+                    newNeighbors.add(new Edge(edge.src, edge.dest, false, edge.weight));
+                    halvesCount++;
+                }
+            }
+        }
+        graph.edgesCount = isDirected ? halvesCount : halvesCount / 2;
+        graph.assignEdgeIds();
+
+        return graph;
+    }
+
     /**
      * Clones graph object and creates a new replica.
      *
@@ -202,9 +371,12 @@ public class Graph
             {
                 for (Edge edge : this.nodes.get(i).neighbors)
                 {
-                    clone.nodes.get(i).neighbors.add(new Edge(edge.src, edge.dest, false, edge.weight));
+                    Edge clonedEdge = new Edge(edge.src, edge.dest, edge.isTemporary, edge.weight);
+                    clonedEdge.id = edge.id;
+                    clone.nodes.get(i).neighbors.add(clonedEdge);
                 }
             }
+            clone.temporaryEdges = (BitSet) this.temporaryEdges.clone();
 
             // add all the faces
             clone.faces = new ArrayList<>();
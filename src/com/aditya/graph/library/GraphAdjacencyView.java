@@ -0,0 +1,69 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+
+/**
+ * Adjacency view of a Graph object. Neighbors are reported in the order of the neighbors list of each node. The
+ * graph must not be changed while the view is in use.
+ */
+public class GraphAdjacencyView implements IAdjacencyView
+{
+    private final Graph graph;
+
+    private final int maxDegree;
+
+    /**
+     * @param graph Graph to read
+     */
+    public GraphAdjacencyView(Graph graph)
+    {
+        this.graph = graph;
+        int maxDegree = 0;
+        for (Node node : graph.nodes)
+        {
+            maxDegree = Math.max(maxDegree, node.neighbors.size());
+        }
+        this.maxDegree = maxDegree;
+    }
+
+    @Override
+    public int getNodesCount()
+    {
+        return graph.nodesCount;
+    }
+
+    @Override
+    public int getEdgesCount()
+    {
+        return graph.edgesCount;
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return graph.isDirected;
+    }
+
+    @Override
+    public int getDegree(int node)
+    {
+        return graph.nodes.get(node).neighbors.size();
+    }
+
+    @Override
+    public int getMaxDegree()
+    {
+        return maxDegree;
+    }
+
+    @Override
+    public int getNeighbors(int node, int[] neighbors)
+    {
+        ArrayList<Edge> edges = graph.nodes.get(node).neighbors;
+        for (int i = 0; i < edges.size(); i++)
+        {
+            neighbors[i] = edges.get(i).dest;
+        }
+        return edges.size();
+    }
+}
@@ -0,0 +1,260 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Collects the edges of a graph in flat arrays and creates the graph in one go. This is much cheaper than calling
+ * addEdge of the graph once per edge: every neighbor list is allocated once with its final size and no list is ever
+ * grown. The neighbors of each node end up in the same order as with addEdge.
+ */
+public class GraphBuilder
+{
+    // below this many nodes, filling neighbor lists on multiple threads costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private int nodesCount;
+
+    private final boolean isDirected;
+
+    // if true, adding an edge adds the nodes it needs instead of rejecting it
+    private final boolean addsMissingNodes;
+
+    private int edgesCount;
+
+    private int[] sources;
+
+    private int[] destinations;
+
+    // null as long as all the edges have the default weight
+    private int[] weights;
+
+    /**
+     * @param nodesCount Number of nodes of the graph. Nodes are numbered from 0 to nodesCount - 1.
+     * @param isDirected Parameter that indicates if the graph is directed
+     */
+    public GraphBuilder(int nodesCount, boolean isDirected)
+    {
+        this(nodesCount, isDirected, false);
+    }
+
+    /**
+     * Creates a builder for a graph whose number of nodes isn't known in advance. Adding an edge adds all the nodes
+     * up to its greater end point, so the graph has as many nodes as the greatest index seen plus 1.
+     *
+     * @param isDirected Parameter that indicates if the graph is directed
+     */
+    public GraphBuilder(boolean isDirected)
+    {
+        this(0, isDirected, true);
+    }
+
+    private GraphBuilder(int nodesCount, boolean isDirected, boolean addsMissingNodes)
+    {
+        this.nodesCount = nodesCount;
+        this.isDirected = isDirected;
+        this.addsMissingNodes = addsMissingNodes;
+        sources = new int[16];
+        destinations = new int[16];
+    }
+
+    /**
+     * Adds a node without any edges.
+     *
+     * @return Index of the newly created node.
+     */
+    public int addNode()
+    {
+        return nodesCount++;
+    }
+
+    /**
+     * @return Number of nodes added so far
+     */
+    public int getNodesCount()
+    {
+        return nodesCount;
+    }
+
+    /**
+     * @return Number of edges added so far
+     */
+    public int getEdgesCount()
+    {
+        return edgesCount;
+    }
+
+    /**
+     * Makes room for the given number of edges in total, so that adding them doesn't need to grow the arrays.
+     *
+     * @param capacity Expected number of edges
+     */
+    public void ensureCapacity(int capacity)
+    {
+        if (capacity > sources.length)
+        {
+            sources = Arrays.copyOf(sources, capacity);
+            destinations = Arrays.copyOf(destinations, capacity);
+            if (weights != null)
+            {
+                weights = Arrays.copyOf(weights, capacity);
+            }
+        }
+    }
+
+    /**
+     * Adds an unweighted edge.
+     *
+     * @param src  Source vertex of edge
+     * @param dest Destination vertex of edge
+     * @throws Exception Throws an exception if indices of the vertices are non-existent in the graph
+     */
+    public void addEdge(int src, int dest) throws Exception
+    {
+        addEdge(src, dest, 1);
+    }
+
+    /**
+     * Adds a weighted edge. Duplicate edges aren't detected.
+     *
+     * @param src    Source vertex of edge
+     * @param dest   Destination vertex of edge
+     * @param weight Weight of the edge
+     * @throws Exception Throws an exception if indices of the vertices are non-existent in the graph
+     */
+    public void addEdge(int src, int dest, int weight) throws Exception
+    {
+        validateNode(src);
+        validateNode(dest);
+        if (edgesCount == sources.length)
+        {
+            ensureCapacity(2 * edgesCount);
+        }
+        if (weight != 1 && weights == null)
+        {
+            weights = new int[sources.length];
+            Arrays.fill(weights, 0, edgesCount, 1);
+        }
+
+        sources[edgesCount] = src;
+        destinations[edgesCount] = dest;
+        if (weights != null)
+        {
+            weights[edgesCount] = weight;
+        }
+        edgesCount++;
+    }
+
+    /**
+     * Adds unweighted edges in bulk. The i-th edge goes from sources[i] to destinations[i].
+     *
+     * @param sources      Source vertices of the edges
+     * @param destinations Destination vertices of the edges
+     * @param count        Number of edges to take from the arrays
+     * @throws Exception Throws an exception if indices of the vertices are non-existent in the graph
+     */
+    public void addEdges(int[] sources, int[] destinations, int count) throws Exception
+    {
+        for (int i = 0; i < count; i++)
+        {
+            validateNode(sources[i]);
+            validateNode(destinations[i]);
+        }
+
+        if (edgesCount + count > this.sources.length)
+        {
+            ensureCapacity(Math.max(edgesCount + count, 2 * this.sources.length));
+        }
+        System.arraycopy(sources, 0, this.sources, edgesCount, count);
+        System.arraycopy(destinations, 0, this.destinations, edgesCount, count);
+        if (weights != null)
+        {
+            Arrays.fill(weights, edgesCount, edgesCount + count, 1);
+        }
+        edgesCount += count;
+    }
+
+    /**
+     * Creates the graph. The builder can be used again afterwards, e.g. to add more edges and build a bigger graph.
+     *
+     * @return Graph with all the nodes and edges added so far
+     */
+    public Graph build()
+    {
+        // lay out the neighbors of all the nodes in one array, in the order addEdge of the graph would add them
+        final int[] starts = new int[nodesCount + 1];
+        for (int i = 0; i < edgesCount; i++)
+        {
+            starts[sources[i] + 1]++;
+            if (!isDirected)
+            {
+                starts[destinations[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            starts[i + 1] += starts[i];
+        }
+
+        final int[] neighbors = new int[starts[nodesCount]];
+        final int[] neighborWeights = weights == null ? null : new int[starts[nodesCount]];
+        int[] fillCounts = new int[nodesCount];
+        for (int i = 0; i < edgesCount; i++)
+        {
+            int src = sources[i];
+            int dest = destinations[i];
+            int slot = starts[src] + fillCounts[src]++;
+            neighbors[slot] = dest;
+            if (neighborWeights != null)
+            {
+                neighborWeights[slot] = weights[i];
+            }
+            if (!isDirected)
+            {
+                slot = starts[dest] + fillCounts[dest]++;
+                neighbors[slot] = src;
+                if (neighborWeights != null)
+                {
+                    neighborWeights[slot] = weights[i];
+                }
+            }
+        }
+
+        final Graph graph = new Graph(isDirected);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            graph.addNode();
+        }
+        graph.edgesCount = edgesCount;
+
+        IntStream nodes = IntStream.range(0, nodesCount);
+        if (nodesCount >= PARALLEL_THRESHOLD)
+        {
+            nodes = nodes.parallel();
+        }
+        nodes.forEach(node ->
+        {
+            ArrayList<Edge> edges = new ArrayList<>(starts[node + 1] - starts[node]);
+            for (int i = starts[node]; i < starts[node + 1]; i++)
+            {
+                edges.add(new Edge(node, neighbors[i], false, neighborWeights == null ? 1 : neighborWeights[i]));
+            }
+            graph.nodes.get(node).neighbors = edges;
+        });
+
+        return graph;
+    }
+
+    private void validateNode(int node) throws Exception
+    {
+        if (addsMissingNodes && node >= nodesCount && node < Integer.MAX_VALUE)
+        {
+            nodesCount = node + 1;
+        }
+        if (node < 0 || node >= nodesCount)
+        {
+            throw new Exception("Invalid node " + node + ". Number of nodes in graph: " + nodesCount + ".");
+        }
+    }
+}
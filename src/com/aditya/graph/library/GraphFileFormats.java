@@ -0,0 +1,16 @@
+package com.aditya.graph.library;
+
+public enum GraphFileFormats
+{
+    INVALID,
+
+    EDGE_LIST,
+
+    DIMACS,
+
+    METIS,
+
+    MATRIX_MARKET,
+
+    GRAPHML
+}
@@ -0,0 +1,396 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Loads an undirected graph from a text file with the number of nodes on the first line, the number of edges on the
+ * second line and then one edge per line, given by the indices of its two nodes separated by spaces or tabs.
+ * <p>
+ * The file is memory mapped and the edge lines are split into chunks that end on line boundaries. The chunks are
+ * parsed byte by byte on a fork/join pool and their edges are handed to a GraphBuilder. Blank lines are allowed
+ * anywhere after the header; anything else that isn't an edge line is reported as a GraphFormatException.
+ */
+public class GraphFileLoader
+{
+    // bytes of edge lines parsed by a single task. a mapping can't be longer than 2GB.
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+    // the header has to fit in this many bytes
+    private static final int MAX_HEADER_SIZE = 1 << 12;
+
+    // bytes read at a time while looking for the end of a line
+    private static final int SCAN_BUFFER_SIZE = 1 << 12;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    /**
+     * Creates a loader that parses on the common fork/join pool.
+     */
+    public GraphFileLoader()
+    {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool      Pool on which the chunks are parsed
+     * @param chunkSize Approximate number of bytes parsed by one task. Must be between 1 and 1GB.
+     */
+    public GraphFileLoader(ForkJoinPool pool, int chunkSize)
+    {
+        if (chunkSize < 1 || chunkSize > 1 << 30)
+        {
+            throw new IllegalArgumentException("Chunk size must be between 1 and 1GB. Chunk size: " + chunkSize + ".");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param pathToFile Path of the file to load
+     * @return Graph described by the file
+     * @throws IOException          Throws an exception if the file couldn't be read
+     * @throws GraphFormatException Throws an exception if the file isn't a valid graph file
+     */
+    public Graph load(String pathToFile) throws IOException, GraphFormatException
+    {
+        return load(Paths.get(pathToFile));
+    }
+
+    /**
+     * @param file Path of the file to load
+     * @return Graph described by the file
+     * @throws IOException          Throws an exception if the file couldn't be read
+     * @throws GraphFormatException Throws an exception if the file isn't a valid graph file
+     */
+    public Graph load(Path file) throws IOException, GraphFormatException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long fileSize = channel.size();
+
+            // header
+            LineParser header = new LineParser(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, MAX_HEADER_SIZE)));
+            int nodesCount = header.readHeaderValue("number of nodes");
+            int edgesCount = header.readHeaderValue("number of edges");
+            long edgesStart = header.position;
+
+            // split the rest into chunks that start at the beginning of a line
+            ArrayList<Long> chunkStarts = new ArrayList<>();
+            chunkStarts.add(edgesStart);
+            for (long nominalStart = edgesStart + chunkSize; nominalStart < fileSize; nominalStart += chunkSize)
+            {
+                long start = findLineStart(channel, nominalStart, fileSize);
+                if (start < fileSize && start > chunkStarts.get(chunkStarts.size() - 1))
+                {
+                    chunkStarts.add(start);
+                }
+            }
+            chunkStarts.add(fileSize);
+
+            ArrayList<ChunkParseTask> tasks = new ArrayList<>(chunkStarts.size() - 1);
+            for (int i = 0; i + 1 < chunkStarts.size(); i++)
+            {
+                ChunkParseTask task = new ChunkParseTask(channel, chunkStarts.get(i), chunkStarts.get(i + 1),
+                        nodesCount);
+                tasks.add(task);
+                pool.execute(task);
+            }
+
+            // join all the tasks before reporting anything, so that none of them is still reading the file
+            ParsedChunk[] chunks = new ParsedChunk[tasks.size()];
+            for (int i = 0; i < chunks.length; i++)
+            {
+                chunks[i] = tasks.get(i).join();
+            }
+
+            GraphBuilder builder = new GraphBuilder(nodesCount, false);
+            // an edge line takes at least 4 bytes, so a wrong header can't make this allocate too much
+            builder.ensureCapacity((int) Math.min(edgesCount, (fileSize - edgesStart) / 4 + 1));
+            long linesBefore = header.linesCount;
+            for (ParsedChunk chunk : chunks)
+            {
+                if (chunk.readError != null)
+                {
+                    throw chunk.readError;
+                }
+                if (chunk.errorMessage != null)
+                {
+                    throw new GraphFormatException(linesBefore + chunk.errorLine, chunk.errorMessage);
+                }
+                if (builder.getEdgesCount() + chunk.edgesCount > edgesCount)
+                {
+                    throw new GraphFormatException("File has more edges than the " + edgesCount + " given in the "
+                            + "header.");
+                }
+                try
+                {
+                    builder.addEdges(chunk.sources, chunk.destinations, chunk.edgesCount);
+                }
+                catch (Exception ex)
+                {
+                    throw new GraphFormatException(ex.getMessage());
+                }
+                linesBefore += chunk.linesCount;
+            }
+
+            if (builder.getEdgesCount() != edgesCount)
+            {
+                throw new GraphFormatException("File has " + builder.getEdgesCount() + " edges but the header gives "
+                        + edgesCount + ".");
+            }
+
+            return builder.build();
+        }
+    }
+
+    // finds the first position at or after the given one that starts a line
+    private static long findLineStart(FileChannel channel, long position, long fileSize) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long bufferStart = position - 1;
+        while (bufferStart < fileSize)
+        {
+            buffer.clear();
+            int read = channel.read(buffer, bufferStart);
+            if (read <= 0)
+            {
+                break;
+            }
+            for (int i = 0; i < read; i++)
+            {
+                if (buffer.get(i) == '\n')
+                {
+                    return bufferStart + i + 1;
+                }
+            }
+            bufferStart += read;
+        }
+        return fileSize;
+    }
+
+    private static class ParsedChunk
+    {
+        int[] sources;
+
+        int[] destinations;
+
+        int edgesCount;
+
+        long linesCount;
+
+        // line of the first error, counted from the start of the chunk
+        long errorLine;
+
+        String errorMessage;
+
+        IOException readError;
+    }
+
+    private static class ChunkParseTask extends RecursiveTask<ParsedChunk>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+
+        private final long start;
+
+        private final long end;
+
+        private final int nodesCount;
+
+        ChunkParseTask(FileChannel channel, long start, long end, int nodesCount)
+        {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.nodesCount = nodesCount;
+        }
+
+        @Override
+        protected ParsedChunk compute()
+        {
+            ParsedChunk chunk = new ParsedChunk();
+            LineParser parser;
+            try
+            {
+                parser = new LineParser(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            }
+            catch (IOException ex)
+            {
+                chunk.readError = ex;
+                return chunk;
+            }
+
+            // an edge line takes at least 4 bytes, including its line end
+            int capacity = (int) Math.min((end - start) / 4 + 1, Integer.MAX_VALUE - 8);
+            int[] sources = new int[Math.min(capacity, 1 << 10)];
+            int[] destinations = new int[sources.length];
+            int edgesCount = 0;
+
+            while (parser.hasMore())
+            {
+                if (parser.skipBlankLine())
+                {
+                    continue;
+                }
+
+                int src = parser.readNode(nodesCount);
+                int dest = src < 0 ? -1 : parser.readNode(nodesCount);
+                if (dest < 0 || !parser.skipLineEnd())
+                {
+                    chunk.errorLine = parser.linesCount + 1;
+                    chunk.errorMessage = parser.errorMessage;
+                    return chunk;
+                }
+
+                if (edgesCount == sources.length)
+                {
+                    int newLength = (int) Math.min(2L * sources.length, capacity);
+                    sources = Arrays.copyOf(sources, newLength);
+                    destinations = Arrays.copyOf(destinations, newLength);
+                }
+                sources[edgesCount] = src;
+                destinations[edgesCount] = dest;
+                edgesCount++;
+            }
+
+            chunk.sources = sources;
+            chunk.destinations = destinations;
+            chunk.edgesCount = edgesCount;
+            chunk.linesCount = parser.linesCount;
+            return chunk;
+        }
+    }
+
+    // reads numbers and line ends from a mapped part of the file, one byte at a time
+    private static class LineParser
+    {
+        private final MappedByteBuffer buffer;
+
+        private final int limit;
+
+        int position;
+
+        // number of complete lines consumed
+        long linesCount;
+
+        String errorMessage;
+
+        LineParser(MappedByteBuffer buffer)
+        {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        boolean hasMore()
+        {
+            return position < limit;
+        }
+
+        // consumes the current line if it has only spaces and tabs
+        boolean skipBlankLine()
+        {
+            int cur = skipSpaces(position);
+            if (cur == limit || buffer.get(cur) == '\n')
+            {
+                position = cur == limit ? cur : cur + 1;
+                linesCount++;
+                return true;
+            }
+            return false;
+        }
+
+        // consumes the rest of the line, which must have only spaces and tabs
+        boolean skipLineEnd()
+        {
+            int cur = skipSpaces(position);
+            if (cur < limit && buffer.get(cur) != '\n')
+            {
+                errorMessage = "Unexpected character '" + (char) buffer.get(cur) + "'.";
+                return false;
+            }
+            position = cur == limit ? cur : cur + 1;
+            linesCount++;
+            return true;
+        }
+
+        // reads a node index smaller than the bound, or returns -1 and sets errorMessage
+        int readNode(int bound)
+        {
+            return readNumber(bound, "Node index is out of range. Number of nodes in graph: " + bound + ".");
+        }
+
+        private int readNumber(int bound, String tooLargeMessage)
+        {
+            int cur = skipSpaces(position);
+            if (cur == limit || !isDigit(buffer.get(cur)))
+            {
+                errorMessage = cur == limit || buffer.get(cur) == '\n' ? "Expected a number."
+                        : "Unexpected character '" + (char) buffer.get(cur) + "'.";
+                return -1;
+            }
+
+            // the value is checked after every digit, so it never gets far enough past the bound to overflow
+            long value = 0;
+            while (cur < limit && isDigit(buffer.get(cur)))
+            {
+                value = value * 10 + (buffer.get(cur++) - '0');
+                if (value >= bound)
+                {
+                    errorMessage = tooLargeMessage;
+                    return -1;
+                }
+            }
+            if (cur < limit && !isSpace(buffer.get(cur)) && buffer.get(cur) != '\n')
+            {
+                errorMessage = "Unexpected character '" + (char) buffer.get(cur) + "'.";
+                return -1;
+            }
+
+            position = cur;
+            return (int) value;
+        }
+
+        int readHeaderValue(String name) throws GraphFormatException
+        {
+            int value = readNumber(Integer.MAX_VALUE, "Number is too large.");
+            if (value < 0 || !skipLineEnd())
+            {
+                throw new GraphFormatException(linesCount + 1, "Expected the " + name + ". " + errorMessage);
+            }
+            return value;
+        }
+
+        private int skipSpaces(int cur)
+        {
+            while (cur < limit && isSpace(buffer.get(cur)))
+            {
+                cur++;
+            }
+            return cur;
+        }
+
+        private static boolean isDigit(byte value)
+        {
+            return value >= '0' && value <= '9';
+        }
+
+        private static boolean isSpace(byte value)
+        {
+            return value == ' ' || value == '\t' || value == '\r';
+        }
+    }
+}
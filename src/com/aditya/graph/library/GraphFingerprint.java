@@ -0,0 +1,246 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+
+/**
+ * Structural fingerprint of a graph. Nodes are colored by a few rounds of Weisfeiler-Lehman color refinement and
+ * renumbered by their colors, which gives the same canonical numbering to isomorphic graphs in most practical cases.
+ * The hash is computed on the canonical numbering, so it doesn't depend on the ids the caller has chosen.
+ * Equal hashes don't guarantee equal graphs. Use matches to rule out collisions.
+ */
+public class GraphFingerprint
+{
+    private static final int MAX_REFINEMENT_ROUNDS = 16;
+
+    /**
+     * Hash of the canonical form of the graph.
+     */
+    public long hash;
+
+    /**
+     * Canonical id of each node of the graph, indexed by the id used in the graph.
+     */
+    public int[] canonicalIds;
+
+    /**
+     * Node of the graph for each canonical id. This is the inverse of canonicalIds.
+     */
+    public int[] graphIds;
+
+    /**
+     * Neighbors of each node in canonical ids, indexed by canonical id. Neighbors are sorted unless the order of
+     * neighbors is part of the fingerprint.
+     */
+    public int[][] canonicalAdjacency;
+
+    /**
+     * Faces of the graph in canonical ids. Only filled when the order of neighbors is part of the fingerprint.
+     */
+    public int[][] canonicalFaces;
+
+    public boolean isDirected;
+
+    public boolean includesEmbedding;
+
+    GraphFingerprint()
+    {
+    }
+
+    /**
+     * Computes fingerprint of a graph.
+     *
+     * @param graph             Graph whose fingerprint has to be computed
+     * @param includeEmbedding  If true, the order of neighbors of each node and the faces of the graph are part of
+     *                          the fingerprint. Use this for graphs returned by isPlanar or triangulate functions.
+     * @return Fingerprint of the graph
+     */
+    public static GraphFingerprint compute(Graph graph, boolean includeEmbedding)
+    {
+        GraphFingerprint fingerprint = new GraphFingerprint();
+        int nodesCount = graph.nodesCount;
+        fingerprint.isDirected = graph.isDirected;
+        fingerprint.includesEmbedding = includeEmbedding;
+
+        final long[] colors = refineColors(graph);
+
+        // order nodes by their colors. ties are broken by the ids of the caller.
+        Integer[] sortedNodes = new Integer[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            sortedNodes[i] = i;
+        }
+        Arrays.sort(sortedNodes, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer first, Integer second)
+            {
+                int result = Long.compare(colors[first], colors[second]);
+                return result != 0 ? result : Integer.compare(first, second);
+            }
+        });
+
+        fingerprint.canonicalIds = new int[nodesCount];
+        fingerprint.graphIds = new int[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            fingerprint.graphIds[i] = sortedNodes[i];
+            fingerprint.canonicalIds[sortedNodes[i]] = i;
+        }
+
+        // build adjacency in canonical ids and hash it
+        long hash = mix(nodesCount * 31L + (graph.isDirected ? 1 : 0) + (includeEmbedding ? 2 : 0));
+        fingerprint.canonicalAdjacency = new int[nodesCount][];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            ArrayList<Edge> neighbors = graph.nodes.get(fingerprint.graphIds[i]).neighbors;
+            int[] adjacency = new int[neighbors.size()];
+            for (int j = 0; j < adjacency.length; j++)
+            {
+                adjacency[j] = fingerprint.canonicalIds[neighbors.get(j).dest];
+            }
+            if (!includeEmbedding)
+            {
+                Arrays.sort(adjacency);
+            }
+            fingerprint.canonicalAdjacency[i] = adjacency;
+
+            hash = mix(hash ^ adjacency.length);
+            for (int neighbor : adjacency)
+            {
+                hash = mix(hash ^ neighbor);
+            }
+        }
+
+        if (includeEmbedding)
+        {
+            fingerprint.canonicalFaces = new int[graph.faces.size()][];
+            for (int i = 0; i < graph.faces.size(); i++)
+            {
+                LinkedList<Integer> face = graph.faces.get(i);
+                int[] canonicalFace = new int[face.size()];
+                int j = 0;
+                hash = mix(hash ^ face.size());
+                for (Integer node : face)
+                {
+                    canonicalFace[j++] = fingerprint.canonicalIds[node];
+                    hash = mix(hash ^ canonicalFace[j - 1]);
+                }
+                fingerprint.canonicalFaces[i] = canonicalFace;
+            }
+        }
+
+        fingerprint.hash = hash;
+        return fingerprint;
+    }
+
+    /**
+     * Checks if two fingerprints describe the same canonical graph. This is an exact comparison and it is meant to
+     * be used after hashes of both fingerprints turn out to be equal.
+     *
+     * @param other Fingerprint to compare with
+     * @return True if both the graphs are same after renumbering their nodes to canonical ids
+     */
+    public boolean matches(GraphFingerprint other)
+    {
+        if (other == null || hash != other.hash || isDirected != other.isDirected
+                || includesEmbedding != other.includesEmbedding
+                || canonicalAdjacency.length != other.canonicalAdjacency.length)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < canonicalAdjacency.length; i++)
+        {
+            if (!Arrays.equals(canonicalAdjacency[i], other.canonicalAdjacency[i]))
+            {
+                return false;
+            }
+        }
+
+        return !includesEmbedding || Arrays.deepEquals(canonicalFaces, other.canonicalFaces);
+    }
+
+    // Weisfeiler-Lehman color refinement. we stop as soon as a round doesn't split any color class.
+    private static long[] refineColors(Graph graph)
+    {
+        int nodesCount = graph.nodesCount;
+        long[] colors = new long[nodesCount];
+        long[] newColors = new long[nodesCount];
+        int maxDegree = 0;
+
+        for (int i = 0; i < nodesCount; i++)
+        {
+            int degree = graph.nodes.get(i).neighbors.size();
+            colors[i] = mix(degree);
+            maxDegree = Math.max(maxDegree, degree);
+        }
+
+        long[] neighborColors = new long[maxDegree];
+        int classesCount = countDistinct(colors);
+
+        for (int round = 0; round < MAX_REFINEMENT_ROUNDS && classesCount < nodesCount; round++)
+        {
+            for (int i = 0; i < nodesCount; i++)
+            {
+                ArrayList<Edge> neighbors = graph.nodes.get(i).neighbors;
+                int degree = neighbors.size();
+                for (int j = 0; j < degree; j++)
+                {
+                    neighborColors[j] = colors[neighbors.get(j).dest];
+                }
+                Arrays.sort(neighborColors, 0, degree);
+
+                long color = mix(colors[i]);
+                for (int j = 0; j < degree; j++)
+                {
+                    color = mix(color ^ neighborColors[j]);
+                }
+                newColors[i] = color;
+            }
+
+            int newClassesCount = countDistinct(newColors);
+            long[] temp = colors;
+            colors = newColors;
+            newColors = temp;
+
+            if (newClassesCount == classesCount)
+            {
+                break;
+            }
+            classesCount = newClassesCount;
+        }
+
+        return colors;
+    }
+
+    private static int countDistinct(long[] values)
+    {
+        if (values.length == 0)
+        {
+            return 0;
+        }
+
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int distinct = 1;
+        for (int i = 1; i < sorted.length; i++)
+        {
+            if (sorted[i] != sorted[i - 1])
+            {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    // finalizer of splitmix64. spreads every input bit over the whole output.
+    private static long mix(long value)
+    {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
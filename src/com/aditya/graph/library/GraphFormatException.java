@@ -0,0 +1,33 @@
+package com.aditya.graph.library;
+
+/**
+ * Thrown when a graph file doesn't follow its format.
+ */
+public class GraphFormatException extends Exception
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Line of the file on which the problem was found, starting from 1. 0 if the problem isn't tied to a line.
+     */
+    public final long lineNumber;
+
+    /**
+     * @param message Description of the problem
+     */
+    public GraphFormatException(String message)
+    {
+        super(message);
+        this.lineNumber = 0;
+    }
+
+    /**
+     * @param lineNumber Line of the file on which the problem was found, starting from 1
+     * @param message    Description of the problem
+     */
+    public GraphFormatException(long lineNumber, String message)
+    {
+        super("Line " + lineNumber + ": " + message);
+        this.lineNumber = lineNumber;
+    }
+}
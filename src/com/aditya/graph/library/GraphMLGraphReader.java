@@ -0,0 +1,191 @@
+package com.aditya.graph.library;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.HashMap;
+
+/**
+ * Reads graphs in GraphML format with a streaming XML parser, so the document is never held in memory. Nodes are
+ * numbered in the order their ids first appear, either in a node or in an edge. The edgedefault of the graph tells
+ * if it is directed. If a key named "weight" is declared for edges, its values become weights of the edges.
+ * Nested graphs are read as part of the outer graph and hyperedges aren't supported.
+ */
+public class GraphMLGraphReader implements IGraphReader
+{
+    @Override
+    public Graph read(ReadableByteChannel input) throws IOException, GraphFormatException
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // the document comes from outside, so don't let it pull in other files
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        XMLStreamReader reader = null;
+        try
+        {
+            reader = factory.createXMLStreamReader(Channels.newInputStream(input));
+            return read(reader);
+        }
+        catch (XMLStreamException ex)
+        {
+            long lineNumber = ex.getLocation() == null ? 0 : ex.getLocation().getLineNumber();
+            throw new GraphFormatException(lineNumber, ex.getMessage());
+        }
+        finally
+        {
+            if (reader != null)
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch (XMLStreamException ex)
+                {
+                    // nothing is left to read, so this doesn't affect the result
+                }
+            }
+        }
+    }
+
+    private static Graph read(XMLStreamReader reader) throws XMLStreamException, GraphFormatException
+    {
+        GraphBuilder builder = null;
+        HashMap<String, Integer> nodeIds = new HashMap<>();
+        String weightKey = null;
+
+        // edge being read. it is added once its end tag is reached, when its weight is known.
+        int src = -1, dest = -1, weight = 1;
+        boolean isInWeight = false;
+        StringBuilder weightText = new StringBuilder();
+
+        while (reader.hasNext())
+        {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS && isInWeight)
+            {
+                weightText.append(reader.getText());
+                continue;
+            }
+
+            if (event == XMLStreamConstants.END_ELEMENT)
+            {
+                String name = reader.getLocalName();
+                if (name.equals("data") && isInWeight)
+                {
+                    isInWeight = false;
+                    weight = parseWeight(reader, weightText.toString().trim());
+                }
+                else if (name.equals("edge"))
+                {
+                    addEdge(reader, builder, src, dest, weight);
+                    src = dest = -1;
+                }
+                continue;
+            }
+
+            if (event != XMLStreamConstants.START_ELEMENT)
+            {
+                continue;
+            }
+
+            switch (reader.getLocalName())
+            {
+                case "key":
+                    String keyFor = reader.getAttributeValue(null, "for");
+                    if ("weight".equals(reader.getAttributeValue(null, "attr.name"))
+                            && ("edge".equals(keyFor) || "all".equals(keyFor)))
+                    {
+                        weightKey = reader.getAttributeValue(null, "id");
+                    }
+                    break;
+                case "graph":
+                    if (builder == null)
+                    {
+                        boolean isDirected = "directed".equals(reader.getAttributeValue(null, "edgedefault"));
+                        builder = new GraphBuilder(0, isDirected);
+                    }
+                    break;
+                case "node":
+                    getNode(reader, builder, nodeIds, reader.getAttributeValue(null, "id"));
+                    break;
+                case "edge":
+                    src = getNode(reader, builder, nodeIds, reader.getAttributeValue(null, "source"));
+                    dest = getNode(reader, builder, nodeIds, reader.getAttributeValue(null, "target"));
+                    weight = 1;
+                    break;
+                case "data":
+                    if (src >= 0 && weightKey != null && weightKey.equals(reader.getAttributeValue(null, "key")))
+                    {
+                        isInWeight = true;
+                        weightText.setLength(0);
+                    }
+                    break;
+                case "hyperedge":
+                    throw new GraphFormatException(reader.getLocation().getLineNumber(),
+                            "Hyperedges aren't supported.");
+                default:
+                    break;
+            }
+        }
+
+        if (builder == null)
+        {
+            throw new GraphFormatException("Document has no graph.");
+        }
+        return builder.build();
+    }
+
+    private static int getNode(
+            XMLStreamReader reader,
+            GraphBuilder builder,
+            HashMap<String, Integer> nodeIds,
+            String id) throws GraphFormatException
+    {
+        if (builder == null)
+        {
+            throw new GraphFormatException(reader.getLocation().getLineNumber(), "Node is outside of a graph.");
+        }
+        if (id == null)
+        {
+            throw new GraphFormatException(reader.getLocation().getLineNumber(), "Node id is missing.");
+        }
+
+        Integer node = nodeIds.get(id);
+        if (node == null)
+        {
+            node = builder.addNode();
+            nodeIds.put(id, node);
+        }
+        return node;
+    }
+
+    private static void addEdge(XMLStreamReader reader, GraphBuilder builder, int src, int dest, int weight)
+            throws GraphFormatException
+    {
+        try
+        {
+            builder.addEdge(src, dest, weight);
+        }
+        catch (Exception ex)
+        {
+            throw new GraphFormatException(reader.getLocation().getLineNumber(), ex.getMessage());
+        }
+    }
+
+    private static int parseWeight(XMLStreamReader reader, String text) throws GraphFormatException
+    {
+        try
+        {
+            return (int) Math.round(Double.parseDouble(text));
+        }
+        catch (NumberFormatException ex)
+        {
+            throw new GraphFormatException(reader.getLocation().getLineNumber(), "Weight " + text + " isn't a number.");
+        }
+    }
+}
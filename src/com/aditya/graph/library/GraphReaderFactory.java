@@ -0,0 +1,113 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+public class GraphReaderFactory
+{
+    // bytes of compressed input read at a time
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+    public static IGraphReader GetGraphReader(GraphFileFormats format)
+    {
+        switch (format)
+        {
+            case EDGE_LIST:
+                return new EdgeListGraphReader();
+            case DIMACS:
+                return new DimacsGraphReader();
+            case METIS:
+                return new MetisGraphReader();
+            case MATRIX_MARKET:
+                return new MatrixMarketGraphReader();
+            case GRAPHML:
+                return new GraphMLGraphReader();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Guesses the format of a graph file from its extension, ignoring a trailing ".gz".
+     *
+     * @param file Path of the file
+     * @return Format of the file, or INVALID if the extension isn't known
+     */
+    public static GraphFileFormats GetFormatOfFile(Path file)
+    {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".gz"))
+        {
+            name = name.substring(0, name.length() - 3);
+        }
+
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        switch (extension)
+        {
+            case "el":
+            case "edges":
+            case "edgelist":
+                return GraphFileFormats.EDGE_LIST;
+            case "dimacs":
+            case "col":
+            case "gr":
+                return GraphFileFormats.DIMACS;
+            case "graph":
+            case "metis":
+                return GraphFileFormats.METIS;
+            case "mtx":
+                return GraphFileFormats.MATRIX_MARKET;
+            case "graphml":
+                return GraphFileFormats.GRAPHML;
+            default:
+                return GraphFileFormats.INVALID;
+        }
+    }
+
+    /**
+     * Reads a graph file. Files whose name ends with ".gz" are decompressed while they are read.
+     *
+     * @param file   Path of the file
+     * @param format Format of the file
+     * @return Graph described by the file
+     * @throws IOException          Throws an exception if the file couldn't be read
+     * @throws GraphFormatException Throws an exception if the file doesn't follow the format or the format is INVALID
+     */
+    public static Graph ReadGraph(Path file, GraphFileFormats format) throws IOException, GraphFormatException
+    {
+        IGraphReader reader = GetGraphReader(format);
+        if (reader == null)
+        {
+            throw new GraphFormatException("Unknown format of graph file " + file + ".");
+        }
+
+        try (ReadableByteChannel input = openChannel(file))
+        {
+            return reader.read(input);
+        }
+    }
+
+    static ReadableByteChannel openChannel(Path file) throws IOException
+    {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        if (!file.getFileName().toString().toLowerCase().endsWith(".gz"))
+        {
+            return channel;
+        }
+
+        try
+        {
+            return Channels.newChannel(new GZIPInputStream(Channels.newInputStream(channel), GZIP_BUFFER_SIZE));
+        }
+        catch (IOException ex)
+        {
+            channel.close();
+            throw ex;
+        }
+    }
+}
@@ -15,41 +15,176 @@ public final class Helpers
      */
     public static int[] findComponents(Graph graph)
     {
-        int[] components = new int[graph.nodesCount];
+        return findComponents(new GraphAdjacencyView(graph));
+    }
+
+    /**
+     * Same as findComponents for any adjacency view. Components are found by breadth first search, so the depth of
+     * the graph doesn't matter. Components are numbered from 1 in the order of their smallest node.
+     *
+     * @param adjacency Graph in which components have to be found
+     * @return Array indicating components of the graph
+     */
+    public static int[] findComponents(IAdjacencyView adjacency)
+    {
+        int nodesCount = adjacency.getNodesCount();
+        int[] components = new int[nodesCount];
+        int[] queue = new int[nodesCount];
+        int[] neighbors = new int[adjacency.getMaxDegree()];
         int curComponent = 0;
 
-        for (int i = 0; i < graph.nodesCount; i++)
+        for (int i = 0; i < nodesCount; i++)
         {
             components[i] = -1;
         }
 
-        for (int i = 0; i < graph.nodesCount; i++)
+        for (int i = 0; i < nodesCount; i++)
         {
-            if (components[i] == -1)
+            if (components[i] != -1)
             {
-                curComponent++;
-                findComponentsInternal(graph, i, components, curComponent);
+                continue;
+            }
+
+            curComponent++;
+            int head = 0, tail = 0;
+            queue[tail++] = i;
+            components[i] = curComponent;
+            while (head < tail)
+            {
+                int curNode = queue[head++];
+                int degree = adjacency.getNeighbors(curNode, neighbors);
+                for (int j = 0; j < degree; j++)
+                {
+                    if (components[neighbors[j]] == -1)
+                    {
+                        components[neighbors[j]] = curComponent;
+                        queue[tail++] = neighbors[j];
+                    }
+                }
             }
         }
 
         return components;
     }
 
-    private static void findComponentsInternal(Graph graph, int curIdx, int[] components, int curComponent)
+    /**
+     * Splits an undirected graph into its biconnected components (blocks): maximal sets of edges in which every two
+     * edges lie on a common cycle. A bridge forms a block of its own. Two blocks share at most one node, a cut
+     * vertex. Blocks are found by depth first search with an explicit stack, so the depth of the graph doesn't
+     * matter.
+     *
+     * @param graph Undirected graph to split
+     * @return Edges of each block, each edge seen from one of its ends only
+     */
+    public static ArrayList<ArrayList<Edge>> findBiconnectedComponents(Graph graph)
     {
-        if (components[curIdx] != -1)
+        int nodesCount = graph.nodesCount;
+        int[] discovery = new int[nodesCount];
+        int[] low = new int[nodesCount];
+        int[] parents = new int[nodesCount];
+        int[] nextNeighbor = new int[nodesCount];
+        int[] stack = new int[nodesCount];
+        ArrayList<Edge> edgeStack = new ArrayList<>();
+        ArrayList<ArrayList<Edge>> blocks = new ArrayList<>();
+        int time = 0;
+
+        for (int root = 0; root < nodesCount; root++)
         {
-            return;
+            if (discovery[root] != 0)
+            {
+                continue;
+            }
+
+            discovery[root] = low[root] = ++time;
+            parents[root] = -1;
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0)
+            {
+                int node = stack[top - 1];
+                ArrayList<Edge> neighbors = graph.nodes.get(node).neighbors;
+                if (nextNeighbor[node] < neighbors.size())
+                {
+                    Edge edge = neighbors.get(nextNeighbor[node]++);
+                    if (discovery[edge.dest] == 0)
+                    {
+                        edgeStack.add(edge);
+                        parents[edge.dest] = node;
+                        discovery[edge.dest] = low[edge.dest] = ++time;
+                        stack[top++] = edge.dest;
+                    }
+                    else if (edge.dest != parents[node] && discovery[edge.dest] < discovery[node])
+                    {
+                        // back edge to an ancestor
+                        edgeStack.add(edge);
+                        low[node] = Math.min(low[node], discovery[edge.dest]);
+                    }
+                    continue;
+                }
+
+                top--;
+                int parent = parents[node];
+                if (parent == -1)
+                {
+                    continue;
+                }
+                low[parent] = Math.min(low[parent], low[node]);
+                if (low[node] >= discovery[parent])
+                {
+                    // nothing below node reaches above parent, so the edges since (parent, node) form a block
+                    ArrayList<Edge> block = new ArrayList<>();
+                    Edge edge;
+                    do
+                    {
+                        edge = edgeStack.remove(edgeStack.size() - 1);
+                        block.add(edge);
+                    }
+                    while (edge.src != parent || edge.dest != node);
+                    blocks.add(block);
+                }
+            }
         }
 
-        components[curIdx] = curComponent;
-        for (Edge edge : graph.nodes.get(curIdx).neighbors)
+        return blocks;
+    }
+
+    /**
+     * Finds the number of edges on the shortest path from a node to every other node by breadth first search.
+     *
+     * @param adjacency Graph to search
+     * @param source    Node from which the distances are measured
+     * @return Distance of each node from the source, -1 for nodes that can't be reached
+     */
+    public static int[] findDistances(IAdjacencyView adjacency, int source)
+    {
+        int nodesCount = adjacency.getNodesCount();
+        int[] distances = new int[nodesCount];
+        int[] queue = new int[nodesCount];
+        int[] neighbors = new int[adjacency.getMaxDegree()];
+
+        for (int i = 0; i < nodesCount; i++)
         {
-            if (components[edge.dest] == -1)
+            distances[i] = -1;
+        }
+
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        distances[source] = 0;
+        while (head < tail)
+        {
+            int curNode = queue[head++];
+            int degree = adjacency.getNeighbors(curNode, neighbors);
+            for (int i = 0; i < degree; i++)
             {
-                findComponentsInternal(graph, edge.dest, components, curComponent);
+                if (distances[neighbors[i]] == -1)
+                {
+                    distances[neighbors[i]] = distances[curNode] + 1;
+                    queue[tail++] = neighbors[i];
+                }
             }
         }
+
+        return distances;
     }
 
     public static ArrayList<ArrayList<Integer>> findNonEmbeddedComponents(Graph graph, boolean[] isEmbedded)
@@ -235,10 +370,99 @@ public final class Helpers
     }
 
     /**
-     * This function finds path between any two of the acceptable nodes, if such a path exists.
+     * Same as findSomeCycle for the adjacency view of an undirected graph. Works by breadth first search, so the
+     * depth of the graph doesn't matter, and the cycle found is a shortest one through the first node of its
+     * component that has any cycle at all.
+     *
+     * @param adjacency Undirected graph in which a cycle has to be found
+     * @return List of nodes in the cycle OR null if there are no cycles.
+     */
+    public static LinkedList<Integer> findSomeCycle(IAdjacencyView adjacency)
+    {
+        int nodesCount = adjacency.getNodesCount();
+        int[] parents = new int[nodesCount];
+        int[] queue = new int[nodesCount];
+        int[] neighbors = new int[adjacency.getMaxDegree()];
+
+        for (int i = 0; i < nodesCount; i++)
+        {
+            parents[i] = -2;
+        }
+
+        for (int i = 0; i < nodesCount; i++)
+        {
+            if (parents[i] != -2)
+            {
+                continue;
+            }
+
+            int head = 0, tail = 0;
+            queue[tail++] = i;
+            parents[i] = -1;
+            while (head < tail)
+            {
+                int curNode = queue[head++];
+                int degree = adjacency.getNeighbors(curNode, neighbors);
+                boolean hasSkippedParent = false;
+                for (int j = 0; j < degree; j++)
+                {
+                    int neighbor = neighbors[j];
+                    if (neighbor == parents[curNode] && !hasSkippedParent)
+                    {
+                        // the edge to the parent is a tree edge. a second edge to the parent closes a cycle.
+                        hasSkippedParent = true;
+                        continue;
+                    }
+                    if (parents[neighbor] == -2)
+                    {
+                        parents[neighbor] = curNode;
+                        queue[tail++] = neighbor;
+                        continue;
+                    }
+                    return getCycleThroughEdge(parents, curNode, neighbor);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // joins the tree paths from both the end points of a non-tree edge up to their common ancestor
+    private static LinkedList<Integer> getCycleThroughEdge(int[] parents, int first, int second)
+    {
+        LinkedList<Integer> cycle = new LinkedList<>();
+        HashSet<Integer> ancestorsOfFirst = new HashSet<>();
+        for (int node = first; node != -1; node = parents[node])
+        {
+            ancestorsOfFirst.add(node);
+        }
+
+        LinkedList<Integer> pathFromSecond = new LinkedList<>();
+        int commonAncestor = second;
+        while (!ancestorsOfFirst.contains(commonAncestor))
+        {
+            pathFromSecond.add(commonAncestor);
+            commonAncestor = parents[commonAncestor];
+        }
+
+        for (int node = first; node != commonAncestor; node = parents[node])
+        {
+            cycle.addFirst(node);
+        }
+        cycle.addFirst(commonAncestor);
+        cycle.addAll(pathFromSecond);
+
+        return cycle;
+    }
+
+    /**
+     * This function finds path between any two of the acceptable nodes, if such a path exists. If the component
+     * has nodes that aren't acceptable, the path goes through them: an edge between two acceptable nodes belongs
+     * to another component then and is never taken.
      *
      * @param graph           Graph in which the path has to be found.
      * @param acceptableNodes List of nodes between which a path is acceptable.
+     * @param component       Nodes the path may use.
      * @return List of nodes that constitute the path.
      */
     public static LinkedList<Integer> findPathBetweenAnyTwo(
@@ -267,10 +491,12 @@ public final class Helpers
             isInComponent[nodeInComponent] = true;
         }
 
+        boolean skipsDirectEdges = acceptableNodes.size() < component.size();
         for (Integer acceptableNode : acceptableNodes)
         {
             somePath = new LinkedList<>();
-            if (findPathBetweenAnyTwo(graph, acceptableNode, somePath, isAcceptableNode, hasVisited, isInComponent))
+            if (findPathBetweenAnyTwo(
+                    graph, acceptableNode, somePath, isAcceptableNode, hasVisited, isInComponent, skipsDirectEdges))
             {
                 break;
             }
@@ -286,7 +512,8 @@ public final class Helpers
             LinkedList<Integer> pathSoFar,
             boolean[] isAcceptableNode,
             boolean[] hasVisited,
-            boolean[] isInComponent)
+            boolean[] isInComponent,
+            boolean skipsDirectEdges)
     {
         // have to check for a non-empty path because we are starting with first node and it has to be an
         // acceptable node
@@ -301,15 +528,20 @@ public final class Helpers
 
         for (Edge edge : graph.nodes.get(curNode).neighbors)
         {
-            if (!hasVisited[edge.dest] && isInComponent[edge.dest])
+            // a direct edge between two embedded nodes is a component of its own
+            boolean isDirectEdge = isAcceptableNode[curNode] && isAcceptableNode[edge.dest];
+            if (!hasVisited[edge.dest] && isInComponent[edge.dest] && !(skipsDirectEdges && isDirectEdge))
             {
-                if (findPathBetweenAnyTwo(graph, edge.dest, pathSoFar, isAcceptableNode, hasVisited, isInComponent))
+                if (findPathBetweenAnyTwo(
+                        graph, edge.dest, pathSoFar, isAcceptableNode, hasVisited, isInComponent, skipsDirectEdges))
                 {
                     return true;
                 }
             }
         }
 
+        // dead end. this node can't be part of the path
+        pathSoFar.removeLast();
         return false;
     }
 }
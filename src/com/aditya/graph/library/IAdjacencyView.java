@@ -0,0 +1,44 @@
+package com.aditya.graph.library;
+
+/**
+ * Read-only access to the neighbors of the nodes of a graph, independent of how they are stored. Traversals written
+ * against this interface run on Graph objects as well as on the compact representations.
+ */
+public interface IAdjacencyView
+{
+    /**
+     * @return Number of nodes. Nodes are numbered from 0 to nodesCount - 1.
+     */
+    int getNodesCount();
+
+    /**
+     * @return Number of edges. Both directions of an undirected edge count as one edge.
+     */
+    int getEdgesCount();
+
+    /**
+     * @return True if the graph is directed
+     */
+    boolean isDirected();
+
+    /**
+     * @param node Node of the graph
+     * @return Number of neighbors of the node
+     */
+    int getDegree(int node);
+
+    /**
+     * @return Greatest degree of any node, i.e. the size of a buffer that can hold the neighbors of every node
+     */
+    int getMaxDegree();
+
+    /**
+     * Copies the neighbors of a node into a buffer. This is the fast way to go through the graph: buffers can be
+     * reused from node to node and compressed representations decode each list in one pass.
+     *
+     * @param node      Node of the graph
+     * @param neighbors Buffer of at least getDegree(node) elements
+     * @return Number of neighbors written to the buffer
+     */
+    int getNeighbors(int node, int[] neighbors);
+}
@@ -0,0 +1,18 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+public interface IGraphReader
+{
+    /**
+     * Reads a graph from a channel. The input is parsed as it is read, so only the graph being built and a small
+     * buffer are held in memory. The channel isn't closed.
+     *
+     * @param input Channel with the text of the graph
+     * @return Graph described by the input
+     * @throws IOException          Throws an exception if the input couldn't be read
+     * @throws GraphFormatException Throws an exception if the input doesn't follow the format
+     */
+    Graph read(ReadableByteChannel input) throws IOException, GraphFormatException;
+}
@@ -1,5 +1,6 @@
 package com.aditya.graph.library;
 
+import com.aditya.general.utilities.Coordinates2D;
 import com.aditya.general.utilities.Point2D;
 
 import java.util.ArrayList;
@@ -14,4 +15,43 @@ public interface IPlanarDrawingMethods
      * @return List of 2D points that represent positions of the points on a 2D plane
      */
     ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph);
+
+    /**
+     * Same as DrawOnPlane but gives up once the token is cancelled or its deadline has passed. Strategies that can
+     * stop part way should override this; by default the token is only checked before the drawing starts.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return List of 2D points that represent positions of the points on a 2D plane or null if the token got
+     * cancelled before the drawing was complete
+     */
+    default ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        return token.isCancelled() ? null : DrawOnPlane(triangulatedPlanarGraph);
+    }
+
+    /**
+     * Same as DrawOnPlane but returns the positions as arrays of coordinates instead of one object per node.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @return Coordinates of the nodes, indexed by node
+     */
+    default Coordinates2D DrawOnPlaneCompact(Graph triangulatedPlanarGraph)
+    {
+        return DrawOnPlaneCompact(triangulatedPlanarGraph, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as DrawOnPlaneCompact but gives up once the token is cancelled or its deadline has passed. Strategies
+     * that compute coordinates in arrays should override this to skip creating point objects.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return Coordinates of the nodes or null if the token got cancelled before the drawing was complete
+     */
+    default Coordinates2D DrawOnPlaneCompact(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        ArrayList<Point2D> positions = DrawOnPlane(triangulatedPlanarGraph, token);
+        return positions == null ? null : Coordinates2D.fromPoints(positions);
+    }
 }
@@ -13,6 +13,27 @@ public interface IPlanarEmbeddingMethods
      */
     boolean isPlanar(Graph graph, Graph planarEmbeddedGraph);
 
+    /**
+     * Same as isPlanar but gives up once the token is cancelled or its deadline has passed. In that case the
+     * planarEmbeddedGraph is cleared so that nothing built so far is held on to. Strategies that can stop part way
+     * should override this; by default the token is only checked before the test starts.
+     *
+     * @param graph               Graph which should be checked for planarity
+     * @param planarEmbeddedGraph Graph with edges in correct order for planar drawing. Initialize an empty graph and
+     *                            pass it as input
+     * @param token               Token that bounds the time spent
+     * @return Planarity of input graph or TIMED_OUT if the token got cancelled before the test finished
+     */
+    default PlanarityResult isPlanar(Graph graph, Graph planarEmbeddedGraph, CancellationToken token)
+    {
+        if (token.isCancelled())
+        {
+            planarEmbeddedGraph.clear();
+            return PlanarityResult.TIMED_OUT;
+        }
+        return isPlanar(graph, planarEmbeddedGraph) ? PlanarityResult.PLANAR : PlanarityResult.NOT_PLANAR;
+    }
+
     /**
      * Takes a planar embedded graph as input and returns a fully triangulated graph. This step also ensures that the
      * order in which neighbors of nodes appear is consistent across different nodes.
@@ -22,4 +43,26 @@ public interface IPlanarEmbeddingMethods
      *                          pass it as input
      */
     void triangulate(Graph graph, Graph triangulatedGraph);
+
+    /**
+     * Same as triangulate but gives up once the token is cancelled or its deadline has passed. In that case the
+     * triangulatedGraph is cleared. Strategies that can stop part way should override this; by default the token is
+     * only checked before the triangulation starts.
+     *
+     * @param graph             Graph object returned by isPlanar function.
+     * @param triangulatedGraph Fully triangulated version of the input graph. Initialize an empty graph object and
+     *                          pass it as input
+     * @param token             Token that bounds the time spent
+     * @return True if the graph got triangulated. False if the token got cancelled first.
+     */
+    default boolean triangulate(Graph graph, Graph triangulatedGraph, CancellationToken token)
+    {
+        if (token.isCancelled())
+        {
+            triangulatedGraph.clear();
+            return false;
+        }
+        triangulate(graph, triangulatedGraph);
+        return true;
+    }
 }
@@ -0,0 +1,70 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Receives intermediate results of the embedding and drawing strategies. Strategies call these functions from
+ * their inner loops, so implementations should return quickly. Use NoOpPlanarTracer when nothing has to be traced.
+ */
+public interface IPlanarTracer
+{
+    /**
+     * Called when a path (or the first cycle) is embedded by the planarity test.
+     *
+     * @param path Nodes of the path in the order they were embedded. Don't modify it.
+     */
+    void pathEmbedded(LinkedList<Integer> path);
+
+    /**
+     * Called when the planarity test finds a component that can't be embedded in any face.
+     *
+     * @param component Nodes of the component. Don't modify it.
+     */
+    void componentRejected(ArrayList<Integer> component);
+
+    /**
+     * Called when the planarity test is done, irrespective of the result.
+     *
+     * @param faces Faces of the embedding built so far. Don't modify them.
+     */
+    void embeddingFinished(ArrayList<LinkedList<Integer>> faces);
+
+    /**
+     * Called when neighbors of a node of the triangulated graph are oriented.
+     *
+     * @param node      Node whose neighbors are oriented
+     * @param firstNode Neighbor that has to appear first
+     * @param nextNode  Neighbor that has to appear right after firstNode
+     */
+    void neighborsOrdered(int node, int firstNode, int nextNode);
+
+    /**
+     * Called when a drawing strategy has computed canonical ordering of the nodes.
+     *
+     * @param canonicalOrder Nodes in canonical order. Don't modify it.
+     */
+    void canonicalOrderComputed(int[] canonicalOrder);
+
+    /**
+     * Called when a strategy enters a phase. Phases of different kinds can be nested.
+     *
+     * @param phase Phase that has started
+     */
+    void phaseStarted(PlanarPhases phase);
+
+    /**
+     * Called when a strategy leaves a phase that it has entered earlier.
+     *
+     * @param phase Phase that has finished
+     */
+    void phaseFinished(PlanarPhases phase);
+
+    /**
+     * Called when a strategy has done some countable amount of work.
+     *
+     * @param counter Kind of work done
+     * @param amount  Amount of work done since the last call
+     */
+    void counterIncremented(PlanarCounters counter, long amount);
+}
@@ -0,0 +1,624 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps a straight line planar drawing of an undirected graph up to date while nodes and edges are added and
+ * removed. Changes are collected and applied together by the apply function.
+ * <p>
+ * Positions of the existing nodes are kept whenever the new nodes and edges fit into the old drawing: removing edges
+ * never introduces crossings, new nodes are put at the center of their neighbors, and new edges are accepted as long
+ * as they don't cross or touch anything in the drawing. Nothing is moved locally to make room; when a single new
+ * node or edge doesn't fit, the whole graph is drawn again and the new drawing is scaled and moved to stay as close
+ * as possible to the old one.
+ * <p>
+ * The drawing is kept in a uniform grid of cells, so checking a new segment only looks at the edges and nodes of the
+ * cells it passes through. The grid is built on the first apply after the graph got drawn from scratch. Reusing
+ * positions gives up and draws from scratch once it has looked at as many grid entries as the graph has nodes and
+ * edges, so a change never costs much more than a full drawing.
+ */
+public class IncrementalLayoutUpdater
+{
+    // changes of this size may always look at this many grid entries before giving up
+    private static final int MIN_INCREMENTAL_WORK = 4096;
+
+    private final Graph graph;
+
+    private Coordinates2D positions;
+
+    private final ComponentLayoutDriver layoutDriver;
+
+    // grid of the current drawing, null until it is needed
+    private DrawingGrid grid;
+
+    private int addedNodesCount;
+
+    private ArrayList<int[]> addedEdges = new ArrayList<>();
+
+    private ArrayList<int[]> removedEdges = new ArrayList<>();
+
+    private ArrayList<Integer> removedNodes = new ArrayList<>();
+
+    /**
+     * Creates an updater on top of an existing drawing. Drawings computed from scratch use the DMP and Schnyder
+     * strategies.
+     *
+     * @param graph     Undirected graph that is drawn. It is not modified.
+     * @param positions Planar straight line drawing of the graph, indexed by node
+     */
+    public IncrementalLayoutUpdater(Graph graph, Coordinates2D positions)
+    {
+        this(graph, positions, new ComponentLayoutDriver(
+                PlanarEmbeddingStrategies.DMP,
+                PlanarDrawingStrategies.SCHNYDER));
+    }
+
+    /**
+     * @param graph        Undirected graph that is drawn. It is not modified.
+     * @param positions    Planar straight line drawing of the graph, indexed by node
+     * @param layoutDriver Driver used when the graph has to be drawn from scratch
+     */
+    public IncrementalLayoutUpdater(Graph graph, Coordinates2D positions, ComponentLayoutDriver layoutDriver)
+    {
+        this.graph = graph.cloneGraph();
+        this.positions = new Coordinates2D(positions.x.clone(), positions.y.clone());
+        this.layoutDriver = layoutDriver;
+    }
+
+    /**
+     * @return Graph with all the changes applied so far. It is changed in place by the next apply.
+     */
+    public Graph getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * @return Positions of the nodes of the graph returned by getGraph.
+     */
+    public Coordinates2D getPositions()
+    {
+        return positions;
+    }
+    /**
+     * Adds a node when the next change is applied.
+     *
+     * @return Index the new node will have.
+     */
+    public int addNode()
+    {
+        return graph.nodesCount + addedNodesCount++;
+    }
+
+    /**
+     * Adds an edge when the next change is applied. Edges that already exist are ignored.
+     *
+     * @param src  Source vertex of edge
+     * @param dest Destination vertex of edge
+     * @throws Exception Throws an exception if indices of the vertices are non-existent in the graph
+     */
+    public void addEdge(int src, int dest) throws Exception
+    {
+        validateNode(src);
+        validateNode(dest);
+        addedEdges.add(new int[] {src, dest});
+    }
+
+    /**
+     * Removes an edge when the next change is applied. Edges that don't exist are ignored.
+     *
+     * @param src  Source vertex of edge
+     * @param dest Destination vertex of edge
+     * @throws Exception Throws an exception if indices of the vertices are non-existent in the graph
+     */
+    public void removeEdge(int src, int dest) throws Exception
+    {
+        validateNode(src);
+        validateNode(dest);
+        removedEdges.add(new int[] {src, dest});
+    }
+
+    /**
+     * Removes all edges of a node when the next change is applied. The node itself stays in the graph so that
+     * indices of other nodes don't change.
+     *
+     * @param node Node to remove
+     * @throws Exception Throws an exception if the index of the node is non-existent in the graph
+     */
+    public void removeNode(int node) throws Exception
+    {
+        validateNode(node);
+        removedNodes.add(node);
+    }
+
+    /**
+     * Applies all the changes collected since the last call. Removals are applied before additions.
+     *
+     * @return POSITIONS_REUSED if positions of the existing nodes didn't change, RECOMPUTED if the graph got drawn
+     * from scratch or NOT_PLANAR if the changed graph isn't planar. In the last case the changes are dropped and the
+     * graph and positions stay as they were.
+     * @throws Exception Throws an exception if the changed graph couldn't be drawn. The changes are dropped then too.
+     */
+    public LayoutUpdateResult apply() throws Exception
+    {
+        int oldNodesCount = graph.nodesCount;
+        if (grid == null)
+        {
+            grid = new DrawingGrid(graph, positions);
+        }
+
+        // the graph is changed in place; these lists are enough to undo the changes
+        ArrayList<int[]> droppedEdges = new ArrayList<>();
+        ArrayList<int[]> newEdges = new ArrayList<>();
+        for (int i = 0; i < addedNodesCount; i++)
+        {
+            graph.addNode();
+        }
+        for (Integer node : removedNodes)
+        {
+            while (!graph.nodes.get(node).neighbors.isEmpty())
+            {
+                dropEdge(graph.nodes.get(node).neighbors.get(0), droppedEdges);
+            }
+        }
+        for (int[] edge : removedEdges)
+        {
+            Edge existingEdge = findEdge(edge[0], edge[1]);
+            if (existingEdge != null)
+            {
+                dropEdge(existingEdge, droppedEdges);
+            }
+        }
+        for (int[] edge : addedEdges)
+        {
+            if (edge[0] != edge[1] && findEdge(edge[0], edge[1]) == null)
+            {
+                graph.addEdge(edge[0], edge[1]);
+                newEdges.add(edge);
+            }
+        }
+
+        addedNodesCount = 0;
+        addedEdges.clear();
+        removedEdges.clear();
+        removedNodes.clear();
+
+        grid.workLeft = MIN_INCREMENTAL_WORK + (long) graph.nodesCount + graph.edgesCount;
+        Coordinates2D updatedPositions = tryToReusePositions(oldNodesCount, newEdges);
+        if (updatedPositions != null)
+        {
+            positions = updatedPositions;
+            return LayoutUpdateResult.POSITIONS_REUSED;
+        }
+
+        // the grid holds part of the rejected change, and a new drawing needs a new grid anyway
+        grid = null;
+        try
+        {
+            updatedPositions = layoutDriver.layout(graph);
+        }
+        catch (Exception ex)
+        {
+            undo(oldNodesCount, droppedEdges, newEdges);
+            throw ex;
+        }
+        if (updatedPositions == null)
+        {
+            undo(oldNodesCount, droppedEdges, newEdges);
+            return LayoutUpdateResult.NOT_PLANAR;
+        }
+        alignWithOldPositions(updatedPositions, oldNodesCount);
+        positions = updatedPositions;
+        return LayoutUpdateResult.RECOMPUTED;
+    }
+
+    private void validateNode(int node) throws Exception
+    {
+        if (node < 0 || node >= graph.nodesCount + addedNodesCount)
+        {
+            throw new Exception("Invalid node " + node + ". Number of nodes in graph: "
+                    + (graph.nodesCount + addedNodesCount) + ".");
+        }
+    }
+
+    private Edge findEdge(int src, int dest)
+    {
+        for (Edge edge : graph.nodes.get(src).neighbors)
+        {
+            if (edge.dest == dest)
+            {
+                return edge;
+            }
+        }
+        return null;
+    }
+
+    private void dropEdge(Edge edge, ArrayList<int[]> droppedEdges)
+    {
+        int src = edge.src, dest = edge.dest;
+        droppedEdges.add(new int[] {src, dest, edge.weight});
+        graph.removeEdge(src, dest);
+        grid.remove(positions, src, dest);
+    }
+
+    // puts back the dropped edges and takes out the new edges and nodes
+    private void undo(int oldNodesCount, ArrayList<int[]> droppedEdges, ArrayList<int[]> newEdges) throws Exception
+    {
+        for (int[] edge : newEdges)
+        {
+            graph.removeEdge(edge[0], edge[1]);
+        }
+        for (int[] edge : droppedEdges)
+        {
+            graph.addEdge(edge[0], edge[1], edge[2]);
+        }
+        while (graph.nodesCount > oldNodesCount)
+        {
+            graph.nodes.remove(--graph.nodesCount);
+        }
+    }
+
+    // keeps the old positions, puts new nodes at the center of their old neighbors and checks that none of the new
+    // segments touch anything else. returns null if the drawing doesn't stay planar or the grid has been looked at
+    // too much.
+    private Coordinates2D tryToReusePositions(int oldNodesCount, ArrayList<int[]> newEdges)
+    {
+        int nodesCount = graph.nodesCount;
+        Coordinates2D updatedPositions = positions;
+        if (nodesCount > oldNodesCount)
+        {
+            updatedPositions = new Coordinates2D(
+                    Arrays.copyOf(positions.x, nodesCount),
+                    Arrays.copyOf(positions.y, nodesCount));
+        }
+
+        for (int node = oldNodesCount; node < nodesCount; node++)
+        {
+            double sumX = 0, sumY = 0;
+            int placedNeighbors = 0;
+            for (Edge edge : graph.nodes.get(node).neighbors)
+            {
+                if (edge.dest < oldNodesCount)
+                {
+                    sumX += positions.x[edge.dest];
+                    sumY += positions.y[edge.dest];
+                    placedNeighbors++;
+                }
+            }
+
+            if (placedNeighbors > 0)
+            {
+                updatedPositions.x[node] = sumX / placedNeighbors;
+                updatedPositions.y[node] = sumY / placedNeighbors;
+            }
+            else
+            {
+                // nothing to attach to, so put it next to the drawing
+                updatedPositions.x[node] = grid.maxX + 1;
+                updatedPositions.y[node] = grid.minY;
+            }
+            if (!grid.isFreePoint(updatedPositions, node))
+            {
+                return null;
+            }
+            grid.add(updatedPositions, node, node);
+        }
+
+        // all edges of new nodes and all new edges between old nodes must be free of crossings. every segment is
+        // added to the grid once it is checked, so the new segments are checked against each other too.
+        for (int node = oldNodesCount; node < nodesCount; node++)
+        {
+            for (Edge edge : graph.nodes.get(node).neighbors)
+            {
+                if (edge.dest < oldNodesCount || node < edge.dest)
+                {
+                    if (!grid.isFreeSegment(updatedPositions, node, edge.dest))
+                    {
+                        return null;
+                    }
+                    grid.add(updatedPositions, node, edge.dest);
+                }
+            }
+        }
+        for (int[] edge : newEdges)
+        {
+            if (edge[0] < oldNodesCount && edge[1] < oldNodesCount)
+            {
+                if (!grid.isFreeSegment(updatedPositions, edge[0], edge[1]))
+                {
+                    return null;
+                }
+                grid.add(updatedPositions, edge[0], edge[1]);
+            }
+        }
+
+        return updatedPositions;
+    }
+
+    private static boolean segmentsIntersect(Coordinates2D positions, int a, int b, int c, int d)
+    {
+        double[] x = positions.x, y = positions.y;
+        double d1 = orientation(x[c], y[c], x[d], y[d], x[a], y[a]);
+        double d2 = orientation(x[c], y[c], x[d], y[d], x[b], y[b]);
+        double d3 = orientation(x[a], y[a], x[b], y[b], x[c], y[c]);
+        double d4 = orientation(x[a], y[a], x[b], y[b], x[d], y[d]);
+
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0)))
+        {
+            return true;
+        }
+
+        // end point of one segment touching the other one
+        return isOnSegment(positions, c, d, x[a], y[a]) || isOnSegment(positions, c, d, x[b], y[b])
+                || isOnSegment(positions, a, b, x[c], y[c]) || isOnSegment(positions, a, b, x[d], y[d]);
+    }
+
+    private static boolean isOnSegment(Coordinates2D positions, int a, int b, double x, double y)
+    {
+        double ax = positions.x[a], ay = positions.y[a];
+        double bx = positions.x[b], by = positions.y[b];
+        return orientation(ax, ay, bx, by, x, y) == 0
+                && Math.min(ax, bx) <= x && x <= Math.max(ax, bx)
+                && Math.min(ay, by) <= y && y <= Math.max(ay, by);
+    }
+
+    // positive if c lies left of the line from a to b, negative if right and 0 if on it
+    private static double orientation(double ax, double ay, double bx, double by, double cx, double cy)
+    {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    // Finds the uniform scaling (possibly mirrored) and translation that moves the new positions of the old nodes
+    // closest to their old positions in least squares sense, and applies it to all the new positions.
+    private void alignWithOldPositions(Coordinates2D newPositions, int oldNodesCount)
+    {
+        if (oldNodesCount == 0)
+        {
+            return;
+        }
+
+        double oldMeanX = 0, oldMeanY = 0, newMeanX = 0, newMeanY = 0;
+        for (int i = 0; i < oldNodesCount; i++)
+        {
+            oldMeanX += positions.x[i];
+            oldMeanY += positions.y[i];
+            newMeanX += newPositions.x[i];
+            newMeanY += newPositions.y[i];
+        }
+        oldMeanX /= oldNodesCount;
+        oldMeanY /= oldNodesCount;
+        newMeanX /= oldNodesCount;
+        newMeanY /= oldNodesCount;
+
+        double productX = 0, productY = 0, newSquares = 0;
+        for (int i = 0; i < oldNodesCount; i++)
+        {
+            double newX = newPositions.x[i] - newMeanX, newY = newPositions.y[i] - newMeanY;
+            productX += newX * (positions.x[i] - oldMeanX);
+            productY += newY * (positions.y[i] - oldMeanY);
+            newSquares += newX * newX + newY * newY;
+        }
+        if (newSquares == 0)
+        {
+            newPositions.transform(1, 1, oldMeanX - newMeanX, oldMeanY - newMeanY);
+            return;
+        }
+
+        // mirroring along the y axis is allowed too, whichever fits better
+        double mirror = Math.abs(productY + productX) >= Math.abs(productY - productX) ? 1 : -1;
+        double scale = (productY + mirror * productX) / newSquares;
+        newPositions.transform(
+                scale * mirror,
+                scale,
+                oldMeanX - scale * mirror * newMeanX,
+                oldMeanY - scale * newMeanY);
+    }
+
+    // Uniform grid over the drawing. Every cell lists the nodes in it and the edges passing through it, both as
+    // pairs of nodes; a node is the pair (node, node). Points outside the grid belong to the nearest cell on its
+    // border, so the grid stays valid when the drawing grows.
+    private static final class DrawingGrid
+    {
+        private static final int ADD = 0;
+
+        private static final int REMOVE = 1;
+
+        private static final int CHECK = 2;
+
+        private final double minX, minY, cellWidth, cellHeight;
+
+        private final int columns, rows;
+
+        private final int[][] cells;
+
+        private final int[] cellSizes;
+
+        // largest x of the drawing, which may grow past the grid
+        private double maxX;
+
+        // number of grid entries isFreePoint and isFreeSegment may still look at
+        private long workLeft;
+
+        DrawingGrid(Graph graph, Coordinates2D positions)
+        {
+            double[] box = positions.getBoundingBox();
+            double width = box[2] - box[0], height = box[3] - box[1];
+            minX = box[0];
+            minY = box[1];
+            maxX = box[2];
+
+            // about one cell for every node and edge, shaped like the drawing
+            int cellsCount = Math.max(1, graph.nodesCount + graph.edgesCount);
+            if (width == 0 || height == 0)
+            {
+                columns = width > 0 ? cellsCount : 1;
+                rows = height > 0 ? cellsCount : 1;
+            }
+            else
+            {
+                double idealColumns = Math.sqrt(cellsCount * width / height);
+                columns = (int) Math.max(1, Math.min(cellsCount, Math.round(idealColumns)));
+                rows = Math.max(1, cellsCount / columns);
+            }
+            cellWidth = width > 0 ? width / columns : 1;
+            cellHeight = height > 0 ? height / rows : 1;
+            cells = new int[columns * rows][];
+            cellSizes = new int[columns * rows];
+
+            for (int node = 0; node < graph.nodesCount; node++)
+            {
+                add(positions, node, node);
+                for (Edge edge : graph.nodes.get(node).neighbors)
+                {
+                    if (node < edge.dest)
+                    {
+                        add(positions, node, edge.dest);
+                    }
+                }
+            }
+        }
+
+        void add(Coordinates2D positions, int a, int b)
+        {
+            if (a == b)
+            {
+                maxX = Math.max(maxX, positions.x[a]);
+            }
+            visit(positions, a, b, ADD);
+        }
+
+        void remove(Coordinates2D positions, int a, int b)
+        {
+            visit(positions, a, b, REMOVE);
+        }
+
+        // checks that a node doesn't coincide with another node and doesn't lie on an edge
+        boolean isFreePoint(Coordinates2D positions, int node)
+        {
+            double x = positions.x[node], y = positions.y[node];
+            int cell = row(y) * columns + column(x);
+            int[] entries = cells[cell];
+            for (int i = 0; i < cellSizes[cell]; i += 2)
+            {
+                int c = entries[i], d = entries[i + 1];
+                workLeft--;
+                if (c == d ? positions.x[c] == x && positions.y[c] == y : isOnSegment(positions, c, d, x, y))
+                {
+                    return false;
+                }
+            }
+            return workLeft >= 0;
+        }
+
+        // checks that the segment between two nodes doesn't cross any edge and doesn't pass through any node
+        boolean isFreeSegment(Coordinates2D positions, int src, int dest)
+        {
+            return visit(positions, src, dest, CHECK) && workLeft >= 0;
+        }
+
+        // applies the operation to every cell the segment between a and b passes through. returns false if a check
+        // failed.
+        private boolean visit(Coordinates2D positions, int a, int b, int operation)
+        {
+            if (a == b)
+            {
+                return applyToCell(positions, row(positions.y[a]) * columns + column(positions.x[a]), a, b, operation);
+            }
+
+            double ax = positions.x[a], ay = positions.y[a], bx = positions.x[b], by = positions.y[b];
+            if (ax > bx)
+            {
+                double swap = ax;
+                ax = bx;
+                bx = swap;
+                swap = ay;
+                ay = by;
+                by = swap;
+            }
+
+            int firstColumn = column(ax), lastColumn = column(bx);
+            for (int column = firstColumn; column <= lastColumn; column++)
+            {
+                // y range of the part of the segment inside the column, widened by a row against rounding
+                double fromY = ay, toY = by;
+                if (ax < bx)
+                {
+                    double fromX = column == firstColumn ? ax : minX + column * cellWidth;
+                    double toX = column == lastColumn ? bx : minX + (column + 1) * cellWidth;
+                    fromY = ay + (by - ay) * (fromX - ax) / (bx - ax);
+                    toY = ay + (by - ay) * (toX - ax) / (bx - ax);
+                }
+                int firstRow = Math.max(0, row(Math.min(fromY, toY)) - 1);
+                int lastRow = Math.min(rows - 1, row(Math.max(fromY, toY)) + 1);
+                for (int row = firstRow; row <= lastRow; row++)
+                {
+                    if (!applyToCell(positions, row * columns + column, a, b, operation))
+                    {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private boolean applyToCell(Coordinates2D positions, int cell, int a, int b, int operation)
+        {
+            int[] entries = cells[cell];
+            int size = cellSizes[cell];
+            if (operation == ADD)
+            {
+                if (entries == null || size == entries.length)
+                {
+                    entries = cells[cell] = Arrays.copyOf(entries == null ? new int[0] : entries, size + 4 + size);
+                }
+                entries[size] = a;
+                entries[size + 1] = b;
+                cellSizes[cell] = size + 2;
+                return true;
+            }
+
+            for (int i = 0; i < size; i += 2)
+            {
+                int c = entries[i], d = entries[i + 1];
+                if (operation == REMOVE)
+                {
+                    if ((c == a && d == b) || (c == b && d == a))
+                    {
+                        entries[i] = entries[size - 2];
+                        entries[i + 1] = entries[size - 1];
+                        cellSizes[cell] = size - 2;
+                        return true;
+                    }
+                    continue;
+                }
+
+                workLeft--;
+                if (c == d)
+                {
+                    if (c != a && c != b && isOnSegment(positions, a, b, positions.x[c], positions.y[c]))
+                    {
+                        return false;
+                    }
+                }
+                else if (c != a && c != b && d != a && d != b && segmentsIntersect(positions, a, b, c, d))
+                {
+                    return false;
+                }
+            }
+            return workLeft >= 0;
+        }
+
+        private int column(double x)
+        {
+            return (int) Math.max(0, Math.min(columns - 1, Math.floor((x - minX) / cellWidth)));
+        }
+
+        private int row(double y)
+        {
+            return (int) Math.max(0, Math.min(rows - 1, Math.floor((y - minY) / cellHeight)));
+        }
+    }
+}
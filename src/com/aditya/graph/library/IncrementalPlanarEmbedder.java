@@ -0,0 +1,189 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Keeps a planar embedded graph, as built by the isPlanar function, up to date while new edges are added to it one
+ * at a time. An edge whose end points lie on a common face is embedded in that face directly: the face is split
+ * into two and the neighbors of both end points are updated in place. Only when the end points don't share a face
+ * the embedding of the whole graph is computed again. No local re-embedding is tried in that case, so such an edge
+ * costs a full isPlanar run on a copy of the graph.
+ */
+public class IncrementalPlanarEmbedder
+{
+    private Graph embeddedGraph;
+
+    private DMPPlanarEmbeddingStrategy embedder;
+
+    // indices of faces (in embeddedGraph.faces) on which each node lies
+    private ArrayList<ArrayList<Integer>> facesOfNode;
+
+    // used to find a common face of two nodes without allocating anything
+    private int[] faceMarks;
+
+    private int curMark;
+
+    /**
+     * Creates an incremental embedder on top of an embedded graph. The graph is updated in place by addEdge.
+     *
+     * @param planarEmbeddedGraph Graph object returned by isPlanar function. It must contain faces.
+     */
+    public IncrementalPlanarEmbedder(Graph planarEmbeddedGraph)
+    {
+        this.embeddedGraph = planarEmbeddedGraph;
+        this.embedder = new DMPPlanarEmbeddingStrategy();
+        buildFaceIndex();
+    }
+
+    /**
+     * @return The embedded graph maintained by this object.
+     */
+    public Graph getEmbeddedGraph()
+    {
+        return embeddedGraph;
+    }
+
+    /**
+     * Adds an edge to the embedded graph if the graph stays planar after the addition. If both end points lie on a
+     * common face, the edge is embedded into that face in time proportional to the size of the face and the number
+     * of faces around both end points. Otherwise the embedding is recomputed for the whole graph, which takes as long
+     * as the isPlanar function.
+     *
+     * @param src  Source vertex of edge
+     * @param dest Destination vertex of edge
+     * @return True if the edge was added. False if the edge already exists or the graph would become non-planar, in
+     * which case the embedding is left untouched.
+     * @throws Exception Throws an exception if indices of the vertices are non-existent in the graph
+     */
+    public boolean addEdge(int src, int dest) throws Exception
+    {
+        if (src < 0 || dest < 0 || src >= embeddedGraph.nodesCount || dest >= embeddedGraph.nodesCount
+                || src == dest)
+        {
+            throw new Exception("Invalid src or dest value. " + "Number of nodes in graph: "
+                    + embeddedGraph.nodesCount + ". " + "Src: " + src + " Dest: " + dest + ".");
+        }
+
+        if (hasEdge(src, dest))
+        {
+            return false;
+        }
+
+        int faceIdx = findCommonFace(src, dest);
+        if (faceIdx == -1)
+        {
+            return reembedWithEdge(src, dest);
+        }
+
+        LinkedList<Integer> path = new LinkedList<>();
+        path.add(src);
+        path.add(dest);
+
+        ArrayList<LinkedList<Integer>> faces = embeddedGraph.faces;
+        embedder.splitFace(faces, path, faceIdx, embeddedGraph);
+        embeddedGraph.edgesCount++;
+
+        // the new face holds src, dest and every node that has moved out of the face that got split
+        int newFaceIdx = faces.size() - 1;
+        for (Integer node : faces.get(newFaceIdx))
+        {
+            if (node != src && node != dest)
+            {
+                facesOfNode.get(node).remove(Integer.valueOf(faceIdx));
+            }
+            facesOfNode.get(node).add(newFaceIdx);
+        }
+
+        return true;
+    }
+
+    // looks through the neighbors of the end point with the smaller degree
+    private boolean hasEdge(int src, int dest)
+    {
+        if (embeddedGraph.nodes.get(src).neighbors.size() > embeddedGraph.nodes.get(dest).neighbors.size())
+        {
+            return hasEdge(dest, src);
+        }
+
+        for (Edge edge : embeddedGraph.nodes.get(src).neighbors)
+        {
+            if (edge.dest == dest)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int findCommonFace(int src, int dest)
+    {
+        if (++curMark == Integer.MAX_VALUE)
+        {
+            curMark = 1;
+            faceMarks = new int[faceMarks.length];
+        }
+        if (faceMarks.length < embeddedGraph.faces.size())
+        {
+            int[] newMarks = new int[embeddedGraph.faces.size() * 2];
+            System.arraycopy(faceMarks, 0, newMarks, 0, faceMarks.length);
+            faceMarks = newMarks;
+        }
+
+        for (Integer face : facesOfNode.get(src))
+        {
+            faceMarks[face] = curMark;
+        }
+        for (Integer face : facesOfNode.get(dest))
+        {
+            if (faceMarks[face] == curMark)
+            {
+                return face;
+            }
+        }
+
+        return -1;
+    }
+
+    // the edge can't be embedded in the current embedding. check planarity from scratch and take over the new
+    // embedding if there is one.
+    private boolean reembedWithEdge(int src, int dest) throws Exception
+    {
+        Graph graphWithEdge = embeddedGraph.cloneGraph();
+        graphWithEdge.addEdge(src, dest);
+
+        Graph newEmbeddedGraph = new Graph(embeddedGraph.isDirected);
+        if (!embedder.isPlanar(graphWithEdge, newEmbeddedGraph))
+        {
+            return false;
+        }
+
+        embeddedGraph.nodes = newEmbeddedGraph.nodes;
+        embeddedGraph.faces = newEmbeddedGraph.faces;
+        embeddedGraph.edgesCount = newEmbeddedGraph.edgesCount;
+        buildFaceIndex();
+
+        return true;
+    }
+
+    private void buildFaceIndex()
+    {
+        facesOfNode = new ArrayList<>();
+        for (int i = 0; i < embeddedGraph.nodesCount; i++)
+        {
+            facesOfNode.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < embeddedGraph.faces.size(); i++)
+        {
+            for (Integer node : embeddedGraph.faces.get(i))
+            {
+                facesOfNode.get(node).add(i);
+            }
+        }
+
+        faceMarks = new int[Math.max(16, embeddedGraph.faces.size() * 2)];
+        curMark = 0;
+    }
+}
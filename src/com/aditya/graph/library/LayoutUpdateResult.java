@@ -0,0 +1,10 @@
+package com.aditya.graph.library;
+
+public enum LayoutUpdateResult
+{
+    POSITIONS_REUSED,
+
+    RECOMPUTED,
+
+    NOT_PLANAR
+}
@@ -0,0 +1,114 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads adjacency matrices in Matrix Market coordinate format. The banner
+ * "%%MatrixMarket matrix coordinate field symmetry" is followed by comment lines starting with '%', the size line
+ * "rows columns entries" and one line per entry, "row column [value]" with rows and columns numbered from 1.
+ * <p>
+ * The matrix has to be square. General matrices give directed graphs and symmetric ones give undirected graphs,
+ * with one edge per stored entry. Values of integer matrices become weights of the edges; values of real and
+ * complex matrices are skipped. Entries on the diagonal are skipped as well.
+ */
+public class MatrixMarketGraphReader implements IGraphReader
+{
+    @Override
+    public Graph read(ReadableByteChannel input) throws IOException, GraphFormatException
+    {
+        ByteTokenizer tokenizer = new ByteTokenizer(input);
+
+        if (!tokenizer.readWord().equals("%%MatrixMarket") || !tokenizer.readWord().equalsIgnoreCase("matrix"))
+        {
+            throw tokenizer.error("Expected the %%MatrixMarket matrix banner.");
+        }
+        if (!tokenizer.readWord().equalsIgnoreCase("coordinate"))
+        {
+            throw tokenizer.error("Only matrices in coordinate format can be read as graphs.");
+        }
+        String field = tokenizer.readWord().toLowerCase();
+        String symmetry = tokenizer.readWord().toLowerCase();
+        int valuesCount;
+        switch (field)
+        {
+            case "pattern":
+                valuesCount = 0;
+                break;
+            case "integer":
+            case "real":
+                valuesCount = 1;
+                break;
+            case "complex":
+                valuesCount = 2;
+                break;
+            default:
+                throw tokenizer.error("Unknown field " + field + ".");
+        }
+        if (!symmetry.equals("general") && !symmetry.equals("symmetric") && !symmetry.equals("skew-symmetric")
+                && !symmetry.equals("hermitian"))
+        {
+            throw tokenizer.error("Unknown symmetry " + symmetry + ".");
+        }
+        tokenizer.finishLine();
+
+        while (tokenizer.hasMore() && (tokenizer.isLineEnd() || tokenizer.startsWith('%')))
+        {
+            tokenizer.skipLine();
+        }
+        if (!tokenizer.hasMore())
+        {
+            throw new GraphFormatException("Size line is missing.");
+        }
+        int rowsCount = tokenizer.readInt(0, Integer.MAX_VALUE - 1);
+        int columnsCount = tokenizer.readInt(0, Integer.MAX_VALUE - 1);
+        long entriesCount = tokenizer.readLong(0, Long.MAX_VALUE);
+        tokenizer.finishLine();
+        if (rowsCount != columnsCount)
+        {
+            throw new GraphFormatException("Matrix of size " + rowsCount + " x " + columnsCount + " isn't square.");
+        }
+
+        GraphBuilder builder = new GraphBuilder(rowsCount, symmetry.equals("general"));
+        builder.ensureCapacity((int) Math.min(entriesCount, Integer.MAX_VALUE - 8));
+        long entriesRead = 0;
+
+        while (tokenizer.hasMore())
+        {
+            if (tokenizer.isLineEnd() || tokenizer.startsWith('%'))
+            {
+                tokenizer.skipLine();
+                continue;
+            }
+
+            int row = tokenizer.readInt(1, rowsCount) - 1;
+            int column = tokenizer.readInt(1, columnsCount) - 1;
+            int weight = 1;
+            if (field.equals("integer"))
+            {
+                weight = tokenizer.readInt(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            }
+            else
+            {
+                for (int i = 0; i < valuesCount; i++)
+                {
+                    tokenizer.skipWord();
+                }
+            }
+            if (row != column)
+            {
+                tokenizer.addEdgeOfLine(builder, row, column, weight);
+            }
+            tokenizer.finishLine();
+            entriesRead++;
+        }
+
+        if (entriesRead != entriesCount)
+        {
+            throw new GraphFormatException("File has " + entriesRead + " entries but the size line gives "
+                    + entriesCount + ".");
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads undirected graphs in METIS format. The header "nodes edges [fmt [ncon]]" is followed by one line per node
+ * with its neighbors, numbered from 1. The digits of fmt tell if each line starts with the size and the ncon
+ * weights of its node, which are skipped, and if each neighbor is followed by the weight of the edge. Every edge is
+ * listed on the lines of both its nodes and is added when the line of its smaller node is read. Lines starting with
+ * '%' are comments.
+ */
+public class MetisGraphReader implements IGraphReader
+{
+    @Override
+    public Graph read(ReadableByteChannel input) throws IOException, GraphFormatException
+    {
+        ByteTokenizer tokenizer = new ByteTokenizer(input);
+
+        skipComments(tokenizer);
+        if (!tokenizer.hasMore())
+        {
+            throw new GraphFormatException("Header is missing.");
+        }
+        int nodesCount = tokenizer.readInt(0, Integer.MAX_VALUE - 1);
+        int edgesCount = tokenizer.readInt(0, Integer.MAX_VALUE);
+        int format = tokenizer.isLineEnd() ? 0 : tokenizer.readInt(0, 111);
+        boolean hasNodeSizes = format / 100 == 1;
+        boolean hasNodeWeights = format / 10 % 10 == 1;
+        boolean hasEdgeWeights = format % 10 == 1;
+        if (format % 10 > 1 || format / 10 % 10 > 1)
+        {
+            throw tokenizer.error("Unknown format " + format + ".");
+        }
+        int nodeWeightsCount = tokenizer.isLineEnd() ? (hasNodeWeights ? 1 : 0) : tokenizer.readInt(0, 1 << 16);
+        tokenizer.finishLine();
+
+        GraphBuilder builder = new GraphBuilder(nodesCount, false);
+        builder.ensureCapacity(edgesCount);
+        long neighborsCount = 0;
+
+        for (int node = 0; node < nodesCount; node++)
+        {
+            skipComments(tokenizer);
+            if (!tokenizer.hasMore())
+            {
+                throw new GraphFormatException("File has " + node + " nodes but the header gives " + nodesCount + ".");
+            }
+
+            if (hasNodeSizes)
+            {
+                tokenizer.skipWord();
+            }
+            for (int i = 0; i < (hasNodeWeights ? nodeWeightsCount : 0); i++)
+            {
+                tokenizer.skipWord();
+            }
+
+            while (!tokenizer.isLineEnd())
+            {
+                int neighbor = tokenizer.readInt(1, nodesCount) - 1;
+                int weight = hasEdgeWeights ? tokenizer.readInt(Integer.MIN_VALUE, Integer.MAX_VALUE) : 1;
+                if (neighbor == node)
+                {
+                    throw tokenizer.error("Node " + (node + 1) + " is its own neighbor.");
+                }
+                if (node < neighbor)
+                {
+                    tokenizer.addEdgeOfLine(builder, node, neighbor, weight);
+                }
+                neighborsCount++;
+            }
+            tokenizer.skipLine();
+        }
+
+        skipComments(tokenizer);
+        while (tokenizer.hasMore())
+        {
+            tokenizer.finishLine();
+        }
+        if (neighborsCount != 2L * edgesCount || builder.getEdgesCount() != edgesCount)
+        {
+            throw new GraphFormatException("Neighbor lists have " + neighborsCount + " entries but the header gives "
+                    + edgesCount + " edges, i.e. " + 2L * edgesCount + " entries.");
+        }
+
+        return builder.build();
+    }
+
+    // comment lines don't count as node lines, even though empty lines do
+    private static void skipComments(ByteTokenizer tokenizer) throws IOException
+    {
+        while (tokenizer.hasMore() && tokenizer.startsWith('%'))
+        {
+            tokenizer.skipLine();
+        }
+    }
+}
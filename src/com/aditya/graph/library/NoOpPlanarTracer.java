@@ -0,0 +1,57 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/**
+ * Tracer that ignores everything. This is the default tracer of all strategies. Calls to it are inlined and removed
+ * by the JIT as long as it is the only tracer in use.
+ */
+public final class NoOpPlanarTracer implements IPlanarTracer
+{
+    public static final NoOpPlanarTracer INSTANCE = new NoOpPlanarTracer();
+
+    private NoOpPlanarTracer()
+    {
+    }
+
+    @Override
+    public void pathEmbedded(LinkedList<Integer> path)
+    {
+    }
+
+    @Override
+    public void componentRejected(ArrayList<Integer> component)
+    {
+    }
+
+    @Override
+    public void embeddingFinished(ArrayList<LinkedList<Integer>> faces)
+    {
+    }
+
+    @Override
+    public void neighborsOrdered(int node, int firstNode, int nextNode)
+    {
+    }
+
+    @Override
+    public void canonicalOrderComputed(int[] canonicalOrder)
+    {
+    }
+
+    @Override
+    public void phaseStarted(PlanarPhases phase)
+    {
+    }
+
+    @Override
+    public void phaseFinished(PlanarPhases phase)
+    {
+    }
+
+    @Override
+    public void counterIncremented(PlanarCounters counter, long amount)
+    {
+    }
+}
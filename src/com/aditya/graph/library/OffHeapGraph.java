@@ -0,0 +1,500 @@
+package com.aditya.graph.library;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only graph in compressed sparse row form whose arrays live outside of the Java heap, either in direct
+ * buffers or in a memory mapped file. The garbage collector never scans or moves them, so graphs with hundreds of
+ * millions of edges don't slow down collections, and mapped graphs can be bigger than the memory of the machine.
+ * Direct buffers are limited by -XX:MaxDirectMemorySize, which defaults to the maximum heap size, so only mapped
+ * graphs can be bigger than the heap could be.
+ * Offsets are longs, so the number of targets isn't limited to an int. Each array is split in pages of 2^26
+ * elements, since a single buffer can't be bigger than 2GB. Weights aren't stored.
+ * <p>
+ * A graph file is a 32 byte header followed by the offsets as little endian longs and the targets as little endian
+ * ints. The header holds the magic number, the format version, the flags, the number of nodes, the number of edges,
+ * the greatest degree and the number of targets. Buffers are released when the graph is garbage collected.
+ */
+public class OffHeapGraph implements IAdjacencyView
+{
+    // "OFHG" in little endian
+    private static final int FORMAT_MAGIC = 0x4748464F;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+
+    private static final int FLAG_DIRECTED = 1;
+
+    private static final int PAGE_SHIFT = 26;
+
+    public final int nodesCount;
+
+    public final int edgesCount;
+
+    public final boolean isDirected;
+
+    /**
+     * Length of all neighbor lists together. Both directions of an undirected edge are stored.
+     */
+    public final long targetsCount;
+
+    private final int maxDegree;
+
+    private final int pageShift;
+
+    private final LongBuffer[] offsetPages;
+
+    private final IntBuffer[] targetPages;
+
+    private OffHeapGraph(
+            int nodesCount,
+            int edgesCount,
+            boolean isDirected,
+            long targetsCount,
+            int maxDegree,
+            int pageShift,
+            LongBuffer[] offsetPages,
+            IntBuffer[] targetPages)
+    {
+        this.nodesCount = nodesCount;
+        this.edgesCount = edgesCount;
+        this.isDirected = isDirected;
+        this.targetsCount = targetsCount;
+        this.maxDegree = maxDegree;
+        this.pageShift = pageShift;
+        this.offsetPages = offsetPages;
+        this.targetPages = targetPages;
+    }
+
+    /**
+     * Copies a graph into direct buffers. The neighbors of each node keep their order. Direct buffers count
+     * against -XX:MaxDirectMemorySize, which is as big as the maximum heap unless it is set; use the overload with a
+     * file for graphs bigger than that.
+     *
+     * @param adjacency Graph to copy, e.g. a Graph through GraphAdjacencyView or a mapped CsrGraph
+     * @return Graph stored outside of the heap
+     */
+    public static OffHeapGraph fromAdjacency(IAdjacencyView adjacency)
+    {
+        try
+        {
+            return fromAdjacency(adjacency, null, PAGE_SHIFT);
+        }
+        catch (IOException ex)
+        {
+            // there is no file, so nothing can fail to be written
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Copies a graph into a graph file and maps it. The file can be opened again with the open function.
+     *
+     * @param adjacency Graph to copy
+     * @param file      Path of the file. It is overwritten if it exists.
+     * @return Graph whose arrays are views of the file
+     * @throws IOException Throws an exception if the file couldn't be written
+     */
+    public static OffHeapGraph fromAdjacency(IAdjacencyView adjacency, Path file) throws IOException
+    {
+        return fromAdjacency(adjacency, file, PAGE_SHIFT);
+    }
+
+    static OffHeapGraph fromAdjacency(IAdjacencyView adjacency, Path file, int pageShift) throws IOException
+    {
+        int nodesCount = adjacency.getNodesCount();
+        long targetsCount = 0;
+        for (int node = 0; node < nodesCount; node++)
+        {
+            targetsCount += adjacency.getDegree(node);
+        }
+
+        try (FileChannel channel = openForWriting(file))
+        {
+            LongBuffer[] offsetPages = allocateLongs(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE,
+                    nodesCount + 1L, pageShift);
+            IntBuffer[] targetPages = allocateInts(channel, FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + 8L * (nodesCount + 1L), targetsCount, pageShift);
+            OffHeapGraph graph = new OffHeapGraph(nodesCount, adjacency.getEdgesCount(), adjacency.isDirected(),
+                    targetsCount, adjacency.getMaxDegree(), pageShift, offsetPages, targetPages);
+
+            int[] neighbors = new int[adjacency.getMaxDegree()];
+            long position = 0;
+            for (int node = 0; node < nodesCount; node++)
+            {
+                graph.setOffset(node, position);
+                int degree = adjacency.getNeighbors(node, neighbors);
+                for (int i = 0; i < degree; i++)
+                {
+                    graph.setTarget(position++, neighbors[i]);
+                }
+            }
+            graph.setOffset(nodesCount, position);
+
+            graph.writeHeader(channel);
+            return graph;
+        }
+    }
+
+    /**
+     * Reads an edge list, in the format of EdgeListGraphReader, straight into buffers outside of the heap. The
+     * file is read three times: for the number of nodes, for the degrees and for the neighbors. Only the offsets
+     * and targets are held in memory, so graphs too big for the heap can be loaded into a mapped file. Without a
+     * file they go to direct buffers, which are limited by -XX:MaxDirectMemorySize, by default the maximum heap size.
+     * Weights are skipped and the neighbors of each node are in the reverse order of their lines.
+     *
+     * @param edgeListFile Path of the edge list. Files whose name ends with ".gz" are decompressed on the fly.
+     * @param isDirected   Parameter that indicates if the graph is directed
+     * @param file         Path of the graph file to write, or null to keep the graph in direct buffers
+     * @return Graph stored outside of the heap
+     * @throws IOException          Throws an exception if a file couldn't be read or written
+     * @throws GraphFormatException Throws an exception if the edge list isn't valid
+     */
+    public static OffHeapGraph fromEdgeList(Path edgeListFile, boolean isDirected, Path file) throws IOException,
+            GraphFormatException
+    {
+        return fromEdgeList(edgeListFile, isDirected, file, PAGE_SHIFT);
+    }
+
+    static OffHeapGraph fromEdgeList(Path edgeListFile, boolean isDirected, Path file, int pageShift)
+            throws IOException, GraphFormatException
+    {
+        final long[] counts = new long[2];
+        readEdgeList(edgeListFile, new IEdgeVisitor()
+        {
+            @Override
+            public void visit(int src, int dest)
+            {
+                counts[0] = Math.max(counts[0], Math.max(src, dest) + 1L);
+                counts[1]++;
+            }
+        });
+        if (counts[0] > Integer.MAX_VALUE - 1 || counts[1] > Integer.MAX_VALUE)
+        {
+            throw new GraphFormatException("Edge list has too many nodes or edges.");
+        }
+
+        final int nodesCount = (int) counts[0];
+        int edgesCount = (int) counts[1];
+        long targetsCount = isDirected ? edgesCount : 2L * edgesCount;
+        try (FileChannel channel = openForWriting(file))
+        {
+            LongBuffer[] offsetPages = allocateLongs(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE,
+                    nodesCount + 1L, pageShift);
+            IntBuffer[] targetPages = allocateInts(channel, FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + 8L * (nodesCount + 1L), targetsCount, pageShift);
+            final OffHeapGraph counter = new OffHeapGraph(nodesCount, edgesCount, isDirected, targetsCount, 0,
+                    pageShift, offsetPages, targetPages);
+
+            // count the degrees, then turn them into the end of each list
+            final boolean isUndirected = !isDirected;
+            readEdgeList(edgeListFile, new IEdgeVisitor()
+            {
+                @Override
+                public void visit(int src, int dest)
+                {
+                    counter.setOffset(src, counter.getOffset(src) + 1);
+                    if (isUndirected)
+                    {
+                        counter.setOffset(dest, counter.getOffset(dest) + 1);
+                    }
+                }
+            });
+            long end = 0;
+            int maxDegree = 0;
+            for (int node = 0; node < nodesCount; node++)
+            {
+                long degree = counter.getOffset(node);
+                maxDegree = (int) Math.max(maxDegree, degree);
+                end += degree;
+                counter.setOffset(node, end);
+            }
+            counter.setOffset(nodesCount, end);
+
+            // fill each list from its end. afterwards each offset points at the start of its list.
+            readEdgeList(edgeListFile, new IEdgeVisitor()
+            {
+                @Override
+                public void visit(int src, int dest)
+                {
+                    long position = counter.getOffset(src) - 1;
+                    counter.setOffset(src, position);
+                    counter.setTarget(position, dest);
+                    if (isUndirected)
+                    {
+                        position = counter.getOffset(dest) - 1;
+                        counter.setOffset(dest, position);
+                        counter.setTarget(position, src);
+                    }
+                }
+            });
+
+            OffHeapGraph graph = new OffHeapGraph(nodesCount, edgesCount, isDirected, targetsCount, maxDegree,
+                    pageShift, offsetPages, targetPages);
+            graph.writeHeader(channel);
+            return graph;
+        }
+    }
+
+    /**
+     * Maps a graph file written by fromAdjacency or fromEdgeList.
+     *
+     * @param file Path of the file
+     * @return Graph whose arrays are views of the file
+     * @throws IOException          Throws an exception if the file couldn't be read
+     * @throws GraphFormatException Throws an exception if the file isn't a graph file of this version
+     */
+    public static OffHeapGraph open(Path file) throws IOException, GraphFormatException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE)
+            {
+                throw new GraphFormatException("File is too short for a graph file.");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0)
+            {
+                // keep reading until the header is complete
+            }
+            if (header.getInt(0) != FORMAT_MAGIC)
+            {
+                throw new GraphFormatException("File isn't an off-heap graph file.");
+            }
+            if (header.getInt(4) != FORMAT_VERSION)
+            {
+                throw new GraphFormatException("Unknown version of graph file: " + header.getInt(4) + ".");
+            }
+
+            int flags = header.getInt(8);
+            int nodesCount = header.getInt(12);
+            int edgesCount = header.getInt(16);
+            int maxDegree = header.getInt(20);
+            long targetsCount = header.getLong(24);
+            if (nodesCount < 0 || edgesCount < 0 || maxDegree < 0 || targetsCount < 0)
+            {
+                throw new GraphFormatException("Header of graph file has negative sizes.");
+            }
+
+            long targetsStart = HEADER_SIZE + 8L * (nodesCount + 1L);
+            long expectedSize = targetsStart + 4L * targetsCount;
+            if (fileSize != expectedSize)
+            {
+                throw new GraphFormatException("Graph file has " + fileSize + " bytes but its header needs "
+                        + expectedSize + ".");
+            }
+
+            return new OffHeapGraph(nodesCount, edgesCount, (flags & FLAG_DIRECTED) != 0, targetsCount, maxDegree,
+                    PAGE_SHIFT,
+                    allocateLongs(channel, FileChannel.MapMode.READ_ONLY, HEADER_SIZE, nodesCount + 1L, PAGE_SHIFT),
+                    allocateInts(channel, FileChannel.MapMode.READ_ONLY, targetsStart, targetsCount, PAGE_SHIFT));
+        }
+    }
+
+    @Override
+    public int getNodesCount()
+    {
+        return nodesCount;
+    }
+
+    @Override
+    public int getEdgesCount()
+    {
+        return edgesCount;
+    }
+
+    @Override
+    public boolean isDirected()
+    {
+        return isDirected;
+    }
+
+    @Override
+    public int getMaxDegree()
+    {
+        return maxDegree;
+    }
+
+    @Override
+    public int getDegree(int node)
+    {
+        return (int) (getOffset(node + 1) - getOffset(node));
+    }
+
+    @Override
+    public int getNeighbors(int node, int[] neighbors)
+    {
+        long start = getOffset(node);
+        int degree = (int) (getOffset(node + 1) - start);
+        int mask = (1 << pageShift) - 1;
+
+        // copy page by page, since a list can cross the border of two pages
+        int copied = 0;
+        while (copied < degree)
+        {
+            long position = start + copied;
+            IntBuffer page = targetPages[(int) (position >>> pageShift)];
+            int index = (int) (position & mask);
+            int length = Math.min(degree - copied, page.limit() - index);
+            for (int i = 0; i < length; i++)
+            {
+                neighbors[copied + i] = page.get(index + i);
+            }
+            copied += length;
+        }
+
+        return degree;
+    }
+
+    /**
+     * @param node  Node of the graph
+     * @param index Position in the list of neighbors of the node
+     * @return Neighbor at that position
+     */
+    public int getNeighbor(int node, int index)
+    {
+        long position = getOffset(node) + index;
+        return targetPages[(int) (position >>> pageShift)].get((int) (position & ((1 << pageShift) - 1)));
+    }
+
+    private long getOffset(int node)
+    {
+        return offsetPages[node >>> pageShift].get(node & ((1 << pageShift) - 1));
+    }
+
+    private void setOffset(int node, long offset)
+    {
+        offsetPages[node >>> pageShift].put(node & ((1 << pageShift) - 1), offset);
+    }
+
+    private void setTarget(long position, int target)
+    {
+        targetPages[(int) (position >>> pageShift)].put((int) (position & ((1 << pageShift) - 1)), target);
+    }
+
+    private void writeHeader(FileChannel channel) throws IOException
+    {
+        if (channel == null)
+        {
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(FORMAT_MAGIC).putInt(FORMAT_VERSION).putInt(isDirected ? FLAG_DIRECTED : 0).putInt(nodesCount)
+                .putInt(edgesCount).putInt(maxDegree).putLong(targetsCount);
+        header.flip();
+        while (header.hasRemaining())
+        {
+            channel.write(header, header.position());
+        }
+    }
+
+    private static FileChannel openForWriting(Path file) throws IOException
+    {
+        if (file == null)
+        {
+            return null;
+        }
+        // mapped buffers need the channel to be readable as well
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void readEdgeList(Path edgeListFile, IEdgeVisitor visitor) throws IOException,
+            GraphFormatException
+    {
+        try (ReadableByteChannel input = GraphReaderFactory.openChannel(edgeListFile))
+        {
+            ByteTokenizer tokenizer = new ByteTokenizer(input);
+            while (tokenizer.hasMore())
+            {
+                if (tokenizer.isLineEnd() || tokenizer.startsWith('#') || tokenizer.startsWith('%'))
+                {
+                    tokenizer.skipLine();
+                    continue;
+                }
+
+                int src = tokenizer.readInt(0, Integer.MAX_VALUE - 1);
+                int dest = tokenizer.readInt(0, Integer.MAX_VALUE - 1);
+                if (!tokenizer.isLineEnd())
+                {
+                    tokenizer.skipWord();
+                }
+                visitor.visit(src, dest);
+                tokenizer.finishLine();
+            }
+        }
+    }
+
+    // buffers of all pages but the last one hold 2^pageShift elements. without a channel they are direct buffers.
+    private static ByteBuffer[] allocatePages(
+            FileChannel channel,
+            FileChannel.MapMode mode,
+            long start,
+            long count,
+            int elementSize,
+            int pageShift) throws IOException
+    {
+        long pageSize = 1L << pageShift;
+        ByteBuffer[] pages = new ByteBuffer[(int) Math.max(1, (count + pageSize - 1) >>> pageShift)];
+        for (int i = 0; i < pages.length; i++)
+        {
+            long pageStart = i * pageSize;
+            int bytes = (int) (elementSize * Math.min(pageSize, count - pageStart));
+            pages[i] = channel == null
+                    ? ByteBuffer.allocateDirect(bytes)
+                    : channel.map(mode, start + elementSize * pageStart, bytes);
+            pages[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return pages;
+    }
+
+    private static LongBuffer[] allocateLongs(
+            FileChannel channel,
+            FileChannel.MapMode mode,
+            long start,
+            long count,
+            int pageShift) throws IOException
+    {
+        ByteBuffer[] pages = allocatePages(channel, mode, start, count, 8, pageShift);
+        LongBuffer[] longPages = new LongBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++)
+        {
+            longPages[i] = pages[i].asLongBuffer();
+        }
+        return longPages;
+    }
+
+    private static IntBuffer[] allocateInts(
+            FileChannel channel,
+            FileChannel.MapMode mode,
+            long start,
+            long count,
+            int pageShift) throws IOException
+    {
+        ByteBuffer[] pages = allocatePages(channel, mode, start, count, 4, pageShift);
+        IntBuffer[] intPages = new IntBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++)
+        {
+            intPages[i] = pages[i].asIntBuffer();
+        }
+        return intPages;
+    }
+
+    // receives the edges of an edge list one at a time
+    private interface IEdgeVisitor
+    {
+        void visit(int src, int dest);
+    }
+}
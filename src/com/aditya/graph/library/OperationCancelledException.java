@@ -0,0 +1,16 @@
+package com.aditya.graph.library;
+
+/**
+ * Thrown from deep inside the strategies when their CancellationToken is cancelled. It never leaves the library:
+ * the public functions catch it and return their "timed out" result instead.
+ */
+class OperationCancelledException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    OperationCancelledException()
+    {
+        // stack trace is of no use here and filling it costs time
+        super("Operation cancelled.", null, false, false);
+    }
+}
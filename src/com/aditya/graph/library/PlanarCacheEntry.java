@@ -0,0 +1,447 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+import com.aditya.general.utilities.Point2D;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Result of one stage of the planar drawing pipeline stored in a PlanarResultCache. Everything is kept in the
+ * canonical ids of the fingerprint of the input graph so that the result can be handed to any caller whose graph has
+ * the same canonical form.
+ */
+class PlanarCacheEntry
+{
+    private static final int FORMAT_MAGIC = 0x50524345;
+
+    private static final int FORMAT_VERSION = 2;
+
+    // magic, version, stage and length of the payload
+    private static final int HEADER_SIZE = 20;
+
+    private static final int FLAG_DIRECTED = 1;
+
+    private static final int FLAG_INCLUDES_EMBEDDING = 1 << 1;
+
+    private static final int FLAG_PLANAR = 1 << 2;
+
+    private static final int FLAG_HAS_GRAPH = 1 << 3;
+
+    private static final int FLAG_HAS_POSITIONS = 1 << 4;
+
+    GraphFingerprint fingerprint;
+
+    boolean isPlanar;
+
+    // output graph of embedding and triangulation stages
+    int[][] neighbors;
+
+    boolean[][] isTemporary;
+
+    int[][] weights;
+
+    int[][] faces;
+
+    int edgesCount;
+
+    // output of drawing stage
+    double[] xCoordinates;
+
+    double[] yCoordinates;
+
+    static PlanarCacheEntry fromGraph(GraphFingerprint fingerprint, boolean isPlanar, Graph graph)
+    {
+        PlanarCacheEntry entry = new PlanarCacheEntry();
+        entry.fingerprint = fingerprint;
+        entry.isPlanar = isPlanar;
+        entry.edgesCount = graph.edgesCount;
+
+        int nodesCount = fingerprint.graphIds.length;
+        entry.neighbors = new int[nodesCount][];
+        entry.isTemporary = new boolean[nodesCount][];
+        entry.weights = new int[nodesCount][];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            ArrayList<Edge> edges = graph.nodes.get(fingerprint.graphIds[i]).neighbors;
+            entry.neighbors[i] = new int[edges.size()];
+            entry.isTemporary[i] = new boolean[edges.size()];
+            entry.weights[i] = new int[edges.size()];
+            for (int j = 0; j < edges.size(); j++)
+            {
+                entry.neighbors[i][j] = fingerprint.canonicalIds[edges.get(j).dest];
+                entry.isTemporary[i][j] = edges.get(j).isTemporary;
+                entry.weights[i][j] = edges.get(j).weight;
+            }
+        }
+
+        entry.faces = new int[graph.faces.size()][];
+        for (int i = 0; i < graph.faces.size(); i++)
+        {
+            entry.faces[i] = new int[graph.faces.get(i).size()];
+            int j = 0;
+            for (Integer node : graph.faces.get(i))
+            {
+                entry.faces[i][j++] = fingerprint.canonicalIds[node];
+            }
+        }
+
+        return entry;
+    }
+
+    static PlanarCacheEntry fromPositions(GraphFingerprint fingerprint, List<Point2D> positions)
+    {
+        PlanarCacheEntry entry = new PlanarCacheEntry();
+        entry.fingerprint = fingerprint;
+        entry.isPlanar = true;
+
+        int nodesCount = fingerprint.graphIds.length;
+        entry.xCoordinates = new double[nodesCount];
+        entry.yCoordinates = new double[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            entry.xCoordinates[i] = positions.get(fingerprint.graphIds[i]).x;
+            entry.yCoordinates[i] = positions.get(fingerprint.graphIds[i]).y;
+        }
+
+        return entry;
+    }
+
+    static PlanarCacheEntry fromCoordinates(GraphFingerprint fingerprint, Coordinates2D positions)
+    {
+        PlanarCacheEntry entry = new PlanarCacheEntry();
+        entry.fingerprint = fingerprint;
+        entry.isPlanar = true;
+
+        int nodesCount = fingerprint.graphIds.length;
+        entry.xCoordinates = new double[nodesCount];
+        entry.yCoordinates = new double[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            entry.xCoordinates[i] = positions.x[fingerprint.graphIds[i]];
+            entry.yCoordinates[i] = positions.y[fingerprint.graphIds[i]];
+        }
+
+        return entry;
+    }
+
+    /**
+     * Fills an empty graph with the stored graph. Nodes get the ids of the caller described by the fingerprint.
+     */
+    void copyTo(GraphFingerprint callerFingerprint, Graph outputGraph)
+    {
+        int nodesCount = callerFingerprint.graphIds.length;
+        for (int i = 0; i < nodesCount; i++)
+        {
+            outputGraph.addNode();
+        }
+        if (neighbors == null)
+        {
+            return;
+        }
+
+        int[] graphIds = callerFingerprint.graphIds;
+        for (int i = 0; i < nodesCount; i++)
+        {
+            int src = graphIds[i];
+            ArrayList<Edge> edges = outputGraph.nodes.get(src).neighbors;
+            edges.ensureCapacity(neighbors[i].length);
+            for (int j = 0; j < neighbors[i].length; j++)
+            {
+                edges.add(new Edge(src, graphIds[neighbors[i][j]], isTemporary[i][j], weights[i][j]));
+            }
+        }
+
+        outputGraph.faces = new ArrayList<>();
+        for (int[] face : faces)
+        {
+            LinkedList<Integer> newFace = new LinkedList<>();
+            for (int node : face)
+            {
+                newFace.add(graphIds[node]);
+            }
+            outputGraph.faces.add(newFace);
+        }
+        outputGraph.edgesCount = edgesCount;
+        outputGraph.assignEdgeIds();
+    }
+
+    Coordinates2D getCoordinates(GraphFingerprint callerFingerprint)
+    {
+        int nodesCount = callerFingerprint.graphIds.length;
+        Coordinates2D positions = new Coordinates2D(nodesCount);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            positions.x[callerFingerprint.graphIds[i]] = xCoordinates[i];
+            positions.y[callerFingerprint.graphIds[i]] = yCoordinates[i];
+        }
+        return positions;
+    }
+
+    ArrayList<Point2D> getPositions(GraphFingerprint callerFingerprint)
+    {
+        int nodesCount = callerFingerprint.graphIds.length;
+        ArrayList<Point2D> positions = new ArrayList<>(nodesCount);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            positions.add(new Point2D());
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            Point2D point = positions.get(callerFingerprint.graphIds[i]);
+            point.x = xCoordinates[i];
+            point.y = yCoordinates[i];
+        }
+        return positions;
+    }
+
+    /**
+     * Writes the entry in the on-disk format: magic, version, stage, length of the payload, the payload and a
+     * CRC32 checksum of the payload, all little endian. Arrays of arrays are stored as a count, count + 1 offsets and
+     * the concatenated values, so that reading them back is a few bulk copies.
+     */
+    void write(FileChannel channel, PlanarCacheStages stage) throws IOException
+    {
+        int nodesCount = fingerprint.canonicalAdjacency.length;
+        long payloadSize = 8 + 4 + getArraysSize(fingerprint.canonicalAdjacency)
+                + (fingerprint.includesEmbedding ? getArraysSize(fingerprint.canonicalFaces) : 0);
+        if (neighbors != null)
+        {
+            int targetsCount = getValuesCount(neighbors);
+            payloadSize += 4 + getArraysSize(neighbors) + 4L * targetsCount + (targetsCount + 7) / 8
+                    + getArraysSize(faces);
+        }
+        if (xCoordinates != null)
+        {
+            payloadSize += 16L * nodesCount;
+        }
+        if (HEADER_SIZE + payloadSize + 8 > Integer.MAX_VALUE)
+        {
+            throw new IOException("Cache entry is too large to store.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_SIZE + payloadSize + 8)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(FORMAT_MAGIC).putInt(FORMAT_VERSION).putInt(stage.ordinal()).putLong(payloadSize);
+
+        // fingerprint first. it is needed to detect collisions when the entry is read back.
+        int flags = (fingerprint.isDirected ? FLAG_DIRECTED : 0)
+                | (fingerprint.includesEmbedding ? FLAG_INCLUDES_EMBEDDING : 0)
+                | (isPlanar ? FLAG_PLANAR : 0)
+                | (neighbors != null ? FLAG_HAS_GRAPH : 0)
+                | (xCoordinates != null ? FLAG_HAS_POSITIONS : 0);
+        buffer.putLong(fingerprint.hash).putInt(flags);
+        putArrays(buffer, fingerprint.canonicalAdjacency);
+        if (fingerprint.includesEmbedding)
+        {
+            putArrays(buffer, fingerprint.canonicalFaces);
+        }
+
+        if (neighbors != null)
+        {
+            buffer.putInt(edgesCount);
+            putArrays(buffer, neighbors);
+            for (int[] array : weights)
+            {
+                buffer.asIntBuffer().put(array);
+                buffer.position(buffer.position() + 4 * array.length);
+            }
+            int bits = 0, bitsCount = 0;
+            for (boolean[] flagsOfNode : isTemporary)
+            {
+                for (boolean flag : flagsOfNode)
+                {
+                    bits |= (flag ? 1 : 0) << bitsCount++;
+                    if (bitsCount == 8)
+                    {
+                        buffer.put((byte) bits);
+                        bits = bitsCount = 0;
+                    }
+                }
+            }
+            if (bitsCount > 0)
+            {
+                buffer.put((byte) bits);
+            }
+            putArrays(buffer, faces);
+        }
+
+        if (xCoordinates != null)
+        {
+            buffer.asDoubleBuffer().put(xCoordinates);
+            buffer.position(buffer.position() + 8 * nodesCount);
+            buffer.asDoubleBuffer().put(yCoordinates);
+            buffer.position(buffer.position() + 8 * nodesCount);
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.array(), HEADER_SIZE, (int) payloadSize);
+        buffer.putLong(checksum.getValue());
+
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads an entry written by the write function, e.g. from a memory mapped file. The checksum is verified before
+     * anything else is read.
+     *
+     * @throws IOException Throws an exception if the data isn't an intact entry of the given stage
+     */
+    static PlanarCacheEntry read(ByteBuffer data, PlanarCacheStages stage) throws IOException
+    {
+        ByteBuffer buffer = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE + 8 || buffer.getInt() != FORMAT_MAGIC
+                || buffer.getInt() != FORMAT_VERSION)
+        {
+            throw new IOException("Unknown format of cache entry.");
+        }
+        if (buffer.getInt() != stage.ordinal())
+        {
+            throw new IOException("Cache entry belongs to another stage.");
+        }
+        long payloadSize = buffer.getLong();
+        if (payloadSize < 0 || payloadSize != buffer.remaining() - 8)
+        {
+            throw new IOException("Cache entry is truncated.");
+        }
+
+        ByteBuffer payload = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        payload.limit((int) payloadSize);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        if (checksum.getValue() != buffer.getLong(buffer.position() + (int) payloadSize))
+        {
+            throw new IOException("Checksum of cache entry doesn't match.");
+        }
+
+        try
+        {
+            return readPayload(payload);
+        }
+        catch (RuntimeException ex)
+        {
+            // a valid checksum over invalid data means the entry was written by a broken writer
+            throw new IOException("Cache entry is corrupt.", ex);
+        }
+    }
+
+    private static PlanarCacheEntry readPayload(ByteBuffer payload)
+    {
+        PlanarCacheEntry entry = new PlanarCacheEntry();
+        GraphFingerprint fingerprint = new GraphFingerprint();
+        fingerprint.hash = payload.getLong();
+        int flags = payload.getInt();
+        fingerprint.isDirected = (flags & FLAG_DIRECTED) != 0;
+        fingerprint.includesEmbedding = (flags & FLAG_INCLUDES_EMBEDDING) != 0;
+        fingerprint.canonicalAdjacency = getArrays(payload);
+        if (fingerprint.includesEmbedding)
+        {
+            fingerprint.canonicalFaces = getArrays(payload);
+        }
+        entry.fingerprint = fingerprint;
+        entry.isPlanar = (flags & FLAG_PLANAR) != 0;
+
+        int nodesCount = fingerprint.canonicalAdjacency.length;
+        if ((flags & FLAG_HAS_GRAPH) != 0)
+        {
+            entry.edgesCount = payload.getInt();
+            entry.neighbors = getArrays(payload);
+            entry.weights = new int[entry.neighbors.length][];
+            for (int i = 0; i < entry.neighbors.length; i++)
+            {
+                entry.weights[i] = new int[entry.neighbors[i].length];
+                payload.asIntBuffer().get(entry.weights[i]);
+                payload.position(payload.position() + 4 * entry.weights[i].length);
+            }
+            entry.isTemporary = new boolean[entry.neighbors.length][];
+            int bitsCount = 0;
+            int bits = 0;
+            for (int i = 0; i < entry.neighbors.length; i++)
+            {
+                entry.isTemporary[i] = new boolean[entry.neighbors[i].length];
+                for (int j = 0; j < entry.isTemporary[i].length; j++)
+                {
+                    if (bitsCount % 8 == 0)
+                    {
+                        bits = payload.get();
+                    }
+                    entry.isTemporary[i][j] = (bits >> (bitsCount++ % 8) & 1) != 0;
+                }
+            }
+            entry.faces = getArrays(payload);
+        }
+
+        if ((flags & FLAG_HAS_POSITIONS) != 0)
+        {
+            entry.xCoordinates = new double[nodesCount];
+            entry.yCoordinates = new double[nodesCount];
+            payload.asDoubleBuffer().get(entry.xCoordinates);
+            payload.position(payload.position() + 8 * nodesCount);
+            payload.asDoubleBuffer().get(entry.yCoordinates);
+            payload.position(payload.position() + 8 * nodesCount);
+        }
+
+        return entry;
+    }
+
+    private static int getValuesCount(int[][] arrays)
+    {
+        int count = 0;
+        for (int[] array : arrays)
+        {
+            count += array.length;
+        }
+        return count;
+    }
+
+    private static long getArraysSize(int[][] arrays)
+    {
+        return 4 + 4L * (arrays.length + 1) + 4L * getValuesCount(arrays);
+    }
+
+    private static void putArrays(ByteBuffer buffer, int[][] arrays)
+    {
+        buffer.putInt(arrays.length);
+        int offset = 0;
+        buffer.putInt(offset);
+        for (int[] array : arrays)
+        {
+            offset += array.length;
+            buffer.putInt(offset);
+        }
+        for (int[] array : arrays)
+        {
+            buffer.asIntBuffer().put(array);
+            buffer.position(buffer.position() + 4 * array.length);
+        }
+    }
+
+    private static int[][] getArrays(ByteBuffer buffer)
+    {
+        int count = buffer.getInt();
+        int[] offsets = new int[count + 1];
+        buffer.asIntBuffer().get(offsets);
+        buffer.position(buffer.position() + 4 * offsets.length);
+
+        int[] values = new int[offsets[count]];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * values.length);
+
+        int[][] arrays = new int[count][];
+        for (int i = 0; i < count; i++)
+        {
+            arrays[i] = Arrays.copyOfRange(values, offsets[i], offsets[i + 1]);
+        }
+        return arrays;
+    }
+}
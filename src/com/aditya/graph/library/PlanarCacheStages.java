@@ -0,0 +1,10 @@
+package com.aditya.graph.library;
+
+public enum PlanarCacheStages
+{
+    EMBEDDING,
+
+    TRIANGULATION,
+
+    DRAWING
+}
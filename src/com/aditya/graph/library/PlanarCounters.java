@@ -0,0 +1,16 @@
+package com.aditya.graph.library;
+
+public enum PlanarCounters
+{
+    FRAGMENTS_FOUND,
+
+    FACE_ADMISSIBILITY_CHECKS,
+
+    PATHS_EMBEDDED,
+
+    FACES_SPLIT,
+
+    TRIANGULATION_EDGES_ADDED,
+
+    SHIFT_MOVES
+}
@@ -3,13 +3,20 @@ package com.aditya.graph.library;
 public class PlanarDrawingFactory
 {
     public static IPlanarDrawingMethods GetPlanarDrawingStrategy(PlanarDrawingStrategies strategy)
+    {
+        return GetPlanarDrawingStrategy(strategy, NoOpPlanarTracer.INSTANCE);
+    }
+
+    public static IPlanarDrawingMethods GetPlanarDrawingStrategy(PlanarDrawingStrategies strategy, IPlanarTracer tracer)
     {
         switch (strategy)
         {
             case SCHNYDER:
-                return new ShiftPlanarDrawingStrategy();
+                return new SchnyderPlanarDrawingStrategy(tracer);
+            case SHIFT:
+                return new ShiftPlanarDrawingStrategy(tracer);
             default:
-                return new ShiftPlanarDrawingStrategy();
+                return new ShiftPlanarDrawingStrategy(tracer);
         }
     }
 }
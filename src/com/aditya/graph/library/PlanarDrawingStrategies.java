@@ -4,5 +4,7 @@ public enum PlanarDrawingStrategies
 {
     INVALID,
 
-    SCHNYDER
+    SCHNYDER,
+
+    SHIFT
 }
@@ -3,11 +3,18 @@ package com.aditya.graph.library;
 public class PlanarEmbeddingFactory
 {
     public static IPlanarEmbeddingMethods GetPlanarEmbeddingStrategy(PlanarEmbeddingStrategies type)
+    {
+        return GetPlanarEmbeddingStrategy(type, NoOpPlanarTracer.INSTANCE);
+    }
+
+    public static IPlanarEmbeddingMethods GetPlanarEmbeddingStrategy(
+            PlanarEmbeddingStrategies type,
+            IPlanarTracer tracer)
     {
         switch (type)
         {
             case DMP:
-                return new DMPPlanarEmbeddingStrategy();
+                return new DMPPlanarEmbeddingStrategy(tracer);
             default:
                 return null;
         }
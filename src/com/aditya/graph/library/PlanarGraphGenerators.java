@@ -0,0 +1,613 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generators of big planar and near-planar graphs, e.g. to benchmark and soak-test the embedding and drawing
+ * strategies. The same arguments always give the same graph. Edges are collected in flat arrays and the graph is
+ * created by a GraphBuilder in one go. The edges of ten million nodes are generated in about a second; at that size
+ * most of the time and memory goes into the graph itself. All generated graphs are undirected and have no
+ * multi-edges or self loops.
+ */
+public final class PlanarGraphGenerators
+{
+    private PlanarGraphGenerators()
+    {
+    }
+
+    /**
+     * Creates a grid of width x height nodes. Node (x, y) has index y * width + x.
+     *
+     * @param width  Number of nodes in a row
+     * @param height Number of nodes in a column
+     * @return Planar grid graph
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createGrid(int width, int height) throws Exception
+    {
+        EdgeArrays edges = createGridEdges(width, height, 0);
+        return edges.build(width * height);
+    }
+
+    /**
+     * Creates a grid of width x height nodes in which every square is split by a diagonal of random direction. The
+     * graph is 2-connected and all its inner faces are triangles, so every stage of the planar pipeline does real
+     * work on it. Node (x, y) has index y * width + x.
+     *
+     * @param width  Number of nodes in a row
+     * @param height Number of nodes in a column
+     * @param seed   Seed of the random directions
+     * @return Planar grid graph
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createTriangulatedGrid(int width, int height, long seed) throws Exception
+    {
+        EdgeArrays edges = createGridEdges(width, height, (long) (width - 1) * (height - 1));
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int y = 0; y + 1 < height; y++)
+        {
+            for (int x = 0; x + 1 < width; x++)
+            {
+                int node = y * width + x;
+                if (random.nextBoolean())
+                {
+                    edges.add(node, node + width + 1);
+                }
+                else
+                {
+                    edges.add(node + 1, node + width);
+                }
+            }
+        }
+        return edges.build(width * height);
+    }
+
+    /**
+     * Creates a grid of width x height nodes whose rows and columns wrap around, like a grid drawn on a torus, and
+     * removes the wrap-around edge between (width - 1, 0) and (0, 0). Every node but two has degree four and every
+     * small part of the graph looks like a planar grid, yet for width and height of at least three the graph isn't
+     * planar, so it is a hard negative input for planarity tests. Node (x, y) has index y * width + x.
+     *
+     * @param width  Number of nodes in a row, at least 3
+     * @param height Number of nodes in a column, at least 3
+     * @return Non-planar toroidal grid graph
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createToroidalGridMinusEdge(int width, int height) throws Exception
+    {
+        if (width < 3 || height < 3)
+        {
+            throw new Exception("A toroidal grid needs at least 3 nodes in each row and column.");
+        }
+
+        EdgeArrays edges = createGridEdges(width, height, width + height - 1);
+        for (int y = 1; y < height; y++)
+        {
+            edges.add(y * width + width - 1, y * width);
+        }
+        for (int x = 0; x < width; x++)
+        {
+            edges.add((height - 1) * width + x, x);
+        }
+        return edges.build(width * height);
+    }
+
+    /**
+     * Creates a random maximal planar graph, i.e. a triangulation with 3 * nodesCount - 6 edges, as a random
+     * Apollonian network: starting from a triangle, every new node is put into a face chosen uniformly at random
+     * and connected to its three corners. Such graphs have a few nodes of very high degree and many of low degree.
+     *
+     * @param nodesCount Number of nodes, at least 3
+     * @param seed       Seed of the random choices
+     * @return Maximal planar graph. Nodes 0, 1 and 2 form its outer face.
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createRandomMaximalPlanar(int nodesCount, long seed) throws Exception
+    {
+        return new ApollonianNetwork(nodesCount, false, new SplittableRandom(seed)).edges.build(nodesCount);
+    }
+
+    /**
+     * Same graph as createRandomMaximalPlanar with the same arguments, but the neighbors of every node are in the
+     * cyclic order of a planar embedding, in the same direction around every node, like the neighbors of graphs
+     * returned by the triangulate function. Such a graph can be drawn without running isPlanar and triangulate
+     * first, which makes drawings of millions of nodes possible.
+     *
+     * @param nodesCount Number of nodes, at least 3
+     * @param seed       Seed of the random choices
+     * @return Maximal planar graph with oriented neighbors
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createRandomMaximalPlanarEmbedding(int nodesCount, long seed) throws Exception
+    {
+        ApollonianNetwork network = new ApollonianNetwork(nodesCount, false, new SplittableRandom(seed));
+        EdgeArrays edges = network.edges;
+
+        // neighbors of each node, sorted so that the position of a neighbor can be found by binary search
+        int[] offsets = new int[nodesCount + 1];
+        for (int i = 0; i < edges.count; i++)
+        {
+            offsets[edges.sources[i] + 1]++;
+            offsets[edges.destinations[i] + 1]++;
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[offsets[nodesCount]];
+        int[] nextPositions = Arrays.copyOf(offsets, nodesCount);
+        for (int i = 0; i < edges.count; i++)
+        {
+            targets[nextPositions[edges.sources[i]]++] = edges.destinations[i];
+            targets[nextPositions[edges.destinations[i]]++] = edges.sources[i];
+        }
+        for (int i = 0; i < nodesCount; i++)
+        {
+            Arrays.sort(targets, offsets[i], offsets[i + 1]);
+        }
+
+        // a face (u, v, w) means that v follows w around u, so every corner of every face links two neighbors
+        nextPositions = new int[targets.length];
+        for (int i = 0; i < 3 * network.facesCount; i++)
+        {
+            int node = network.faces[i];
+            int next = network.faces[i % 3 == 2 ? i - 2 : i + 1];
+            int prev = network.faces[i % 3 == 0 ? i + 2 : i - 1];
+            nextPositions[findPosition(targets, offsets, node, prev)] = findPosition(targets, offsets, node, next);
+        }
+
+        Graph graph = new Graph(false);
+        for (int i = 0; i < nodesCount; i++)
+        {
+            graph.addNode();
+        }
+        graph.edgesCount = edges.count;
+        for (int i = 0; i < nodesCount; i++)
+        {
+            ArrayList<Edge> neighbors = new ArrayList<>(offsets[i + 1] - offsets[i]);
+            int position = offsets[i];
+            for (int j = offsets[i]; j < offsets[i + 1]; j++)
+            {
+                neighbors.add(new Edge(i, targets[position], false));
+                position = nextPositions[position];
+            }
+            graph.nodes.get(i).neighbors = neighbors;
+        }
+        return graph;
+    }
+
+    /**
+     * Creates a random connected planar graph by deleting random edges of a random maximal planar graph. The edges
+     * of a random spanning tree are always kept, the other edges are kept in random order until the graph has the
+     * given number of edges. The graph usually isn't 2-connected.
+     *
+     * @param nodesCount Number of nodes, at least 3
+     * @param edgesCount Number of edges, from nodesCount - 1 to 3 * nodesCount - 6
+     * @param seed       Seed of the random choices
+     * @return Connected planar graph
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createRandomPlanar(int nodesCount, int edgesCount, long seed) throws Exception
+    {
+        if (edgesCount < nodesCount - 1 || edgesCount > 3L * nodesCount - 6)
+        {
+            throw new Exception("A connected planar graph with " + nodesCount + " nodes has " + (nodesCount - 1)
+                    + " to " + (3L * nodesCount - 6) + " edges.");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeArrays allEdges = new ApollonianNetwork(nodesCount, false, random).edges;
+        int allCount = allEdges.count;
+        int[] order = new int[allCount];
+        for (int i = 0; i < allCount; i++)
+        {
+            order[i] = i;
+        }
+        for (int i = allCount - 1; i > 0; i--)
+        {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        // kruskal on the shuffled edges gives a random spanning tree. non-tree edges are moved to the front of the
+        // array in shuffled order, so the first ones of them can be kept.
+        int[] parents = new int[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            parents[i] = i;
+        }
+        EdgeArrays edges = new EdgeArrays(edgesCount);
+        int nonTreeCount = 0;
+        for (int i = 0; i < allCount; i++)
+        {
+            int edge = order[i];
+            int srcRoot = findRoot(parents, allEdges.sources[edge]);
+            int destRoot = findRoot(parents, allEdges.destinations[edge]);
+            if (srcRoot != destRoot)
+            {
+                parents[srcRoot] = destRoot;
+                edges.add(allEdges.sources[edge], allEdges.destinations[edge]);
+            }
+            else
+            {
+                order[nonTreeCount++] = edge;
+            }
+        }
+        for (int i = 0; edges.count < edgesCount; i++)
+        {
+            edges.add(allEdges.sources[order[i]], allEdges.destinations[order[i]]);
+        }
+        return edges.build(nodesCount);
+    }
+
+    /**
+     * Creates a random 2-connected planar graph by deleting random edges of a random maximal planar graph. Every
+     * node but the first three joined the triangulation with three edges; two of them are always kept, so the
+     * graph is built by adding one ear after the other and stays 2-connected. Of the third edges, random ones are
+     * kept until the graph has the given number of edges.
+     *
+     * @param nodesCount Number of nodes, at least 3
+     * @param edgesCount Number of edges, from 2 * nodesCount - 3 to 3 * nodesCount - 6
+     * @param seed       Seed of the random choices
+     * @return 2-connected planar graph
+     * @throws Exception Throws an exception if the size is invalid
+     */
+    public static Graph createRandomBiconnectedPlanar(int nodesCount, int edgesCount, long seed) throws Exception
+    {
+        if (edgesCount < 2L * nodesCount - 3 || edgesCount > 3L * nodesCount - 6)
+        {
+            throw new Exception("A 2-connected planar graph with " + nodesCount + " nodes has "
+                    + (2L * nodesCount - 3) + " to " + (3L * nodesCount - 6) + " edges.");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeArrays allEdges = new ApollonianNetwork(nodesCount, false, random).edges;
+        EdgeArrays edges = new EdgeArrays(edgesCount);
+        int optionalCount = nodesCount - 3;
+        int[] optionalEdges = new int[optionalCount];
+        for (int i = 0; i < 3; i++)
+        {
+            edges.add(allEdges.sources[i], allEdges.destinations[i]);
+        }
+        // the edges of a new node follow those of the previous one in threes
+        for (int i = 0; i < optionalCount; i++)
+        {
+            int optional = random.nextInt(3);
+            for (int j = 0; j < 3; j++)
+            {
+                int edge = 3 + 3 * i + j;
+                if (j == optional)
+                {
+                    optionalEdges[i] = edge;
+                }
+                else
+                {
+                    edges.add(allEdges.sources[edge], allEdges.destinations[edge]);
+                }
+            }
+        }
+        for (int i = 0; edges.count < edgesCount; i++)
+        {
+            int j = i + random.nextInt(optionalCount - i);
+            int edge = optionalEdges[j];
+            optionalEdges[j] = optionalEdges[i];
+            edges.add(allEdges.sources[edge], allEdges.destinations[edge]);
+        }
+        return edges.build(nodesCount);
+    }
+
+    /**
+     * Creates a random maximal planar graph and adds edges that each cross one edge of it. Every added edge joins
+     * the two nodes opposite to an edge of the triangulation, and no two added edges share a face, so the graph has
+     * a drawing with exactly crossingsCount crossings. Since the triangulation is maximal, the graph isn't planar as
+     * soon as one edge is added; its crossing number is between 1 and crossingsCount.
+     *
+     * @param nodesCount     Number of nodes, at least 3
+     * @param crossingsCount Number of added edges. Up to about half as many as there are nodes fit.
+     * @param seed           Seed of the random choices
+     * @return Near-planar graph with 3 * nodesCount - 6 + crossingsCount edges
+     * @throws Exception Throws an exception if the size is invalid or the crossings don't fit into the graph
+     */
+    public static Graph createNearPlanar(int nodesCount, int crossingsCount, long seed) throws Exception
+    {
+        if (crossingsCount < 0)
+        {
+            throw new Exception("Number of crossings can't be negative.");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        ApollonianNetwork network = new ApollonianNetwork(nodesCount, true, random);
+        EdgeArrays edges = network.edges;
+        edges.ensureCapacity(edges.count + crossingsCount);
+        int facesCount = network.facesCount;
+        boolean[] isFaceUsed = new boolean[facesCount];
+        // the outer face is never used, so every added edge is drawn inside the triangulation
+        isFaceUsed[0] = true;
+        int usedFacesCount = 1;
+        int planarCount = edges.count;
+
+        HashSet<Long> candidates = new HashSet<>();
+        HashSet<Long> rejectedPairs = new HashSet<>();
+        int[] candidateSources = new int[crossingsCount];
+        int[] candidateDestinations = new int[crossingsCount];
+        int[] candidateFaces = new int[2 * crossingsCount];
+        while (edges.count - planarCount < crossingsCount)
+        {
+            // pick pairs of neighboring unused faces until there are enough candidate edges
+            int candidatesCount = 0;
+            long failedAttempts = 0;
+            candidates.clear();
+            while (candidatesCount < crossingsCount - (edges.count - planarCount))
+            {
+                if (usedFacesCount + 2 > facesCount || failedAttempts > 16L * facesCount)
+                {
+                    throw new Exception("A graph with " + nodesCount + " nodes has no room for " + crossingsCount
+                            + " crossings.");
+                }
+
+                int face = 1 + random.nextInt(facesCount - 1);
+                int slot = random.nextInt(3);
+                int otherFace = network.neighborFaces[3 * face + slot];
+                if (isFaceUsed[face] || isFaceUsed[otherFace])
+                {
+                    failedAttempts++;
+                    continue;
+                }
+
+                int src = network.faces[3 * face + (slot + 2) % 3];
+                int dest = network.getOppositeNode(otherFace, network.faces[3 * face + slot],
+                        network.faces[3 * face + (slot + 1) % 3]);
+                long pair = getEdgeKey(src, dest);
+                if (rejectedPairs.contains(pair) || !candidates.add(pair))
+                {
+                    failedAttempts++;
+                    continue;
+                }
+
+                isFaceUsed[face] = true;
+                isFaceUsed[otherFace] = true;
+                usedFacesCount += 2;
+                candidateSources[candidatesCount] = src;
+                candidateDestinations[candidatesCount] = dest;
+                candidateFaces[2 * candidatesCount] = face;
+                candidateFaces[2 * candidatesCount + 1] = otherFace;
+                candidatesCount++;
+                failedAttempts = 0;
+            }
+
+            // nodes opposite to an edge can be neighbors already. their pair is dropped and its faces can be used
+            // by other pairs.
+            for (int i = 0; i < edges.count; i++)
+            {
+                long pair = getEdgeKey(edges.sources[i], edges.destinations[i]);
+                if (candidates.remove(pair))
+                {
+                    rejectedPairs.add(pair);
+                }
+            }
+            for (int i = 0; i < candidatesCount; i++)
+            {
+                if (candidates.contains(getEdgeKey(candidateSources[i], candidateDestinations[i])))
+                {
+                    edges.add(candidateSources[i], candidateDestinations[i]);
+                }
+                else
+                {
+                    isFaceUsed[candidateFaces[2 * i]] = false;
+                    isFaceUsed[candidateFaces[2 * i + 1]] = false;
+                    usedFacesCount -= 2;
+                }
+            }
+        }
+        return edges.build(nodesCount);
+    }
+
+    // edges of a plain grid, with room for extra edges
+    private static EdgeArrays createGridEdges(int width, int height, long extra) throws Exception
+    {
+        if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE)
+        {
+            throw new Exception("Invalid grid size " + width + " x " + height + ".");
+        }
+
+        EdgeArrays edges = new EdgeArrays(checkEdgesCount(2L * width * height - width - height + extra));
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int node = y * width + x;
+                if (x + 1 < width)
+                {
+                    edges.add(node, node + 1);
+                }
+                if (y + 1 < height)
+                {
+                    edges.add(node, node + width);
+                }
+            }
+        }
+        return edges;
+    }
+
+    private static int checkEdgesCount(long edgesCount) throws Exception
+    {
+        if (edgesCount > Integer.MAX_VALUE - 8)
+        {
+            throw new Exception("Graph would have too many edges: " + edgesCount + ".");
+        }
+        return (int) edgesCount;
+    }
+
+    private static int findRoot(int[] parents, int node)
+    {
+        while (parents[node] != node)
+        {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+        return node;
+    }
+
+    private static int findPosition(int[] targets, int[] offsets, int node, int neighbor)
+    {
+        return Arrays.binarySearch(targets, offsets[node], offsets[node + 1], neighbor);
+    }
+
+    private static long getEdgeKey(int src, int dest)
+    {
+        return src < dest ? ((long) src << 32) | dest : ((long) dest << 32) | src;
+    }
+
+    // edges collected before the graph is created
+    private static final class EdgeArrays
+    {
+        int[] sources;
+
+        int[] destinations;
+
+        int count;
+
+        EdgeArrays(int capacity)
+        {
+            sources = new int[capacity];
+            destinations = new int[capacity];
+        }
+
+        void ensureCapacity(int capacity)
+        {
+            if (capacity > sources.length)
+            {
+                sources = Arrays.copyOf(sources, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+            }
+        }
+
+        void add(int src, int dest)
+        {
+            sources[count] = src;
+            destinations[count] = dest;
+            count++;
+        }
+
+        Graph build(int nodesCount) throws Exception
+        {
+            GraphBuilder builder = new GraphBuilder(nodesCount, false);
+            builder.addEdges(sources, destinations, count);
+            return builder.build();
+        }
+    }
+
+    // random apollonian network. faces are stored as triples of corners in counterclockwise order, face 0 being the
+    // outer one. if wanted, the face across the edge from corner i to corner i + 1 of every face is stored as well.
+    private static final class ApollonianNetwork
+    {
+        final EdgeArrays edges;
+
+        final int[] faces;
+
+        final int[] neighborFaces;
+
+        int facesCount;
+
+        ApollonianNetwork(int nodesCount, boolean keepsNeighborFaces, SplittableRandom random) throws Exception
+        {
+            if (nodesCount < 3)
+            {
+                throw new Exception("A maximal planar graph needs at least 3 nodes.");
+            }
+
+            edges = new EdgeArrays(checkEdgesCount(3L * nodesCount - 6));
+            faces = new int[3 * (2 * nodesCount - 4)];
+            neighborFaces = keepsNeighborFaces ? new int[faces.length] : null;
+
+            edges.add(0, 1);
+            edges.add(1, 2);
+            edges.add(2, 0);
+            setFace(0, 0, 2, 1);
+            setFace(1, 0, 1, 2);
+            facesCount = 2;
+            if (keepsNeighborFaces)
+            {
+                setNeighborFaces(0, 1, 1, 1);
+                setNeighborFaces(1, 0, 0, 0);
+            }
+
+            for (int node = 3; node < nodesCount; node++)
+            {
+                insertNode(node, 1 + random.nextInt(facesCount - 1));
+            }
+        }
+
+        // splits a face into three faces around a new node: the face itself becomes (a, b, node) and two faces
+        // (b, c, node) and (c, a, node) are added
+        private void insertNode(int node, int face)
+        {
+            int a = faces[3 * face], b = faces[3 * face + 1], c = faces[3 * face + 2];
+            int bcFace = facesCount, caFace = facesCount + 1;
+            facesCount += 2;
+            edges.add(node, a);
+            edges.add(node, b);
+            edges.add(node, c);
+            setFace(face, a, b, node);
+            setFace(bcFace, b, c, node);
+            setFace(caFace, c, a, node);
+
+            if (neighborFaces != null)
+            {
+                int abNeighbor = neighborFaces[3 * face];
+                int bcNeighbor = neighborFaces[3 * face + 1];
+                int caNeighbor = neighborFaces[3 * face + 2];
+                setNeighborFaces(face, abNeighbor, bcFace, caFace);
+                setNeighborFaces(bcFace, bcNeighbor, caFace, face);
+                setNeighborFaces(caFace, caNeighbor, face, bcFace);
+                replaceNeighborFace(bcNeighbor, c, b, bcFace);
+                replaceNeighborFace(caNeighbor, a, c, caFace);
+            }
+        }
+
+        int getOppositeNode(int face, int u, int v)
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                int corner = faces[3 * face + i];
+                if (corner != u && corner != v)
+                {
+                    return corner;
+                }
+            }
+            return -1;
+        }
+
+        private void setFace(int face, int a, int b, int c)
+        {
+            faces[3 * face] = a;
+            faces[3 * face + 1] = b;
+            faces[3 * face + 2] = c;
+        }
+
+        private void setNeighborFaces(int face, int ab, int bc, int ca)
+        {
+            neighborFaces[3 * face] = ab;
+            neighborFaces[3 * face + 1] = bc;
+            neighborFaces[3 * face + 2] = ca;
+        }
+
+        // points the side from u to v of a face to its new neighbor
+        private void replaceNeighborFace(int face, int u, int v, int neighbor)
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                if (faces[3 * face + i] == u && faces[3 * face + (i + 1) % 3] == v)
+                {
+                    neighborFaces[3 * face + i] = neighbor;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+
+/**
+ * Outcome of running a graph through all stages of a PlanarPipeline. The graphs built by the stages are the ones
+ * the stages worked on, not copies.
+ */
+public class PlanarLayoutResult
+{
+    /**
+     * PLANAR if the graph got drawn, NOT_PLANAR if it isn't planar and TIMED_OUT if the token got cancelled before
+     * the last stage finished.
+     */
+    public final PlanarityResult planarity;
+
+    /**
+     * Graph built by isPlanar, or null if the graph isn't planar or the token got cancelled during isPlanar.
+     */
+    public final Graph embeddedGraph;
+
+    /**
+     * Graph built by triangulate, or null if the pipeline stopped before that.
+     */
+    public final Graph triangulatedGraph;
+
+    /**
+     * Positions of the nodes, or null if the pipeline stopped before drawing.
+     */
+    public final Coordinates2D positions;
+
+    PlanarLayoutResult(
+            PlanarityResult planarity,
+            Graph embeddedGraph,
+            Graph triangulatedGraph,
+            Coordinates2D positions)
+    {
+        this.planarity = planarity;
+        this.embeddedGraph = embeddedGraph;
+        this.triangulatedGraph = triangulatedGraph;
+        this.positions = positions;
+    }
+}
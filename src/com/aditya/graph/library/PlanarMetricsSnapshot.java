@@ -0,0 +1,88 @@
+package com.aditya.graph.library;
+
+/**
+ * Immutable copy of the metrics collected by a PlanarMetricsTracer at some point of time.
+ */
+public class PlanarMetricsSnapshot
+{
+    private final long[] phaseNanos;
+
+    private final long[] phaseCounts;
+
+    private final long[] counters;
+
+    PlanarMetricsSnapshot(long[] phaseNanos, long[] phaseCounts, long[] counters)
+    {
+        this.phaseNanos = phaseNanos;
+        this.phaseCounts = phaseCounts;
+        this.counters = counters;
+    }
+
+    /**
+     * @param phase Phase of interest
+     * @return Total wall time spent in the phase in nanoseconds
+     */
+    public long getPhaseNanos(PlanarPhases phase)
+    {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * @param phase Phase of interest
+     * @return Number of times the phase has finished
+     */
+    public long getPhaseCount(PlanarPhases phase)
+    {
+        return phaseCounts[phase.ordinal()];
+    }
+
+    /**
+     * @param counter Counter of interest
+     * @return Value of the counter
+     */
+    public long getCounter(PlanarCounters counter)
+    {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * Builds a snapshot that holds the difference between this snapshot and an older one.
+     *
+     * @param older Snapshot taken earlier from the same tracer
+     * @return Metrics collected between both snapshots
+     */
+    public PlanarMetricsSnapshot minus(PlanarMetricsSnapshot older)
+    {
+        long[] newPhaseNanos = new long[phaseNanos.length];
+        long[] newPhaseCounts = new long[phaseCounts.length];
+        long[] newCounters = new long[counters.length];
+
+        for (int i = 0; i < phaseNanos.length; i++)
+        {
+            newPhaseNanos[i] = phaseNanos[i] - older.phaseNanos[i];
+            newPhaseCounts[i] = phaseCounts[i] - older.phaseCounts[i];
+        }
+        for (int i = 0; i < counters.length; i++)
+        {
+            newCounters[i] = counters[i] - older.counters[i];
+        }
+
+        return new PlanarMetricsSnapshot(newPhaseNanos, newPhaseCounts, newCounters);
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        for (PlanarPhases phase : PlanarPhases.values())
+        {
+            builder.append(phase + ": " + getPhaseCount(phase) + " times, "
+                    + (getPhaseNanos(phase) / 1000) + " us.\n");
+        }
+        for (PlanarCounters counter : PlanarCounters.values())
+        {
+            builder.append(counter + ": " + getCounter(counter) + ".\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.aditya.graph.library;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracer that measures wall time of each phase and sums up the counters reported by the strategies. Use snapshot
+ * to read the metrics collected so far. It can be shared by strategies running on different threads.
+ * Optionally, every phase is also emitted as a flight recorder event (com.aditya.graph.PlanarPhase).
+ */
+public class PlanarMetricsTracer implements IPlanarTracer
+{
+    private static final int PHASES_COUNT = PlanarPhases.values().length;
+
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES_COUNT);
+
+    private final AtomicLongArray phaseCounts = new AtomicLongArray(PHASES_COUNT);
+
+    private final AtomicLongArray counters = new AtomicLongArray(PlanarCounters.values().length);
+
+    // null when flight recorder events are off or the JVM has no jdk.jfr API
+    private final PlanarPhaseEventFactory eventFactory;
+
+    // phases can be running on several threads at once. each thread keeps its own start times.
+    private final ThreadLocal<long[]> phaseStartTimes = new ThreadLocal<long[]>()
+    {
+        @Override
+        protected long[] initialValue()
+        {
+            return new long[PHASES_COUNT];
+        }
+    };
+
+    private final ThreadLocal<Object[]> phaseEvents = new ThreadLocal<Object[]>()
+    {
+        @Override
+        protected Object[] initialValue()
+        {
+            return new Object[PHASES_COUNT];
+        }
+    };
+
+    public PlanarMetricsTracer()
+    {
+        this(false);
+    }
+
+    /**
+     * @param emitFlightRecorderEvents If true, every phase is emitted as a flight recorder event. Ignored on JVMs that
+     *                                 don't provide the jdk.jfr API, such as Java 8 without flight recorder.
+     */
+    public PlanarMetricsTracer(boolean emitFlightRecorderEvents)
+    {
+        this.eventFactory = emitFlightRecorderEvents ? PlanarPhaseEventFactory.getInstance() : null;
+    }
+
+    /**
+     * @return Copy of all metrics collected so far.
+     */
+    public PlanarMetricsSnapshot snapshot()
+    {
+        long[] nanos = new long[PHASES_COUNT];
+        long[] counts = new long[PHASES_COUNT];
+        long[] counterValues = new long[counters.length()];
+
+        for (int i = 0; i < PHASES_COUNT; i++)
+        {
+            nanos[i] = phaseNanos.get(i);
+            counts[i] = phaseCounts.get(i);
+        }
+        for (int i = 0; i < counterValues.length; i++)
+        {
+            counterValues[i] = counters.get(i);
+        }
+
+        return new PlanarMetricsSnapshot(nanos, counts, counterValues);
+    }
+
+    @Override
+    public void phaseStarted(PlanarPhases phase)
+    {
+        if (eventFactory != null)
+        {
+            phaseEvents.get()[phase.ordinal()] = eventFactory.begin();
+        }
+        phaseStartTimes.get()[phase.ordinal()] = System.nanoTime();
+    }
+
+    @Override
+    public void phaseFinished(PlanarPhases phase)
+    {
+        int idx = phase.ordinal();
+        phaseNanos.addAndGet(idx, System.nanoTime() - phaseStartTimes.get()[idx]);
+        phaseCounts.incrementAndGet(idx);
+
+        if (eventFactory != null)
+        {
+            Object[] events = phaseEvents.get();
+            Object event = events[idx];
+            events[idx] = null;
+            if (event != null)
+            {
+                eventFactory.commit(event, phase);
+            }
+        }
+    }
+
+    @Override
+    public void counterIncremented(PlanarCounters counter, long amount)
+    {
+        counters.addAndGet(counter.ordinal(), amount);
+    }
+
+    @Override
+    public void pathEmbedded(LinkedList<Integer> path)
+    {
+    }
+
+    @Override
+    public void componentRejected(ArrayList<Integer> component)
+    {
+    }
+
+    @Override
+    public void embeddingFinished(ArrayList<LinkedList<Integer>> faces)
+    {
+    }
+
+    @Override
+    public void neighborsOrdered(int node, int firstNode, int nextNode)
+    {
+    }
+
+    @Override
+    public void canonicalOrderComputed(int[] canonicalOrder)
+    {
+    }
+}
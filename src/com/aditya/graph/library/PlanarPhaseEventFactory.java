@@ -0,0 +1,120 @@
+package com.aditya.graph.library;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates and commits the flight recorder events of PlanarMetricsTracer, one com.aditya.graph.PlanarPhase event per
+ * phase. The jdk.jfr API is not part of Java 8, so it is looked up at run time through reflection and events are
+ * defined with its EventFactory instead of a subclass of jdk.jfr.Event. On JVMs without the API nothing is emitted.
+ */
+final class PlanarPhaseEventFactory
+{
+    private static final PlanarPhaseEventFactory INSTANCE = create();
+
+    private final Object factory;
+
+    private final Method newEvent;
+
+    private final Method begin;
+
+    private final Method shouldCommit;
+
+    private final Method set;
+
+    private final Method commit;
+
+    private PlanarPhaseEventFactory(Object factory, Method newEvent, Method begin, Method shouldCommit, Method set,
+            Method commit)
+    {
+        this.factory = factory;
+        this.newEvent = newEvent;
+        this.begin = begin;
+        this.shouldCommit = shouldCommit;
+        this.set = set;
+        this.commit = commit;
+    }
+
+    /**
+     * @return The factory, or null if the JVM doesn't provide the jdk.jfr API
+     */
+    static PlanarPhaseEventFactory getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Creates an event and starts its timing.
+     *
+     * @return The event, or null if it couldn't be created
+     */
+    Object begin()
+    {
+        try
+        {
+            Object event = newEvent.invoke(factory);
+            begin.invoke(event);
+            return event;
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Ends the timing of an event and records it, if the recording is interested in it.
+     *
+     * @param event Event returned by begin
+     * @param phase Phase that has finished
+     */
+    void commit(Object event, PlanarPhases phase)
+    {
+        try
+        {
+            if ((Boolean) shouldCommit.invoke(event))
+            {
+                set.invoke(event, 0, phase.name());
+                commit.invoke(event);
+            }
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            // the phase is still counted by the tracer
+        }
+    }
+
+    private static PlanarPhaseEventFactory create()
+    {
+        try
+        {
+            Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+            Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+            Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+            Constructor<?> newField = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+
+            List<Object> annotations = Arrays.asList(
+                    newAnnotation.newInstance(Class.forName("jdk.jfr.Name"), "com.aditya.graph.PlanarPhase"),
+                    newAnnotation.newInstance(Class.forName("jdk.jfr.Label"), "Planar Phase"),
+                    newAnnotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"Graph Library"}),
+                    newAnnotation.newInstance(Class.forName("jdk.jfr.Description"),
+                            "One phase of planarity testing, triangulation or drawing"));
+            List<Object> fields = Collections.singletonList(newField.newInstance(String.class, "phase",
+                    Collections.singletonList(newAnnotation.newInstance(Class.forName("jdk.jfr.Label"), "Phase"))));
+
+            Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+            Object factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+            Class<?> event = Class.forName("jdk.jfr.Event");
+            return new PlanarPhaseEventFactory(factory, eventFactory.getMethod("newEvent"), event.getMethod("begin"),
+                    event.getMethod("shouldCommit"), event.getMethod("set", int.class, Object.class),
+                    event.getMethod("commit"));
+        }
+        catch (ReflectiveOperationException | LinkageError ex)
+        {
+            return null;
+        }
+    }
+}
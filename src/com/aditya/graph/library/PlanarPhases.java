@@ -0,0 +1,24 @@
+package com.aditya.graph.library;
+
+public enum PlanarPhases
+{
+    CYCLE_SEARCH,
+
+    FRAGMENT_DISCOVERY,
+
+    FACE_ADMISSIBILITY,
+
+    PATH_EMBEDDING,
+
+    TRIANGULATION,
+
+    ORIENTATION,
+
+    CANONICAL_ORDERING,
+
+    SHIFT_PLACEMENT,
+
+    SCHNYDER_REALIZER,
+
+    SCHNYDER_PLACEMENT
+}
@@ -0,0 +1,298 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs graphs through isPlanar, triangulate and DrawOnPlane as three asynchronous stages, so that different graphs
+ * can be in different stages at the same time. Each stage admits a limited number of graphs, its queue depth. A
+ * graph that finishes a stage keeps its place there until the next stage has room for it, so a slow stage holds
+ * back the ones before it and submit blocks once the first stage is full. Graphs built by one stage are handed to
+ * the next one as they are, without copying.
+ * <p>
+ * All stages run on one executor. The tracer is called from multiple threads at once.
+ */
+public class PlanarPipeline
+{
+    private final PlanarEmbeddingStrategies embeddingStrategy;
+
+    private final PlanarDrawingStrategies drawingStrategy;
+
+    private final IPlanarTracer tracer;
+
+    private final Executor executor;
+
+    private final Stage embedStage;
+
+    private final Stage triangulateStage;
+
+    private final Stage drawStage;
+
+    /**
+     * Creates a pipeline that runs on the common fork/join pool. Each stage admits twice as many graphs as the pool
+     * has threads.
+     *
+     * @param embeddingStrategy Strategy used to embed and triangulate the graphs
+     * @param drawingStrategy   Strategy used to draw the graphs
+     */
+    public PlanarPipeline(PlanarEmbeddingStrategies embeddingStrategy, PlanarDrawingStrategies drawingStrategy)
+    {
+        this(embeddingStrategy, drawingStrategy, NoOpPlanarTracer.INSTANCE, ForkJoinPool.commonPool(),
+                2 * ForkJoinPool.getCommonPoolParallelism(), 2 * ForkJoinPool.getCommonPoolParallelism(),
+                2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param embeddingStrategy     Strategy used to embed and triangulate the graphs
+     * @param drawingStrategy       Strategy used to draw the graphs
+     * @param tracer                Tracer passed to the strategies
+     * @param executor              Executor on which the stages run
+     * @param embedQueueDepth       Number of graphs admitted to isPlanar at once
+     * @param triangulateQueueDepth Number of graphs admitted to triangulate at once
+     * @param drawQueueDepth        Number of graphs admitted to DrawOnPlane at once
+     * @throws IllegalArgumentException Throws an exception if a queue depth isn't positive
+     */
+    public PlanarPipeline(
+            PlanarEmbeddingStrategies embeddingStrategy,
+            PlanarDrawingStrategies drawingStrategy,
+            IPlanarTracer tracer,
+            Executor executor,
+            int embedQueueDepth,
+            int triangulateQueueDepth,
+            int drawQueueDepth)
+    {
+        if (embedQueueDepth <= 0 || triangulateQueueDepth <= 0 || drawQueueDepth <= 0)
+        {
+            throw new IllegalArgumentException("Queue depths must be positive.");
+        }
+
+        this.embeddingStrategy = embeddingStrategy;
+        this.drawingStrategy = drawingStrategy;
+        this.tracer = tracer;
+        this.executor = executor;
+        this.embedStage = new Stage(embedQueueDepth);
+        this.triangulateStage = new Stage(triangulateQueueDepth);
+        this.drawStage = new Stage(drawQueueDepth);
+    }
+
+    /**
+     * Same as submit with a token, but never gives up.
+     *
+     * @param graph Undirected graph to draw. It must not be changed until the result is complete.
+     * @return Result that completes once the graph has left the pipeline
+     * @throws InterruptedException Throws an exception if the thread got interrupted while waiting for room
+     */
+    public CompletableFuture<PlanarLayoutResult> submit(Graph graph) throws InterruptedException
+    {
+        return submit(graph, CancellationToken.NONE);
+    }
+
+    /**
+     * Puts a graph into the first stage, waiting while that stage is full.
+     *
+     * @param graph Undirected graph to draw. It must not be changed until the result is complete.
+     * @param token Token that bounds the time spent on the graph in all stages together
+     * @return Result that completes once the graph has left the pipeline. It completes exceptionally if a strategy
+     * throws, also with an error such as StackOverflowError.
+     * @throws InterruptedException Throws an exception if the thread got interrupted while waiting for room
+     */
+    public CompletableFuture<PlanarLayoutResult> submit(Graph graph, CancellationToken token)
+            throws InterruptedException
+    {
+        Job job = new Job(graph, token);
+        embedStage.waitForRoom();
+        executor.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                embed(job);
+            }
+        });
+        return job.result;
+    }
+
+    private void embed(Job job)
+    {
+        try
+        {
+            IPlanarEmbeddingMethods embedder =
+                    PlanarEmbeddingFactory.GetPlanarEmbeddingStrategy(embeddingStrategy, tracer);
+            job.embeddedGraph = new Graph(false);
+            PlanarityResult planarity = embedder.isPlanar(job.graph, job.embeddedGraph, job.token);
+            if (planarity != PlanarityResult.PLANAR)
+            {
+                job.embeddedGraph = null;
+                job.finish(planarity, embedStage);
+                return;
+            }
+        }
+        catch (Throwable ex)
+        {
+            job.fail(ex, embedStage);
+            return;
+        }
+
+        handOff(embedStage, triangulateStage, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                triangulate(job);
+            }
+        });
+    }
+
+    private void triangulate(Job job)
+    {
+        try
+        {
+            IPlanarEmbeddingMethods embedder =
+                    PlanarEmbeddingFactory.GetPlanarEmbeddingStrategy(embeddingStrategy, tracer);
+            job.triangulatedGraph = new Graph(false);
+            if (!embedder.triangulate(job.embeddedGraph, job.triangulatedGraph, job.token))
+            {
+                job.triangulatedGraph = null;
+                job.finish(PlanarityResult.TIMED_OUT, triangulateStage);
+                return;
+            }
+        }
+        catch (Throwable ex)
+        {
+            job.fail(ex, triangulateStage);
+            return;
+        }
+
+        handOff(triangulateStage, drawStage, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                draw(job);
+            }
+        });
+    }
+
+    private void draw(Job job)
+    {
+        try
+        {
+            job.positions = PlanarDrawingFactory.GetPlanarDrawingStrategy(drawingStrategy, tracer)
+                    .DrawOnPlaneCompact(job.triangulatedGraph, job.token);
+            job.finish(job.positions == null ? PlanarityResult.TIMED_OUT : PlanarityResult.PLANAR, drawStage);
+        }
+        catch (Throwable ex)
+        {
+            job.fail(ex, drawStage);
+        }
+    }
+
+    // moves a job to the next stage, or parks it there if the next stage is full. a parked job keeps its place in
+    // the current stage until it is started.
+    private void handOff(Stage current, Stage next, Runnable step)
+    {
+        if (next.enterOrPark(step, current))
+        {
+            current.leave();
+            executor.execute(step);
+        }
+    }
+
+    private static final class Job
+    {
+        final Graph graph;
+
+        final CancellationToken token;
+
+        final CompletableFuture<PlanarLayoutResult> result = new CompletableFuture<>();
+
+        Graph embeddedGraph;
+
+        Graph triangulatedGraph;
+
+        Coordinates2D positions;
+
+        Job(Graph graph, CancellationToken token)
+        {
+            this.graph = graph;
+            this.token = token;
+        }
+
+        void finish(PlanarityResult planarity, Stage stage)
+        {
+            stage.leave();
+            result.complete(new PlanarLayoutResult(planarity, embeddedGraph, triangulatedGraph, positions));
+        }
+
+        // errors such as StackOverflowError end up here too, otherwise the job would hold its place forever and
+        // its result would never complete
+        void fail(Throwable ex, Stage stage)
+        {
+            stage.leave();
+            result.completeExceptionally(ex);
+        }
+    }
+
+    // counts the jobs admitted to a stage. jobs that finished the previous stage wait in pending while it is full.
+    private final class Stage
+    {
+        private final int depth;
+
+        private final ArrayDeque<Runnable> pendingSteps = new ArrayDeque<>();
+
+        // stage whose place each pending job still holds
+        private final ArrayDeque<Stage> pendingHeldStages = new ArrayDeque<>();
+
+        private int admitted;
+
+        Stage(int depth)
+        {
+            this.depth = depth;
+        }
+
+        synchronized void waitForRoom() throws InterruptedException
+        {
+            while (admitted >= depth)
+            {
+                wait();
+            }
+            admitted++;
+        }
+
+        synchronized boolean enterOrPark(Runnable step, Stage heldStage)
+        {
+            if (admitted < depth)
+            {
+                admitted++;
+                return true;
+            }
+            pendingSteps.add(step);
+            pendingHeldStages.add(heldStage);
+            return false;
+        }
+
+        // frees the place of a job. the oldest pending job takes it over and frees its place in the previous stage.
+        void leave()
+        {
+            Runnable nextStep;
+            Stage heldStage;
+            synchronized (this)
+            {
+                nextStep = pendingSteps.poll();
+                heldStage = pendingHeldStages.poll();
+                if (nextStep == null)
+                {
+                    admitted--;
+                    notifyAll();
+                    return;
+                }
+            }
+            heldStage.leave();
+            executor.execute(nextStep);
+        }
+    }
+}
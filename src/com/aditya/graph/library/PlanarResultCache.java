@@ -0,0 +1,205 @@
+package com.aditya.graph.library;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size bounded cache of results of isPlanar, triangulate and DrawOnPlane. Entries are keyed by the strategy that
+ * computed them, including its mode, and by the structural fingerprint of the input graph, so a graph that is
+ * identical or isomorphic (up to the canonical numbering of the fingerprint) to an earlier input of the same strategy
+ * gets the earlier result remapped to its own node ids.
+ * The least recently used entries are evicted first. Optionally, entries are also written to a directory on disk
+ * and looked up there when they aren't in memory.
+ * <p>
+ * All the functions are thread safe.
+ */
+public class PlanarResultCache
+{
+    private final int capacity;
+
+    private final File diskDirectory;
+
+    private final LinkedHashMap<String, PlanarCacheEntry> entries;
+
+    private long hits;
+
+    private long diskHits;
+
+    private long misses;
+
+    /**
+     * Creates an in-memory cache.
+     *
+     * @param capacity Maximum number of entries kept in memory
+     */
+    public PlanarResultCache(int capacity)
+    {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a cache with an optional on-disk tier.
+     *
+     * @param capacity      Maximum number of entries kept in memory
+     * @param diskDirectory Directory in which entries are persisted. Pass null to keep entries only in memory.
+     */
+    public PlanarResultCache(final int capacity, File diskDirectory)
+    {
+        this.capacity = capacity;
+        this.diskDirectory = diskDirectory;
+        this.entries = new LinkedHashMap<String, PlanarCacheEntry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PlanarCacheEntry> eldest)
+            {
+                return size() > PlanarResultCache.this.capacity;
+            }
+        };
+
+        if (diskDirectory != null)
+        {
+            diskDirectory.mkdirs();
+        }
+    }
+
+    /**
+     * @return Number of lookups answered from memory or disk.
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * @return Number of lookups answered from the on-disk tier. These are counted in hits too.
+     */
+    public synchronized long getDiskHits()
+    {
+        return diskHits;
+    }
+
+    /**
+     * @return Number of lookups that found nothing.
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * @return Number of entries currently in memory.
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Removes all entries from memory. Entries on disk are left untouched.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Names a strategy and its mode. Strategies with different names may give different results for the same input,
+     * so they never share entries.
+     *
+     * @param strategy Strategy whose results are cached
+     * @return Class name of the strategy followed by its mode, if it has one
+     */
+    static String getStrategyKey(Object strategy)
+    {
+        String key = strategy.getClass().getName();
+        if (strategy instanceof DMPPlanarEmbeddingStrategy)
+        {
+            key += "." + ((DMPPlanarEmbeddingStrategy) strategy).getTriangulationMode().name();
+        }
+        else if (strategy instanceof ShiftPlanarDrawingStrategy)
+        {
+            key += "." + ((ShiftPlanarDrawingStrategy) strategy).getDrawingMode().name();
+        }
+
+        return key;
+    }
+
+    synchronized PlanarCacheEntry get(PlanarCacheStages stage, String strategyKey, GraphFingerprint fingerprint)
+    {
+        String key = getKey(stage, strategyKey, fingerprint);
+        PlanarCacheEntry entry = entries.get(key);
+        if (entry != null && entry.fingerprint.matches(fingerprint))
+        {
+            hits++;
+            return entry;
+        }
+
+        entry = readFromDisk(stage, key);
+        if (entry != null && entry.fingerprint.matches(fingerprint))
+        {
+            entries.put(key, entry);
+            hits++;
+            diskHits++;
+            return entry;
+        }
+
+        misses++;
+        return null;
+    }
+
+    synchronized void put(PlanarCacheStages stage, String strategyKey, PlanarCacheEntry entry)
+    {
+        String key = getKey(stage, strategyKey, entry.fingerprint);
+        entries.put(key, entry);
+        writeToDisk(stage, key, entry);
+    }
+
+    // the key is also the name of the file on disk
+    private String getKey(PlanarCacheStages stage, String strategyKey, GraphFingerprint fingerprint)
+    {
+        return stage.name().toLowerCase() + "-" + strategyKey + "-" + Long.toHexString(fingerprint.hash);
+    }
+
+    private PlanarCacheEntry readFromDisk(PlanarCacheStages stage, String key)
+    {
+        if (diskDirectory == null)
+        {
+            return null;
+        }
+
+        File file = new File(diskDirectory, key + ".cache");
+        if (!file.isFile())
+        {
+            return null;
+        }
+
+        try
+        {
+            return PlanarResultStore.readEntry(file.toPath(), stage);
+        }
+        catch (IOException ex)
+        {
+            // a corrupt or unreadable entry is as good as a missing one
+            return null;
+        }
+    }
+
+    private void writeToDisk(PlanarCacheStages stage, String key, PlanarCacheEntry entry)
+    {
+        if (diskDirectory == null)
+        {
+            return;
+        }
+
+        try
+        {
+            PlanarResultStore.writeEntry(new File(diskDirectory, key + ".cache").toPath(), stage, entry);
+        }
+        catch (IOException ex)
+        {
+            // the entry is still cached in memory
+        }
+    }
+}
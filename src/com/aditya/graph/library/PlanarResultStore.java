@@ -0,0 +1,148 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves results of isPlanar, triangulate and DrawOnPlane to files and loads them back, e.g. to serve them right
+ * after a restart. Files use the format of the on-disk tier of PlanarResultCache: a compact binary form with a
+ * CRC32 checksum, read by memory mapping the file. Every file carries the fingerprint of the graph it was computed
+ * for, and a result is handed out only to a graph with the same fingerprint. Like in the cache, that graph may be
+ * isomorphic to the original one and the result is then renumbered to its node ids.
+ */
+public final class PlanarResultStore
+{
+    private PlanarResultStore()
+    {
+    }
+
+    /**
+     * @param graph               Graph that was passed to isPlanar
+     * @param planarEmbeddedGraph Embedded graph built by isPlanar for the graph, which must be planar
+     * @param file                Path of the file. It is replaced if it exists.
+     * @throws IOException Throws an exception if the file couldn't be written
+     */
+    public static void saveEmbedding(Graph graph, Graph planarEmbeddedGraph, Path file) throws IOException
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(graph, false);
+        writeEntry(file, PlanarCacheStages.EMBEDDING, PlanarCacheEntry.fromGraph(fingerprint, true,
+                planarEmbeddedGraph));
+    }
+
+    /**
+     * @param graph               Graph to be embedded
+     * @param file                Path of a file written by saveEmbedding
+     * @param planarEmbeddedGraph Empty graph that receives the stored embedding
+     * @return True if the embedding got loaded. False if it was saved for a different graph.
+     * @throws IOException Throws an exception if the file couldn't be read or is corrupt
+     */
+    public static boolean loadEmbedding(Graph graph, Path file, Graph planarEmbeddedGraph) throws IOException
+    {
+        return loadGraph(GraphFingerprint.compute(graph, false), file, PlanarCacheStages.EMBEDDING,
+                planarEmbeddedGraph);
+    }
+
+    /**
+     * @param planarEmbeddedGraph Embedded graph that was passed to triangulate
+     * @param triangulatedGraph   Triangulated graph built for it
+     * @param file                Path of the file. It is replaced if it exists.
+     * @throws IOException Throws an exception if the file couldn't be written
+     */
+    public static void saveTriangulation(Graph planarEmbeddedGraph, Graph triangulatedGraph, Path file)
+            throws IOException
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(planarEmbeddedGraph, true);
+        writeEntry(file, PlanarCacheStages.TRIANGULATION, PlanarCacheEntry.fromGraph(fingerprint, true,
+                triangulatedGraph));
+    }
+
+    /**
+     * @param planarEmbeddedGraph Embedded graph to be triangulated. Its order of neighbors and faces must match the
+     *                            saved one.
+     * @param file                Path of a file written by saveTriangulation
+     * @param triangulatedGraph   Empty graph that receives the stored triangulation
+     * @return True if the triangulation got loaded. False if it was saved for a different graph.
+     * @throws IOException Throws an exception if the file couldn't be read or is corrupt
+     */
+    public static boolean loadTriangulation(Graph planarEmbeddedGraph, Path file, Graph triangulatedGraph)
+            throws IOException
+    {
+        return loadGraph(GraphFingerprint.compute(planarEmbeddedGraph, true), file, PlanarCacheStages.TRIANGULATION,
+                triangulatedGraph);
+    }
+
+    /**
+     * @param triangulatedGraph Triangulated graph that was drawn
+     * @param positions         Positions of its nodes
+     * @param file              Path of the file. It is replaced if it exists.
+     * @throws IOException Throws an exception if the file couldn't be written
+     */
+    public static void saveLayout(Graph triangulatedGraph, Coordinates2D positions, Path file) throws IOException
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(triangulatedGraph, true);
+        writeEntry(file, PlanarCacheStages.DRAWING, PlanarCacheEntry.fromCoordinates(fingerprint, positions));
+    }
+
+    /**
+     * @param triangulatedGraph Triangulated graph to be drawn
+     * @param file              Path of a file written by saveLayout
+     * @return Stored positions of the nodes, or null if they were saved for a different graph
+     * @throws IOException Throws an exception if the file couldn't be read or is corrupt
+     */
+    public static Coordinates2D loadLayout(Graph triangulatedGraph, Path file) throws IOException
+    {
+        GraphFingerprint fingerprint = GraphFingerprint.compute(triangulatedGraph, true);
+        PlanarCacheEntry entry = readEntry(file, PlanarCacheStages.DRAWING);
+        return entry.fingerprint.matches(fingerprint) ? entry.getCoordinates(fingerprint) : null;
+    }
+
+    static PlanarCacheEntry readEntry(Path file, PlanarCacheStages stage) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("File is too large for a stored result.");
+            }
+            return PlanarCacheEntry.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), stage);
+        }
+    }
+
+    static void writeEntry(Path file, PlanarCacheStages stage, PlanarCacheEntry entry) throws IOException
+    {
+        // write to a temporary file first so that readers never see half written entries
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            entry.write(channel, stage);
+        }
+        catch (IOException ex)
+        {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static boolean loadGraph(
+            GraphFingerprint fingerprint,
+            Path file,
+            PlanarCacheStages stage,
+            Graph outputGraph) throws IOException
+    {
+        PlanarCacheEntry entry = readEntry(file, stage);
+        if (!entry.fingerprint.matches(fingerprint) || entry.neighbors == null)
+        {
+            return false;
+        }
+        entry.copyTo(fingerprint, outputGraph);
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.aditya.graph.library;
+
+public enum PlanarityResult
+{
+    PLANAR,
+
+    NOT_PLANAR,
+
+    TIMED_OUT
+}
@@ -0,0 +1,204 @@
+package com.aditya.graph.library;
+
+import com.aditya.general.utilities.Coordinates2D;
+import com.aditya.general.utilities.Point2D;
+
+import java.util.ArrayList;
+import java.util.stream.IntStream;
+
+public class SchnyderPlanarDrawingStrategy implements IPlanarDrawingMethods
+{
+    // below this many nodes, counting regions on multiple threads costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final IPlanarTracer tracer;
+
+    public SchnyderPlanarDrawingStrategy()
+    {
+        this(NoOpPlanarTracer.INSTANCE);
+    }
+
+    /**
+     * @param tracer Tracer that receives the canonical ordering of nodes
+     */
+    public SchnyderPlanarDrawingStrategy(IPlanarTracer tracer)
+    {
+        this.tracer = tracer;
+    }
+
+    /**
+     * In this algorithm we split the inner edges of the graph into three trees, namely a Schnyder realizer, rooted
+     * at the three outer nodes. Paths from a node to the three roots split the graph into three regions, and the
+     * number of nodes in each region gives barycentric coordinates of the node. All the nodes end up on a grid of
+     * size (n - 1) x (n - 1), with the outer nodes at (0, 0), (n - 1, 0) and (0, n - 1).
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @return List of 2D points that represent positions of nodes in embedded graph.
+     */
+    @Override
+    public ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph)
+    {
+        return DrawOnPlane(triangulatedPlanarGraph, CancellationToken.NONE);
+    }
+
+    /**
+     * Same as DrawOnPlane. The token is checked once for every node ordered and every node placed.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return List of 2D points that represent positions of nodes in embedded graph or null if the token got
+     * cancelled before the drawing was complete
+     */
+    @Override
+    public ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        Coordinates2D coordinates = DrawOnPlaneCompact(triangulatedPlanarGraph, token);
+        return coordinates == null ? null : coordinates.toPoints();
+    }
+
+    /**
+     * Same as DrawOnPlane but returns the positions as arrays of coordinates.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return Coordinates of the nodes or null if the token got cancelled before the drawing was complete
+     */
+    @Override
+    public Coordinates2D DrawOnPlaneCompact(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        try
+        {
+            return drawOnPlaneInternal(triangulatedPlanarGraph, token);
+        }
+        catch (OperationCancelledException ex)
+        {
+            return null;
+        }
+    }
+
+    private Coordinates2D drawOnPlaneInternal(Graph triangulatedPlanarGraph, final CancellationToken token)
+    {
+        final int nodesCount = triangulatedPlanarGraph.nodesCount;
+        int[] leftNeighbors = new int[nodesCount];
+        int[] rightNeighbors = new int[nodesCount];
+        int[] coveringNodes = new int[nodesCount];
+
+        tracer.phaseStarted(PlanarPhases.CANONICAL_ORDERING);
+        int[] canonicalOrder = CanonicalOrdering.compute(
+                triangulatedPlanarGraph, token, leftNeighbors, rightNeighbors, coveringNodes);
+        tracer.phaseFinished(PlanarPhases.CANONICAL_ORDERING);
+
+        tracer.canonicalOrderComputed(canonicalOrder);
+
+        // Realizer: when vk is placed, its edge to the left neighbor goes to the 1st tree, its edge to the right
+        // neighbor goes to the 2nd tree and the edges from the nodes it covers go to the 3rd tree. Roots are v1, v2
+        // and vn. Nodes other than the roots are inner nodes and have a parent in each tree.
+        tracer.phaseStarted(PlanarPhases.SCHNYDER_REALIZER);
+        int[][] parents = {leftNeighbors, rightNeighbors, coveringNodes};
+        final int[] roots = {canonicalOrder[0], canonicalOrder[1], canonicalOrder[nodesCount - 1]};
+
+        // parents of the first two trees come earlier in canonical order, parents of the 3rd tree come later. so
+        // canonical order (or its reverse) visits each tree from the root down to the leaves.
+        int[][] topDownOrders = new int[3][];
+        topDownOrders[0] = topDownOrders[1] = canonicalOrder;
+        topDownOrders[2] = new int[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
+        {
+            topDownOrders[2][i] = canonicalOrder[nodesCount - 1 - i];
+        }
+
+        // number of nodes in the subtree of each node, and number of nodes on the path from each node to the root
+        final int[][] subtreeSizes = new int[3][nodesCount];
+        final int[][] pathLengths = new int[3][nodesCount];
+        for (int tree = 0; tree < 3; tree++)
+        {
+            token.throwIfCancelled();
+            int[] order = topDownOrders[tree];
+            for (int i = nodesCount - 1; i >= 0; i--)
+            {
+                int node = order[i];
+                subtreeSizes[tree][node]++;
+                if (isInnerNode(node, roots))
+                {
+                    subtreeSizes[tree][parents[tree][node]] += subtreeSizes[tree][node];
+                }
+            }
+            for (int i = 0; i < nodesCount; i++)
+            {
+                int node = order[i];
+                pathLengths[tree][node] = isInnerNode(node, roots) ? pathLengths[tree][parents[tree][node]] + 1 : 1;
+            }
+        }
+
+        // pathSums[pathTree][sizeTree][v] is the sum of subtree sizes in sizeTree over nodes on the path from v to
+        // the root of pathTree, root excluded
+        final long[][][] pathSums = new long[3][3][];
+        for (int pathTree = 0; pathTree < 3; pathTree++)
+        {
+            for (int sizeTree = 0; sizeTree < 3; sizeTree++)
+            {
+                if (pathTree == sizeTree)
+                {
+                    continue;
+                }
+                token.throwIfCancelled();
+                long[] sums = new long[nodesCount];
+                int[] order = topDownOrders[pathTree];
+                for (int i = 0; i < nodesCount; i++)
+                {
+                    int node = order[i];
+                    if (isInnerNode(node, roots))
+                    {
+                        sums[node] = sums[parents[pathTree][node]] + subtreeSizes[sizeTree][node];
+                    }
+                }
+                pathSums[pathTree][sizeTree] = sums;
+            }
+        }
+        tracer.phaseFinished(PlanarPhases.SCHNYDER_REALIZER);
+
+        // Region i of v is bounded by the paths from v in the other two trees. Every node in it reaches one of these
+        // paths by going up the i-th tree, so it is counted in the subtree of exactly one node on these paths. v is
+        // on both the paths, and both the roots at the far ends aren't part of the i-th tree.
+        tracer.phaseStarted(PlanarPhases.SCHNYDER_PLACEMENT);
+        final Coordinates2D coordinates = new Coordinates2D(nodesCount);
+        IntStream nodes = IntStream.range(0, nodesCount);
+        if (nodesCount >= PARALLEL_THRESHOLD)
+        {
+            nodes = nodes.parallel();
+        }
+        nodes.forEach(node ->
+        {
+            token.throwIfCancelled();
+            if (!isInnerNode(node, roots))
+            {
+                return;
+            }
+            coordinates.x[node] = getRegionCoordinate(0, node, subtreeSizes, pathLengths, pathSums);
+            coordinates.y[node] = getRegionCoordinate(1, node, subtreeSizes, pathLengths, pathSums);
+        });
+        coordinates.x[roots[0]] = nodesCount - 1;
+        coordinates.y[roots[1]] = nodesCount - 1;
+        tracer.phaseFinished(PlanarPhases.SCHNYDER_PLACEMENT);
+
+        return coordinates;
+    }
+
+    private static long getRegionCoordinate(
+            int tree,
+            int node,
+            int[][] subtreeSizes,
+            int[][] pathLengths,
+            long[][][] pathSums)
+    {
+        int next = (tree + 1) % 3;
+        int prev = (tree + 2) % 3;
+        long regionSize = 2 + pathSums[next][tree][node] + pathSums[prev][tree][node] - subtreeSizes[tree][node];
+        return regionSize - pathLengths[prev][node];
+    }
+
+    private static boolean isInnerNode(int node, int[] roots)
+    {
+        return node != roots[0] && node != roots[1] && node != roots[2];
+    }
+}
@@ -0,0 +1,8 @@
+package com.aditya.graph.library;
+
+public enum ShiftDrawingModes
+{
+    DEPENDENT_SETS,
+
+    RELATIVE_OFFSETS
+}
@@ -1,5 +1,6 @@
 package com.aditya.graph.library;
 
+import com.aditya.general.utilities.Coordinates2D;
 import com.aditya.general.utilities.Point2D;
 
 import java.util.ArrayList;
@@ -8,6 +9,38 @@ import java.util.LinkedList;
 
 public class ShiftPlanarDrawingStrategy implements IPlanarDrawingMethods
 {
+    private final IPlanarTracer tracer;
+
+    private final ShiftDrawingModes drawingMode;
+
+    public ShiftPlanarDrawingStrategy()
+    {
+        this(NoOpPlanarTracer.INSTANCE);
+    }
+
+    /**
+     * @param tracer Tracer that receives the canonical ordering of nodes
+     */
+    public ShiftPlanarDrawingStrategy(IPlanarTracer tracer)
+    {
+        this(tracer, ShiftDrawingModes.DEPENDENT_SETS);
+    }
+
+    /**
+     * @param tracer      Tracer that receives the canonical ordering of nodes
+     * @param drawingMode The way nodes are shifted while new nodes are placed. Both modes give the same positions.
+     */
+    public ShiftPlanarDrawingStrategy(IPlanarTracer tracer, ShiftDrawingModes drawingMode)
+    {
+        this.tracer = tracer;
+        this.drawingMode = drawingMode;
+    }
+
+    ShiftDrawingModes getDrawingMode()
+    {
+        return drawingMode;
+    }
+
     /**
      * In this algorithm we first compute an ordering of vertices, namely canonical ordering, which makes sure that
      * every sub-graph containing first k vertices is 2-connected and is internally triangulated. Next, we keep
@@ -19,10 +52,78 @@ public class ShiftPlanarDrawingStrategy implements IPlanarDrawingMethods
     @Override
     public ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph)
     {
-        int[] canonicalOrder = getCanonicalOrder(triangulatedPlanarGraph);
+        return DrawOnPlane(triangulatedPlanarGraph, CancellationToken.NONE);
+    }
 
-        printOrdering(canonicalOrder);
+    /**
+     * Same as DrawOnPlane. The token is checked once for every node ordered and every node placed.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return List of 2D points that represent positions of nodes in embedded graph or null if the token got
+     * cancelled before the drawing was complete
+     */
+    @Override
+    public ArrayList<Point2D> DrawOnPlane(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        try
+        {
+            int[] canonicalOrder = computeCanonicalOrder(triangulatedPlanarGraph, token);
+            if (drawingMode == ShiftDrawingModes.RELATIVE_OFFSETS)
+            {
+                return placeNodesWithRelativeOffsets(triangulatedPlanarGraph, canonicalOrder, token).toPoints();
+            }
+            return placeNodesWithDependentSets(triangulatedPlanarGraph, canonicalOrder, token);
+        }
+        catch (OperationCancelledException ex)
+        {
+            return null;
+        }
+    }
 
+    /**
+     * Same as DrawOnPlane but returns the positions as arrays of coordinates. In RELATIVE_OFFSETS mode no point
+     * objects are created at all.
+     *
+     * @param triangulatedPlanarGraph Fully triangulated graph built by the triangulate function.
+     * @param token                   Token that bounds the time spent
+     * @return Coordinates of the nodes or null if the token got cancelled before the drawing was complete
+     */
+    @Override
+    public Coordinates2D DrawOnPlaneCompact(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        try
+        {
+            int[] canonicalOrder = computeCanonicalOrder(triangulatedPlanarGraph, token);
+            if (drawingMode == ShiftDrawingModes.RELATIVE_OFFSETS)
+            {
+                return placeNodesWithRelativeOffsets(triangulatedPlanarGraph, canonicalOrder, token);
+            }
+            ArrayList<Point2D> nodePositions =
+                    placeNodesWithDependentSets(triangulatedPlanarGraph, canonicalOrder, token);
+            return Coordinates2D.fromPoints(nodePositions);
+        }
+        catch (OperationCancelledException ex)
+        {
+            return null;
+        }
+    }
+
+    private int[] computeCanonicalOrder(Graph triangulatedPlanarGraph, CancellationToken token)
+    {
+        tracer.phaseStarted(PlanarPhases.CANONICAL_ORDERING);
+        int[] canonicalOrder = CanonicalOrdering.compute(triangulatedPlanarGraph, token);
+        tracer.phaseFinished(PlanarPhases.CANONICAL_ORDERING);
+
+        tracer.canonicalOrderComputed(canonicalOrder);
+        return canonicalOrder;
+    }
+
+    private ArrayList<Point2D> placeNodesWithDependentSets(
+            Graph triangulatedPlanarGraph,
+            int[] canonicalOrder,
+            CancellationToken token)
+    {
         ArrayList<Point2D> nodePositions = new ArrayList<>();
         ArrayList<HashSet<Integer>> dependentVertices = new ArrayList<>();
         LinkedList<Integer> currentCycle = new LinkedList<>();
@@ -52,8 +153,11 @@ public class ShiftPlanarDrawingStrategy implements IPlanarDrawingMethods
         currentCycle.add(canonicalOrder[1]);
 
         // keep embedding new nodes and adjusting positions of existing nodes
+        tracer.phaseStarted(PlanarPhases.SHIFT_PLACEMENT);
         for (int i = 3; i < canonicalOrder.length; i++)
         {
+            token.throwIfCancelled();
+
             // build list of already embedded neighbors
             LinkedList<Integer> neighborsOnCycle = new LinkedList<>();
             HashSet<Integer> neighborsOfNode = new HashSet<>();
@@ -126,191 +230,179 @@ public class ShiftPlanarDrawingStrategy implements IPlanarDrawingMethods
 
             currentCycle.addAll(toMoveRight);
         }
+        tracer.phaseFinished(PlanarPhases.SHIFT_PLACEMENT);
 
         return nodePositions;
     }
 
-    private void moveNodes(
-            LinkedList<Integer> parents,
-            int amount,
-            ArrayList<HashSet<Integer>> dependentNodes,
-            ArrayList<Point2D> positions)
-    {
-        HashSet<Integer> allNodesToMove = new HashSet<>();
-        for (Integer node : parents)
-        {
-            allNodesToMove.addAll(dependentNodes.get(node));
-        }
-
-        for (Integer node : allNodesToMove)
-        {
-            positions.get(node).x = positions.get(node).x + amount;
-        }
-    }
-
-    private Point2D findNewNodePosition(Point2D left, Point2D right)
-    {
-        Point2D newPoint = new Point2D();
-        newPoint.x = (left.x + right.x + right.y - left.y) / 2;
-        newPoint.y = (left.y + right.y + right.x - left.x) / 2;
-        return newPoint;
-    }
-
-    private void setPosition(Point2D point, int x, int y)
-    {
-        point.x = x;
-        point.y = y;
-    }
-
-    private void printOrdering(int[] canonicalOrder)
+    // Shift method of Chrobak and Payne. Instead of moving all the dependent nodes of a node, x coordinate of every
+    // node is stored relative to its parent in a binary tree. Right child of each node on the outer cycle is the next
+    // node on the cycle. Left child of a new node is the first node it covers, whose right children are the rest of
+    // the nodes it covers. Shifting a node along with its dependents is then just a change of its own offset, and
+    // the absolute x coordinates are computed by a single traversal of the tree at the end.
+    private Coordinates2D placeNodesWithRelativeOffsets(
+            Graph triangulatedPlanarGraph,
+            int[] canonicalOrder,
+            CancellationToken token)
     {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < canonicalOrder.length; i++)
+        tracer.phaseStarted(PlanarPhases.SHIFT_PLACEMENT);
+        int nodesCount = canonicalOrder.length;
+        int[] offsets = new int[nodesCount];
+        int[] yPositions = new int[nodesCount];
+        int[] leftChild = new int[nodesCount];
+        int[] rightChild = new int[nodesCount];
+        int[] neighborStamps = new int[nodesCount];
+        boolean[] isEmbedded = new boolean[nodesCount];
+
+        for (int i = 0; i < nodesCount; i++)
         {
-            builder.append(canonicalOrder[i] + " ");
+            leftChild[i] = rightChild[i] = -1;
+            neighborStamps[i] = -1;
         }
-        System.out.println(builder.toString());
-    }
-
-    private int[] getCanonicalOrder(Graph triangulatedGraph)
-    {
-        int[] ordering = new int[triangulatedGraph.nodesCount];
-        int firstNodeDegree = triangulatedGraph.nodes.get(0).neighbors.size();
-        // we use this to maintain list of nodes in the same sequence
-        // this sequence is required to get neighbors of nodes in correct order
-        LinkedList<Integer> currentOuterNodes = new LinkedList<>();
-
-        // choose any two nodes as base nodes
-        ordering[0] = 0;
-        ordering[triangulatedGraph.nodes.get(0).neighbors.get(0).dest] = 1;
-
-        boolean[] isMarked = new boolean[triangulatedGraph.nodesCount];
-        boolean[] isOuterNode = new boolean[triangulatedGraph.nodesCount];
-        int[] chordCount = new int[triangulatedGraph.nodesCount];
 
-        for (int i = 0; i < triangulatedGraph.nodesCount; i++)
+        // first 3 nodes are at (0, 0), (2, 0) and (1, 1)
+        int firstNode = canonicalOrder[0];
+        int secondNode = canonicalOrder[1];
+        int thirdNode = canonicalOrder[2];
+        offsets[thirdNode] = 1;
+        yPositions[thirdNode] = 1;
+        offsets[secondNode] = 1;
+        rightChild[firstNode] = thirdNode;
+        rightChild[thirdNode] = secondNode;
+        isEmbedded[firstNode] = isEmbedded[secondNode] = isEmbedded[thirdNode] = true;
+
+        for (int i = 3; i < nodesCount; i++)
         {
-            isMarked[i] = isOuterNode[i] = false;
-            chordCount[i] = 0;
-        }
-        isOuterNode[0] = true;
-        isOuterNode[triangulatedGraph.nodes.get(0).neighbors.get(0).dest] = true;
-        isOuterNode[triangulatedGraph.nodes.get(0).neighbors.get(firstNodeDegree - 1).dest] = true;
+            token.throwIfCancelled();
 
-        currentOuterNodes.add(0);
-        currentOuterNodes.add(triangulatedGraph.nodes.get(0).neighbors.get(firstNodeDegree - 1).dest);
-        currentOuterNodes.add(triangulatedGraph.nodes.get(0).neighbors.get(0).dest);
+            int curNode = canonicalOrder[i];
+            ArrayList<Edge> neighbors = triangulatedPlanarGraph.nodes.get(curNode).neighbors;
+            int degree = neighbors.size();
 
-        int j;
-        for (int i = triangulatedGraph.nodesCount - 1; i > 1; i--)
-        {
-            // choose an unmarked outer node that doesn't have any chords
-            for (j = 1; j < triangulatedGraph.nodesCount; j++)
+            // embedded neighbors are next to each other in neighbors of the node. find both ends of that sequence.
+            int leftNeighbor = -1;
+            int rightNeighbor = -1;
+            for (int j = 0; j < degree; j++)
             {
-                if (!isMarked[j] && isOuterNode[j] && chordCount[j] == 0 && 1 != ordering[j])
+                int neighbor = neighbors.get(j).dest;
+                if (isEmbedded[neighbor])
                 {
-                    break;
+                    neighborStamps[neighbor] = i;
+                    if (!isEmbedded[neighbors.get((j + degree - 1) % degree).dest])
+                    {
+                        leftNeighbor = neighbor;
+                    }
+                    if (!isEmbedded[neighbors.get((j + 1) % degree).dest])
+                    {
+                        rightNeighbor = neighbor;
+                    }
                 }
             }
-            // mark this node and assign it order number of i
-            isMarked[j] = true;
-            isOuterNode[j] = false;
-            ordering[j] = i;
+            if (leftNeighbor == -1)
+            {
+                // the last node covers the whole outer cycle
+                leftNeighbor = firstNode;
+                rightNeighbor = secondNode;
+            }
+            else if (rightChild[leftNeighbor] == -1 || neighborStamps[rightChild[leftNeighbor]] != i)
+            {
+                // the next node on the outer cycle isn't a neighbor, so the ends are the other way around
+                int temp = leftNeighbor;
+                leftNeighbor = rightNeighbor;
+                rightNeighbor = temp;
+            }
 
-            // let us update outer nodes and chords
-            updateChordCounts(j, isMarked, isOuterNode, chordCount, currentOuterNodes, triangulatedGraph);
-        }
+            // shift the covered nodes by 1 and the nodes right of them by 2
+            int firstCovered = rightChild[leftNeighbor];
+            offsets[firstCovered]++;
+            offsets[rightNeighbor]++;
 
-        int[] orderedNodes = new int[triangulatedGraph.nodesCount];
-        for (int i = 0; i < ordering.length; i++)
-        {
-            orderedNodes[ordering[i]] = i;
-        }
-        return orderedNodes;
-    }
+            int distance = 0;
+            int lastCovered = leftNeighbor;
+            for (int node = firstCovered; node != rightNeighbor; node = rightChild[node])
+            {
+                distance += offsets[node];
+                lastCovered = node;
+            }
+            distance += offsets[rightNeighbor];
 
-    private void updateChordCounts(
-            int curNode,
-            boolean[] isMarked,
-            boolean[] isOuter,
-            int[] chordCount,
-            LinkedList<Integer> currentOuterNodes,
-            Graph graph)
-    {
-        // go through all outer neighbors. if count is just 2, then reduce count of chords for both of them.
-        // otherwise iterate neighbors of each node and increase counts appropriately
-        ArrayList<Integer> outerSequence = new ArrayList<>();
+            offsets[curNode] = (distance + yPositions[rightNeighbor] - yPositions[leftNeighbor]) / 2;
+            yPositions[curNode] = (distance + yPositions[rightNeighbor] + yPositions[leftNeighbor]) / 2;
+            offsets[rightNeighbor] = distance - offsets[curNode];
 
-        for (Edge edge : graph.nodes.get(curNode).neighbors)
-        {
-            if (!isMarked[edge.dest])
+            // hang the covered nodes under the new node
+            if (firstCovered != rightNeighbor)
             {
-                outerSequence.add(edge.dest);
-                isOuter[edge.dest] = true;
+                offsets[firstCovered] -= offsets[curNode];
+                leftChild[curNode] = firstCovered;
+                rightChild[lastCovered] = -1;
             }
+            rightChild[leftNeighbor] = curNode;
+            rightChild[curNode] = rightNeighbor;
+            isEmbedded[curNode] = true;
         }
 
-        int minIdx = currentOuterNodes.size(), minIdxNode = -1;
-        int maxIdx = -1;
-        int curNodeIdx;
-        for (Integer node : outerSequence)
+        // accumulate offsets from the root. the first node ends up where the dependent sets mode leaves it.
+        double[] xPositions = new double[nodesCount];
+        int[] stack = new int[nodesCount];
+        int stackSize = 0;
+        xPositions[firstNode] = 3 - nodesCount;
+        stack[stackSize++] = firstNode;
+        while (stackSize > 0)
         {
-            curNodeIdx = currentOuterNodes.indexOf(node);
-            if (curNodeIdx == -1)
+            int node = stack[--stackSize];
+            if (leftChild[node] != -1)
             {
-                continue;
+                xPositions[leftChild[node]] = xPositions[node] + offsets[leftChild[node]];
+                stack[stackSize++] = leftChild[node];
             }
-            if (curNodeIdx < minIdx)
+            if (rightChild[node] != -1)
             {
-                minIdx = curNodeIdx;
-                minIdxNode = node;
-            }
-            if (curNodeIdx > maxIdx)
-            {
-                maxIdx = curNodeIdx;
+                xPositions[rightChild[node]] = xPositions[node] + offsets[rightChild[node]];
+                stack[stackSize++] = rightChild[node];
             }
         }
 
-        int outerSeqSize = outerSequence.size();
-        while (outerSequence.get(0) != minIdxNode)
+        double[] yCoordinates = new double[nodesCount];
+        for (int i = 0; i < nodesCount; i++)
         {
-            int temp = outerSequence.remove(outerSeqSize - 1);
-            outerSequence.add(0, temp);
+            yCoordinates[i] = yPositions[i];
         }
+        tracer.phaseFinished(PlanarPhases.SHIFT_PLACEMENT);
 
-        // now update current outer nodes
-        LinkedList<Integer> newOuterNodes = new LinkedList<>();
-        newOuterNodes.addAll(currentOuterNodes.subList(0, minIdx + 1));
-        newOuterNodes.addAll(outerSequence.subList(1, outerSeqSize - 1));
-        newOuterNodes.addAll(currentOuterNodes.subList(maxIdx, currentOuterNodes.size()));
-        currentOuterNodes.clear();
-        currentOuterNodes.addAll(newOuterNodes);
+        return new Coordinates2D(xPositions, yCoordinates);
+    }
 
-        if (outerSequence.size() == 2)
+    private void moveNodes(
+            LinkedList<Integer> parents,
+            int amount,
+            ArrayList<HashSet<Integer>> dependentNodes,
+            ArrayList<Point2D> positions)
+    {
+        HashSet<Integer> allNodesToMove = new HashSet<>();
+        for (Integer node : parents)
         {
-            chordCount[outerSequence.get(0)]--;
-            chordCount[outerSequence.get(1)]--;
+            allNodesToMove.addAll(dependentNodes.get(node));
         }
-        else
+
+        for (Integer node : allNodesToMove)
         {
-            // go through all nodes that were not outer in previous iteration
-            // increase chord count of each
-            HashSet<String> markedEdges = new HashSet<>();
-            for (int i = 1; i < outerSequence.size() - 1; i++)
-            {
-                for (Edge edge : graph.nodes.get(outerSequence.get(i)).neighbors)
-                {
-                    if (isOuter[edge.dest] &&
-                            edge.dest != outerSequence.get(i - 1) &&
-                            edge.dest != outerSequence.get(i + 1) &&
-                            !markedEdges.contains(Helpers.getStringForEdge(edge)))
-                    {
-                        markedEdges.add(Helpers.getStringForEdge(edge));
-                        chordCount[outerSequence.get(i)]++;
-                        chordCount[edge.dest]++;
-                    }
-                }
-            }
+            positions.get(node).x = positions.get(node).x + amount;
         }
+        tracer.counterIncremented(PlanarCounters.SHIFT_MOVES, allNodesToMove.size());
+    }
+
+    private Point2D findNewNodePosition(Point2D left, Point2D right)
+    {
+        Point2D newPoint = new Point2D();
+        newPoint.x = (left.x + right.x + right.y - left.y) / 2;
+        newPoint.y = (left.y + right.y + right.x - left.x) / 2;
+        return newPoint;
+    }
+
+    private void setPosition(Point2D point, int x, int y)
+    {
+        point.x = x;
+        point.y = y;
     }
 }
@@ -0,0 +1,8 @@
+package com.aditya.graph.library;
+
+public enum TriangulationModes
+{
+    BRUTE_FORCE,
+
+    LINEAR
+}
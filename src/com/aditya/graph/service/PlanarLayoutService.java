@@ -0,0 +1,507 @@
+package com.aditya.graph.service;
+
+import com.aditya.general.utilities.Coordinates2D;
+import com.aditya.graph.library.CancellationToken;
+import com.aditya.graph.library.ComponentLayoutDriver;
+import com.aditya.graph.library.CsrGraph;
+import com.aditya.graph.library.Edge;
+import com.aditya.graph.library.EdgeListGraphReader;
+import com.aditya.graph.library.Graph;
+import com.aditya.graph.library.GraphFormatException;
+import com.aditya.graph.library.Helpers;
+import com.aditya.graph.library.PlanarDrawingStrategies;
+import com.aditya.graph.library.PlanarEmbeddingStrategies;
+import com.aditya.graph.library.PlanarLayoutResult;
+import com.aditya.graph.library.PlanarPipeline;
+import com.aditya.graph.library.PlanarityResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP endpoint that embeds and draws graphs, built on the HTTP server of the JDK. Requests are handled on virtual
+ * threads when the runtime has them and on a cached thread pool otherwise.
+ * <p>
+ * POST /layout takes a graph in the body, as an edge list (the default, or ?format=edgelist) or as a CsrGraph file
+ * (?format=csr), and answers with JSON: {"planar":false} or {"planar":true,"embedding":[...],"coordinates":[...]},
+ * where embedding holds the neighbors of each node in the order of the planar embedding and coordinates holds the
+ * position of each node. GET /health answers "ok".
+ * <p>
+ * Identical bodies that arrive while one of them is being laid out share that computation. At most
+ * maxPendingRequests requests are admitted at once; others get 503 right away, so a burst can't pile up unbounded
+ * work. 2-connected graphs go through a PlanarPipeline. Any other graph, e.g. a disconnected one or one with a cut
+ * vertex, is laid out by a ComponentLayoutDriver. In both cases the embedding is read off the drawing, so it always
+ * agrees with the coordinates.
+ */
+public class PlanarLayoutService
+{
+    // bodies larger than this are rejected
+    private static final int MAX_BODY_SIZE = 64 << 20;
+
+    private static final int STATUS_OK = 200;
+
+    private static final int STATUS_BAD_REQUEST = 400;
+
+    private static final int STATUS_NOT_FOUND = 404;
+
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+
+    private static final int STATUS_TOO_LARGE = 413;
+
+    private static final int STATUS_INTERNAL_ERROR = 500;
+
+    private static final int STATUS_UNAVAILABLE = 503;
+
+    private final HttpServer server;
+
+    private final ExecutorService requestExecutor;
+
+    private final PlanarPipeline pipeline;
+
+    private final ComponentLayoutDriver layoutDriver;
+
+    private final Semaphore admission;
+
+    private final long timeoutMillis;
+
+    // responses being computed, by format and digest of the body
+    private final ConcurrentHashMap<String, CompletableFuture<Response>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the service. It doesn't accept requests until start is called.
+     *
+     * @param address            Address to listen on. Port 0 picks a free port.
+     * @param embeddingStrategy  Strategy used to embed and triangulate the graphs
+     * @param drawingStrategy    Strategy used to draw the graphs
+     * @param maxPendingRequests Number of requests admitted at once
+     * @param timeoutMillis      Time after which the layout of a request is given up
+     * @throws IOException Throws an exception if the address couldn't be bound
+     */
+    public PlanarLayoutService(
+            InetSocketAddress address,
+            PlanarEmbeddingStrategies embeddingStrategy,
+            PlanarDrawingStrategies drawingStrategy,
+            int maxPendingRequests,
+            long timeoutMillis) throws IOException
+    {
+        this.server = HttpServer.create(address, 0);
+        this.requestExecutor = newRequestExecutor();
+        this.pipeline = new PlanarPipeline(embeddingStrategy, drawingStrategy);
+        this.layoutDriver = new ComponentLayoutDriver(embeddingStrategy, drawingStrategy);
+        this.admission = new Semaphore(maxPendingRequests);
+        this.timeoutMillis = timeoutMillis;
+
+        server.setExecutor(requestExecutor);
+        server.createContext("/layout", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                handleLayout(exchange);
+            }
+        });
+        server.createContext("/health", new HttpHandler()
+        {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                send(exchange, new Response(STATUS_OK, "ok"));
+            }
+        });
+    }
+
+    /**
+     * Starts a service on the loopback address.
+     *
+     * @param args Optional port, 8080 by default
+     * @throws IOException Throws an exception if the port couldn't be bound
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        PlanarLayoutService service = new PlanarLayoutService(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                PlanarEmbeddingStrategies.DMP,
+                PlanarDrawingStrategies.SCHNYDER,
+                64,
+                TimeUnit.SECONDS.toMillis(30));
+        service.start();
+        System.out.println("Listening on " + service.getAddress());
+    }
+
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits for at most the given time for the current ones and releases the threads.
+     *
+     * @param delaySeconds Time given to requests being handled
+     */
+    public void stop(int delaySeconds)
+    {
+        server.stop(delaySeconds);
+        requestExecutor.shutdown();
+    }
+
+    /**
+     * @return Address the service listens on, with the actual port
+     */
+    public InetSocketAddress getAddress()
+    {
+        return server.getAddress();
+    }
+
+    private void handleLayout(HttpExchange exchange) throws IOException
+    {
+        // contexts match by prefix, so /layout/something ends up here too
+        if (!exchange.getRequestURI().getPath().equals("/layout"))
+        {
+            send(exchange, new Response(STATUS_NOT_FOUND, error("Unknown path.")));
+            return;
+        }
+        if (!"POST".equals(exchange.getRequestMethod()))
+        {
+            send(exchange, new Response(STATUS_METHOD_NOT_ALLOWED, error("Use POST.")));
+            return;
+        }
+        if (!admission.tryAcquire())
+        {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, new Response(STATUS_UNAVAILABLE, error("Too many requests.")));
+            return;
+        }
+
+        try
+        {
+            String format = getFormat(exchange.getRequestURI().getRawQuery());
+            byte[] body = readBody(exchange.getRequestBody());
+            if (format == null)
+            {
+                send(exchange, new Response(STATUS_BAD_REQUEST, error("Unknown format.")));
+            }
+            else if (body == null)
+            {
+                send(exchange, new Response(STATUS_TOO_LARGE, error("Graph is too large.")));
+            }
+            else
+            {
+                send(exchange, getCoalesced(format, body));
+            }
+        }
+        finally
+        {
+            admission.release();
+        }
+    }
+
+    // computes the response, or waits for the same body that is being computed by another request
+    private Response getCoalesced(String format, byte[] body)
+    {
+        String key = format + ":" + digest(body);
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        CompletableFuture<Response> existing = inFlight.putIfAbsent(key, response);
+        if (existing != null)
+        {
+            return existing.join();
+        }
+
+        try
+        {
+            response.complete(computeResponse(format, body));
+        }
+        catch (Throwable ex)
+        {
+            // errors such as OutOfMemoryError are answered too, otherwise requests waiting for the same body would
+            // wait forever
+            response.complete(new Response(STATUS_INTERNAL_ERROR, error("Layout failed: " + ex)));
+        }
+        finally
+        {
+            inFlight.remove(key, response);
+        }
+        return response.join();
+    }
+
+    private Response computeResponse(String format, byte[] body)
+    {
+        Graph graph;
+        try
+        {
+            graph = parseGraph(format, body);
+        }
+        catch (GraphFormatException | IOException ex)
+        {
+            return new Response(STATUS_BAD_REQUEST, error(ex.getMessage()));
+        }
+
+        if (graph.nodesCount == 0)
+        {
+            return new Response(STATUS_BAD_REQUEST, error("Graph has no nodes."));
+        }
+
+        CancellationToken token = CancellationToken.withTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (!isBiconnected(graph))
+        {
+            return computeComponentsResponse(graph, token);
+        }
+
+        PlanarLayoutResult result;
+        try
+        {
+            result = pipeline.submit(graph, token).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException ex)
+        {
+            // the token stops the strategies at their next check, but not every step checks it
+            return new Response(STATUS_UNAVAILABLE, error("Layout timed out."));
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            return new Response(STATUS_UNAVAILABLE, error("Service is stopping."));
+        }
+        catch (ExecutionException ex)
+        {
+            return new Response(STATUS_INTERNAL_ERROR, error("Layout failed: " + ex.getCause()));
+        }
+
+        if (result.planarity == PlanarityResult.TIMED_OUT)
+        {
+            return new Response(STATUS_UNAVAILABLE, error("Layout timed out."));
+        }
+        else if (result.planarity != PlanarityResult.PLANAR)
+        {
+            return new Response(STATUS_OK, "{\"planar\":false}");
+        }
+        return new Response(STATUS_OK, toJson(graph, result.positions));
+    }
+
+    // the pipeline only takes connected graphs without cut vertices, i.e. graphs that form a single block
+    private static boolean isBiconnected(Graph graph)
+    {
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            if (graph.nodes.get(i).neighbors.isEmpty())
+            {
+                return false;
+            }
+        }
+
+        ArrayList<ArrayList<Edge>> blocks = Helpers.findBiconnectedComponents(graph);
+        return blocks.size() == 1 && blocks.get(0).size() > 1;
+    }
+
+    // lays out each component on its own
+    private Response computeComponentsResponse(Graph graph, CancellationToken token)
+    {
+        Coordinates2D positions;
+        try
+        {
+            positions = layoutDriver.layout(graph, token);
+        }
+        catch (Exception ex)
+        {
+            return new Response(STATUS_INTERNAL_ERROR, error("Layout failed: " + ex));
+        }
+
+        if (positions == null)
+        {
+            return token.isCancelled() ? new Response(STATUS_UNAVAILABLE, error("Layout timed out."))
+                    : new Response(STATUS_OK, "{\"planar\":false}");
+        }
+
+        return new Response(STATUS_OK, toJson(graph, positions));
+    }
+
+    private static Graph parseGraph(String format, byte[] body) throws IOException, GraphFormatException
+    {
+        if (format.equals("edgelist"))
+        {
+            // every node worth laying out takes a few bytes of the body. gaps in the indices would only add
+            // isolated nodes, so indices are capped to keep a tiny body from allocating billions of nodes.
+            return new EdgeListGraphReader(false, Math.max(1, body.length))
+                    .read(Channels.newChannel(new ByteArrayInputStream(body)));
+        }
+
+        CsrGraph csrGraph = CsrGraph.wrap(ByteBuffer.wrap(body));
+        csrGraph.validate();
+        if (csrGraph.isDirected)
+        {
+            throw new GraphFormatException("Graph must be undirected.");
+        }
+        return csrGraph.toGraph();
+    }
+
+    // a straight line drawing without crossings fixes the embedding: neighbors of each node are sorted by the angles
+    // of their edges. the neighbors of the graph are sorted in place.
+    private static String toJson(Graph graph, final Coordinates2D positions)
+    {
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            final int node = i;
+            Collections.sort(graph.nodes.get(node).neighbors, new Comparator<Edge>()
+            {
+                @Override
+                public int compare(Edge first, Edge second)
+                {
+                    return Double.compare(getAngle(first.dest), getAngle(second.dest));
+                }
+
+                private double getAngle(int neighbor)
+                {
+                    return Math.atan2(positions.y[neighbor] - positions.y[node],
+                            positions.x[neighbor] - positions.x[node]);
+                }
+            });
+        }
+
+        StringBuilder json = new StringBuilder("{\"planar\":true,\"embedding\":[");
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            json.append(i == 0 ? "[" : ",[");
+            boolean isFirst = true;
+            for (Edge edge : graph.nodes.get(i).neighbors)
+            {
+                json.append(isFirst ? "" : ",").append(edge.dest);
+                isFirst = false;
+            }
+            json.append(']');
+        }
+
+        // positions may hold nodes added by the triangulation, which aren't part of the answer
+        json.append("],\"coordinates\":[");
+        for (int i = 0; i < graph.nodesCount; i++)
+        {
+            json.append(i == 0 ? "[" : ",[").append(positions.x[i]).append(',').append(positions.y[i]).append(']');
+        }
+        return json.append("]}").toString();
+    }
+
+    // returns null for unknown formats
+    private static String getFormat(String query)
+    {
+        if (query == null)
+        {
+            return "edgelist";
+        }
+        for (String parameter : query.split("&"))
+        {
+            if (parameter.startsWith("format="))
+            {
+                String format = parameter.substring("format=".length());
+                return format.equals("edgelist") || format.equals("csr") ? format : null;
+            }
+        }
+        return "edgelist";
+    }
+
+    // returns null if the body is larger than MAX_BODY_SIZE
+    private static byte[] readBody(InputStream input) throws IOException
+    {
+        byte[] body = new byte[1 << 12];
+        int length = 0;
+        while (true)
+        {
+            if (length == body.length)
+            {
+                if (length == MAX_BODY_SIZE)
+                {
+                    return input.read() < 0 ? body : null;
+                }
+                body = Arrays.copyOf(body, Math.min(2 * length, MAX_BODY_SIZE));
+            }
+            int read = input.read(body, length, body.length - length);
+            if (read < 0)
+            {
+                return Arrays.copyOf(body, length);
+            }
+            length += read;
+        }
+    }
+
+    private static String digest(byte[] body)
+    {
+        try
+        {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        }
+        catch (NoSuchAlgorithmException ex)
+        {
+            // every Java platform has SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String error(String message)
+    {
+        return "{\"error\":\"" + String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException
+    {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                response.body.startsWith("{") ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream output = exchange.getResponseBody())
+        {
+            output.write(body);
+        }
+    }
+
+    // handles every request on its own virtual thread. virtual threads need Java 21, so they are looked up at run
+    // time and older runtimes get a pool that grows with the load.
+    private static ExecutorService newRequestExecutor()
+    {
+        try
+        {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (ReflectiveOperationException ex)
+        {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static class Response
+    {
+        final int status;
+
+        final String body;
+
+        Response(int status, String body)
+        {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}